@@ -0,0 +1,93 @@
+package com.dragonegg.lightning.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooldown checks and ability lookups in {@link AbilityManager}.
+ *
+ * Every player holds a Dragon Egg and every other player is on cooldown, so
+ * both the "ready" and "cooling down" paths are exercised. Calls rotate over
+ * the players so the cooldown map is probed at realistic spread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CooldownBenchmark {
+
+  @Param({"100", "1000"})
+  public int players;
+
+  private AbilityManager abilityManager;
+  private Ability ability;
+  private Player[] online;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ServerMock server = MockBukkit.mock();
+    abilityManager = new AbilityManager(null);
+    ability = abilityManager.getAbility(1);
+    online = new Player[players];
+    for (int i = 0; i < players; i++) {
+      PlayerMock player = server.addPlayer();
+      player.getInventory().setItemInOffHand(new ItemStack(Material.DRAGON_EGG));
+      if (i % 2 == 0) {
+        // Long enough that no cooldown expires during the run
+        abilityManager.setCooldown(player, 3600);
+      }
+      online[i] = player;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    abilityManager.shutdown();
+    MockBukkit.unmock();
+  }
+
+  private Player nextPlayer() {
+    Player player = online[next];
+    next = next + 1 == online.length ? 0 : next + 1;
+    return player;
+  }
+
+  @Benchmark
+  public boolean canUseAbility() {
+    return abilityManager.canUseAbility(nextPlayer(), ability);
+  }
+
+  @Benchmark
+  public int getRemainingCooldown() {
+    return abilityManager.getRemainingCooldown(nextPlayer());
+  }
+
+  @Benchmark
+  public Ability getAbility() {
+    return abilityManager.getAbility(1);
+  }
+}
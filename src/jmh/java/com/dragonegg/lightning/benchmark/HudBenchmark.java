@@ -0,0 +1,73 @@
+package com.dragonegg.lightning.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.hud.HudManager;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One HUD pass over all online players.
+ *
+ * Half of the players hold a Dragon Egg and get an action bar; half of
+ * those are on cooldown, so ready and countdown messages are both rendered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HudBenchmark {
+
+  @Param({"100", "1000"})
+  public int players;
+
+  private AbilityManager abilityManager;
+  private HudManager hudManager;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ServerMock server = MockBukkit.mock();
+    abilityManager = new AbilityManager(null);
+    hudManager = new HudManager(null, abilityManager);
+    for (int i = 0; i < players; i++) {
+      PlayerMock player = server.addPlayer();
+      if (i % 2 == 0) {
+        player.getInventory().setItemInOffHand(new ItemStack(Material.DRAGON_EGG));
+      }
+      if (i % 4 == 0) {
+        abilityManager.setCooldown(player, 3600);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    hudManager.shutdown();
+    abilityManager.shutdown();
+    MockBukkit.unmock();
+  }
+
+  @Benchmark
+  public void hudPass() {
+    hudManager.updateAllPlayerHuds();
+  }
+}
@@ -0,0 +1,91 @@
+package com.dragonegg.lightning.benchmark;
+
+import com.dragonegg.lightning.pilaf.AsyncRconClient;
+import com.dragonegg.lightning.pilaf.FakeRconServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RCON command throughput against the in-process fake server.
+ *
+ * Compares waiting for each reply before sending the next command with
+ * sending a whole batch at once. The latency parameter delays every reply
+ * like a network round trip; at 0 the benchmark measures client and
+ * framing overhead alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RconBenchmark {
+
+  private static final int BATCH = 100;
+
+  @Param({"0", "1"})
+  public int latencyMillis;
+
+  private FakeRconServer server;
+  private AsyncRconClient client;
+  private List<String> commands;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    server = new FakeRconServer("benchmark");
+    server.setResponder(command -> "Summoned new Zombie");
+    server.start();
+    server.setLatency(Duration.ofMillis(latencyMillis));
+    client = new AsyncRconClient("127.0.0.1", server.getPort(), "benchmark");
+    client.connect();
+    commands = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      commands.add("summon zombie " + i + " 64 0");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    client.close();
+    server.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int sequential() throws Exception {
+    int length = 0;
+    for (String command : commands) {
+      length += client.execute(command).get().length();
+    }
+    return length;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int pipelined() throws Exception {
+    int length = 0;
+    for (CompletableFuture<String> output : client.executeAll(commands)) {
+      length += output.get().length();
+    }
+    return length;
+  }
+}
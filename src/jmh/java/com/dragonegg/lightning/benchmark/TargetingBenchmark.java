@@ -0,0 +1,84 @@
+package com.dragonegg.lightning.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import com.dragonegg.lightning.ability.TargetCone;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cone targeting over a synthetic entity set.
+ *
+ * Zombies are scattered with a fixed seed through the cube a 50-block scan
+ * would return, so the candidate set is the same on every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetingBenchmark {
+
+  private static final double MAX_RANGE = 50.0;
+  private static final long SEED = 42L;
+
+  @Param({"100", "1000", "5000"})
+  public int entities;
+
+  private final TargetCone cone = new TargetCone();
+  private List<Entity> candidates;
+  private Location eyeLocation;
+  private Vector direction;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ServerMock server = MockBukkit.mock();
+    WorldMock world = server.addSimpleWorld("benchmark");
+    eyeLocation = new Location(world, 0.0, 65.6, 0.0);
+    direction = new Vector(1.0, 0.0, 0.0);
+
+    Random random = new Random(SEED);
+    candidates = new ArrayList<>(entities);
+    for (int i = 0; i < entities; i++) {
+      Location location = eyeLocation.clone().add(
+        (random.nextDouble() * 2 - 1) * MAX_RANGE,
+        (random.nextDouble() * 2 - 1) * MAX_RANGE,
+        (random.nextDouble() * 2 - 1) * MAX_RANGE
+      );
+      candidates.add(world.spawnEntity(location, EntityType.ZOMBIE));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Benchmark
+  public LivingEntity nearestInCone() {
+    return cone.nearest(eyeLocation, direction, candidates, MAX_RANGE, null, null);
+  }
+}
@@ -1,30 +1,56 @@
 package com.dragonegg.lightning;
 
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
 import com.dragonegg.lightning.ability.AbilityManager;
 import com.dragonegg.lightning.command.AbilityCommand;
+import com.dragonegg.lightning.command.CommandRateLimiter;
+import com.dragonegg.lightning.config.ConfigManager;
 import com.dragonegg.lightning.hud.HudManager;
+import com.dragonegg.lightning.listener.AbilityActivationListener;
+import com.dragonegg.lightning.metrics.MetricsHttpServer;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import com.dragonegg.lightning.trace.CastTraceBuffer;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Main plugin class for Dragon Egg Lightning ability.
  */
 public class DragonEggLightningPlugin extends JavaPlugin {
 
+  private MetricsRegistry metrics;
+  private CastTraceBuffer castTrace;
+  private ConfigManager configManager;
   private AbilityManager abilityManager;
   private HudManager hudManager;
+  private CommandRateLimiter commandRateLimiter;
+  private MetricsHttpServer metricsServer;
 
   @Override
   public void onEnable() {
+    saveDefaultConfig();
+    this.metrics = new MetricsRegistry();
+    this.castTrace = new CastTraceBuffer(getConfig().getInt("trace.capacity", 1024));
+    this.configManager = new ConfigManager(this);
+
     this.abilityManager = new AbilityManager(this);
     this.hudManager = new HudManager(this, abilityManager);
 
     registerCommands();
     registerListeners();
+    registerTickProfiler();
+    startMetricsServer();
 
     getLogger().info("DragonEggLightning plugin enabled!");
     getLogger().info("Plugin version: " + getDescription().getVersion());
@@ -32,9 +58,15 @@ public class DragonEggLightningPlugin extends JavaPlugin {
 
   @Override
   public void onDisable() {
+    if (metricsServer != null) {
+      metricsServer.stop();
+    }
     if (hudManager != null) {
       hudManager.shutdown();
     }
+    if (abilityManager != null) {
+      abilityManager.shutdown();
+    }
     getLogger().info("DragonEggLightning plugin disabled!");
   }
 
@@ -42,16 +74,84 @@ public class DragonEggLightningPlugin extends JavaPlugin {
    * Register plugin commands.
    */
   private void registerCommands() {
-    AbilityCommand abilityCommand = new AbilityCommand(this, abilityManager);
-    getCommand("ability").setExecutor(abilityCommand);
-    getCommand("ability").setTabCompleter(abilityCommand);
+    this.commandRateLimiter = new CommandRateLimiter(
+      getConfig().getDouble("commands.rate-limit.burst", 3.0),
+      getConfig().getDouble("commands.rate-limit.per-second", 2.0)
+    );
+    getServer().getPluginManager().registerEvents(commandRateLimiter, this);
+    metrics.counter(
+      "dragonegg_commands_throttled_total",
+      "/ability commands rejected by the rate limiter",
+      commandRateLimiter::getTotalThrottled
+    );
+
+    AbilityCommand abilityCommand = new AbilityCommand(this, abilityManager, commandRateLimiter);
+    getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event ->
+      event.registrar().register(
+        abilityCommand.createNode(),
+        "Activate dragon egg ability",
+        List.of()
+      )
+    );
   }
 
   /**
    * Register event listeners.
    */
   private void registerListeners() {
-    // Event listeners will be registered here if needed
+    if (getConfig().getBoolean("activation.right-click", true)) {
+      getServer().getPluginManager().registerEvents(
+        new AbilityActivationListener(this, abilityManager),
+        this
+      );
+    }
+  }
+
+  /**
+   * Close each tick's profiler totals when the server finishes the tick.
+   */
+  private void registerTickProfiler() {
+    TickProfiler profiler = metrics.getTickProfiler();
+    getServer().getPluginManager().registerEvent(
+      ServerTickEndEvent.class,
+      new Listener() { },
+      EventPriority.MONITOR,
+      (listener, event) -> profiler.endTick(System.nanoTime()),
+      this
+    );
+  }
+
+  /**
+   * Start the Prometheus endpoint if it is enabled in the config.
+   */
+  private void startMetricsServer() {
+    if (!getConfig().getBoolean("metrics.http.enabled", false)) {
+      return;
+    }
+    String host = getConfig().getString("metrics.http.bind-address", "127.0.0.1");
+    int port = getConfig().getInt("metrics.http.port", 9464);
+    MetricsHttpServer server = new MetricsHttpServer(metrics, new InetSocketAddress(host, port));
+    try {
+      server.start();
+      this.metricsServer = server;
+      getLogger().info("Serving metrics on http://" + host + ":" + server.getPort()
+        + MetricsHttpServer.PATH);
+    } catch (IOException e) {
+      getLogger().warning("Could not start metrics endpoint on " + host + ":" + port
+        + ": " + e.getMessage());
+    }
+  }
+
+  public MetricsRegistry getMetrics() {
+    return metrics;
+  }
+
+  public CastTraceBuffer getCastTrace() {
+    return castTrace;
+  }
+
+  public ConfigManager getConfigManager() {
+    return configManager;
   }
 
   public AbilityManager getAbilityManager() {
@@ -62,6 +162,10 @@ public class DragonEggLightningPlugin extends JavaPlugin {
     return hudManager;
   }
 
+  public CommandRateLimiter getCommandRateLimiter() {
+    return commandRateLimiter;
+  }
+
   /**
    * Send plugin info to player
    */
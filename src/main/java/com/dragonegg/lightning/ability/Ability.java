@@ -15,6 +15,17 @@ public interface Ability {
    */
   boolean execute(Player player);
 
+  /**
+   * Execute the ability for a player whose cast waited for an admission slot.
+   *
+   * @param player The player using the ability
+   * @param queuedTicks Ticks since the player activated the ability
+   * @return true if the ability was successfully executed
+   */
+  default boolean execute(Player player, int queuedTicks) {
+    return execute(player);
+  }
+
   /**
    * Check if the player has the required item for this ability.
    *
@@ -1,43 +1,197 @@
 package com.dragonegg.lightning.ability;
 
 import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.config.ConfigManager;
+import com.dragonegg.lightning.jfr.AbilityCastEvent;
+import com.dragonegg.lightning.metrics.Counter;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
  * Manages player abilities and cooldowns.
  */
 public class AbilityManager implements Listener {
 
+  private static final int DEFAULT_MAX_OFFLINE_COOLDOWNS = 50000;
+  private static final long DEFAULT_SWEEP_INTERVAL_TICKS = 1200L; // 60 seconds
+  private static final int DEFAULT_MAX_CONCURRENT_CASTS = 16;
+  private static final int DEFAULT_MAX_CASTS_PER_REGION = 4;
+  private static final int DEFAULT_REGION_SIZE_CHUNKS = 8;
+  private static final int DEFAULT_MAX_CAST_QUEUE = 32;
+  private static final long DEFAULT_CAST_QUEUE_TIMEOUT_TICKS = 40L; // 2 seconds
+  private static final long CAST_QUEUE_CHECK_TICKS = 5L;
+
+  /**
+   * Outcome of {@link #useAbility(Player, Ability)}.
+   */
+  public enum UseResult {
+    /** The cast started. */
+    STARTED,
+    /** The cast is waiting for an admission slot; the player has been told. */
+    QUEUED,
+    /** The player already has a cast waiting for a slot; the player has been told. */
+    ALREADY_QUEUED,
+    /** The admission queue is full, or the player already holds a slot. */
+    REJECTED,
+    /** The player is on cooldown or lacks the required item. */
+    UNAVAILABLE,
+    /** The ability did not start, e.g. for lack of a target. */
+    FAILED;
+
+    /**
+     * @return Whether the cast started or will start once admitted
+     */
+    public boolean accepted() {
+      return this == STARTED || this == QUEUED;
+    }
+  }
+
   private final DragonEggLightningPlugin plugin;
-  private final Map<UUID, Ability> abilities;
-  private final Map<UUID, Long> cooldowns;
+  // Abilities indexed by their numeric ID; slot 0 is unused
+  private Ability[] abilities;
+  private final CooldownStore cooldowns;
+  private final CastAdmissionController castAdmission;
+  private final ActiveCastRegistry castRegistry;
+  private final int regionSizeChunks;
+  private final MetricsRegistry metrics;
+  private final Counter castsStarted;
+  private final Counter castsFailed;
+  private final Histogram castLatency;
+  private BukkitTask sweepTask;
+  private BukkitTask castQueueTask;
+  // Time source for cooldowns, in epoch milliseconds
+  private LongSupplier clock = System::currentTimeMillis;
 
   public AbilityManager(DragonEggLightningPlugin plugin) {
     this.plugin = plugin;
-    this.abilities = new HashMap<>();
-    this.cooldowns = new HashMap<>();
+    this.abilities = new Ability[2];
+    this.cooldowns = new CooldownStore(
+      configInt("cooldowns.max-offline-entries", DEFAULT_MAX_OFFLINE_COOLDOWNS)
+    );
+    this.castAdmission = new CastAdmissionController(
+      configInt("casts.max-concurrent", DEFAULT_MAX_CONCURRENT_CASTS),
+      configInt("casts.max-concurrent-per-region", DEFAULT_MAX_CASTS_PER_REGION),
+      configInt("casts.max-queue-length", DEFAULT_MAX_CAST_QUEUE),
+      configInt("casts.queue-timeout-ticks", (int) DEFAULT_CAST_QUEUE_TIMEOUT_TICKS) * 50L
+    );
+    this.regionSizeChunks = configInt("casts.region-size-chunks", DEFAULT_REGION_SIZE_CHUNKS);
+    // Slots are released whenever a registered cast ends
+    this.castRegistry = new ActiveCastRegistry(castAdmission::release);
+
+    this.metrics = plugin != null ? plugin.getMetrics() : new MetricsRegistry();
+    this.castsStarted = metrics.counter(
+      "dragonegg_casts_total",
+      "Ability casts that started"
+    );
+    this.castsFailed = metrics.counter(
+      "dragonegg_casts_failed_total",
+      "Admitted ability casts that failed to start"
+    );
+    this.castLatency = metrics.histogram(
+      "dragonegg_cast_latency_nanos",
+      "Main-thread time to start an admitted cast, in nanoseconds"
+    );
+    registerGauges();
 
     registerAbilities();
     registerEventListeners();
+    startSweepTask();
+    startCastQueueTask();
+  }
+
+  /**
+   * Read an integer config value, falling back to the default without a plugin.
+   */
+  private int configInt(String path, int defaultValue) {
+    return plugin != null ? plugin.getConfig().getInt(path, defaultValue) : defaultValue;
   }
 
   /**
    * Register available abilities.
    */
   private void registerAbilities() {
-    abilities.put(
-      UUID.fromString("00000000-0000-0000-0000-000000000001"),
-      new LightningAbility(plugin)
+    ConfigManager configManager = plugin != null ? plugin.getConfigManager() : new ConfigManager(null);
+    registerAbility(1, new LightningAbility(plugin, castRegistry, configManager, metrics));
+  }
+
+  /**
+   * Expose cooldown and cast admission state as gauges, and the admission
+   * totals as counters.
+   */
+  private void registerGauges() {
+    metrics.gauge(
+      "dragonegg_cooldown_entries",
+      "Stored cooldowns for online and offline players",
+      cooldowns::size
+    );
+    metrics.gauge(
+      "dragonegg_cooldown_offline_entries",
+      "Stored cooldowns for offline players",
+      cooldowns::offlineSize
+    );
+    metrics.gauge(
+      "dragonegg_cooldown_bytes",
+      "Estimated heap used by stored cooldowns",
+      cooldowns::estimatedBytes
+    );
+    metrics.gauge(
+      "dragonegg_active_casts",
+      "Casts currently in flight",
+      castRegistry::size
+    );
+    metrics.gauge(
+      "dragonegg_cast_queue_length",
+      "Casts waiting for an admission slot",
+      castAdmission::getQueueLength
     );
+    metrics.gauge(
+      "dragonegg_cast_queue_wait_max_nanos",
+      "Longest admission queue wait, in nanoseconds",
+      castAdmission::getMaxWaitNanos
+    );
+    metrics.counter(
+      "dragonegg_cast_queue_timeouts_total",
+      "Queued casts that timed out",
+      castAdmission::getTimedOutCount
+    );
+    metrics.counter(
+      "dragonegg_cast_rejections_total",
+      "Casts rejected by the admission limiter",
+      castAdmission::getRejectedCount
+    );
+  }
+
+  /**
+   * Register an ability under a numeric ID.
+   *
+   * @param abilityId The ability ID (1, 2, etc.)
+   * @param ability The ability
+   */
+  private void registerAbility(int abilityId, Ability ability) {
+    if (abilityId < 1) {
+      throw new IllegalArgumentException("Ability IDs start at 1: " + abilityId);
+    }
+    if (abilityId >= abilities.length) {
+      abilities = Arrays.copyOf(abilities, abilityId + 1);
+    }
+    abilities[abilityId] = ability;
   }
 
   /**
@@ -50,6 +204,57 @@ public class AbilityManager implements Listener {
     }
   }
 
+  /**
+   * Start the background task that drops expired cooldowns.
+   * Only starts if plugin is not null (handles testing scenarios).
+   */
+  private void startSweepTask() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    long interval = Math.max(20L, plugin.getConfig().getLong(
+      "cooldowns.sweep-interval-ticks",
+      DEFAULT_SWEEP_INTERVAL_TICKS
+    ));
+    sweepTask = plugin.getServer().getScheduler().runTaskTimer(
+      plugin,
+      this::sweepExpiredCooldowns,
+      interval,
+      interval
+    );
+  }
+
+  /**
+   * Start the task that times out casts waiting for an admission slot.
+   */
+  private void startCastQueueTask() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    castQueueTask = plugin.getServer().getScheduler().runTaskTimer(
+      plugin,
+      () -> castAdmission.expire(),
+      CAST_QUEUE_CHECK_TICKS,
+      CAST_QUEUE_CHECK_TICKS
+    );
+  }
+
+  /**
+   * Get the current server tick, or 0 when running without a server.
+   */
+  private int currentTick() {
+    return plugin != null && plugin.getServer() != null ? plugin.getServer().getCurrentTick() : 0;
+  }
+
+  /**
+   * Drop expired cooldowns for online and offline players.
+   *
+   * @return Number of cooldown entries removed
+   */
+  public int sweepExpiredCooldowns() {
+    return cooldowns.sweep(clock.getAsLong());
+  }
+
   /**
    * Get ability by ID.
    *
@@ -57,10 +262,32 @@ public class AbilityManager implements Listener {
    * @return The ability or null if not found
    */
   public Ability getAbility(int abilityId) {
-    UUID abilityUuid = UUID.fromString(
-      String.format("00000000-0000-0000-0000-%012d", abilityId)
-    );
-    return abilities.get(abilityUuid);
+    if (abilityId < 1 || abilityId >= abilities.length) {
+      return null;
+    }
+    return abilities[abilityId];
+  }
+
+  /**
+   * Get the IDs of all registered abilities in ascending order.
+   *
+   * @return The registered ability IDs
+   */
+  public int[] getAbilityIds() {
+    int count = 0;
+    for (Ability ability : abilities) {
+      if (ability != null) {
+        count++;
+      }
+    }
+    int[] ids = new int[count];
+    int next = 0;
+    for (int i = 1; i < abilities.length; i++) {
+      if (abilities[i] != null) {
+        ids[next++] = i;
+      }
+    }
+    return ids;
   }
 
   /**
@@ -78,31 +305,119 @@ public class AbilityManager implements Listener {
       return false;
     }
 
-    Long cooldownEnd = cooldowns.get(player.getUniqueId());
-    if (cooldownEnd == null) {
+    long cooldownEnd = cooldowns.getCooldownEnd(player.getUniqueId());
+    if (cooldownEnd == 0L) {
       return true;
     }
 
-    return System.currentTimeMillis() >= cooldownEnd;
+    return clock.getAsLong() >= cooldownEnd;
   }
 
   /**
    * Use an ability.
    *
+   * The cast must first be admitted by the concurrency limiter. If too many
+   * casts are running globally or near the player, the cast is queued and
+   * runs once a slot frees up, or fizzles after a short timeout.
+   *
    * @param player The player
    * @param ability The ability
-   * @return true if the ability was successfully used
+   * @return What happened to the cast
    */
-  public boolean useAbility(Player player, Ability ability) {
+  public UseResult useAbility(Player player, Ability ability) {
     if (!canUseAbility(player, ability)) {
-      return false;
+      return UseResult.UNAVAILABLE;
     }
 
-    boolean success = ability.execute(player);
+    UUID playerId = player.getUniqueId();
+    // A queued cast carries its activation tick so its latency includes the wait
+    int requestTick = currentTick();
+    CastAdmissionController.Result admission = castAdmission.admit(
+      playerId,
+      CastAdmissionController.Region.of(
+        player.getWorld().getUID(),
+        player.getLocation().getBlockX(),
+        player.getLocation().getBlockZ(),
+        regionSizeChunks
+      ),
+      () -> runQueuedCast(player, ability, requestTick),
+      () -> player.sendMessage(
+        Component.text("Lightning fizzled! Too many casts nearby, try again.", NamedTextColor.RED)
+      )
+    );
+
+    switch (admission) {
+      case ADMITTED:
+        return executeAdmitted(player, ability, 0) ? UseResult.STARTED : UseResult.FAILED;
+      case QUEUED:
+        player.sendMessage(
+          Component.text("Too many casts nearby, your lightning is queued...", NamedTextColor.GOLD)
+        );
+        return UseResult.QUEUED;
+      default:
+        if (castAdmission.isQueued(playerId)) {
+          player.sendMessage(
+            Component.text("Your lightning is already queued...", NamedTextColor.GOLD)
+          );
+          return UseResult.ALREADY_QUEUED;
+        }
+        return UseResult.REJECTED;
+    }
+  }
+
+  /**
+   * Run a cast that waited in the admission queue.
+   *
+   * @param requestTick The tick the player activated the cast on
+   */
+  private void runQueuedCast(Player player, Ability ability, int requestTick) {
+    if (!player.isOnline() || !canUseAbility(player, ability)) {
+      castAdmission.release(player.getUniqueId());
+      return;
+    }
+    executeAdmitted(player, ability, currentTick() - requestTick);
+  }
+
+  /**
+   * Execute an ability that holds an admission slot.
+   * The slot is kept while the cast is in flight and released when it ends.
+   *
+   * @param queuedTicks Ticks the cast waited for its slot
+   */
+  private boolean executeAdmitted(Player player, Ability ability, int queuedTicks) {
+    UUID playerId = player.getUniqueId();
+    // Start the cooldown before the cast runs. Its first strike lands inside
+    // execute(), and a cast that ends there releases its slot, which can run
+    // queued casts before execute() returns
+    long previousCooldownEnd = cooldowns.getCooldownEnd(playerId);
+    cooldowns.setCooldownEnd(playerId, clock.getAsLong() + ability.getCooldownMillis());
+
+    AbilityCastEvent event = new AbilityCastEvent();
+    event.begin();
+    long start = System.nanoTime();
+    boolean success = ability.execute(player, queuedTicks);
+    castLatency.record(System.nanoTime() - start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.player = player.getName();
+      event.ability = ability.getName();
+      event.success = success;
+      event.commit();
+    }
     if (success) {
-      long cooldownEnd = System.currentTimeMillis() +
-        ability.getCooldownMillis();
-      cooldowns.put(player.getUniqueId(), cooldownEnd);
+      castsStarted.increment();
+    } else {
+      castsFailed.increment();
+      // A cast that never started costs no cooldown
+      if (previousCooldownEnd == 0L) {
+        cooldowns.remove(playerId);
+      } else {
+        cooldowns.setCooldownEnd(playerId, previousCooldownEnd);
+      }
+    }
+    if (!castRegistry.isCasting(playerId)) {
+      // Failed or instantaneous casts give their slot back straight away
+      castAdmission.release(playerId);
     }
 
     return success;
@@ -118,12 +433,12 @@ public class AbilityManager implements Listener {
     if (player == null) {
       return 0;
     }
-    Long cooldownEnd = cooldowns.get(player.getUniqueId());
-    if (cooldownEnd == null) {
+    long cooldownEnd = cooldowns.getCooldownEnd(player.getUniqueId());
+    if (cooldownEnd == 0L) {
       return 0;
     }
 
-    long remaining = cooldownEnd - System.currentTimeMillis();
+    long remaining = cooldownEnd - clock.getAsLong();
     if (remaining <= 0) {
       cooldowns.remove(player.getUniqueId());
       return 0;
@@ -164,8 +479,8 @@ public class AbilityManager implements Listener {
    */
   public void setCooldown(Player player, int cooldownSeconds) {
     if (player != null) {
-      long cooldownEnd = System.currentTimeMillis() + (cooldownSeconds * 1000L);
-      cooldowns.put(player.getUniqueId(), cooldownEnd);
+      long cooldownEnd = clock.getAsLong() + (cooldownSeconds * 1000L);
+      cooldowns.setCooldownEnd(player.getUniqueId(), cooldownEnd);
     }
   }
 
@@ -193,10 +508,13 @@ public class AbilityManager implements Listener {
   public void onPlayerJoin(PlayerJoinEvent event) {
     Player player = event.getPlayer();
     if (player != null) {
+      // Bring any cooldown parked while offline back to the online tier
+      cooldowns.markOnline(player.getUniqueId());
+
       // Check if player has remaining cooldown
-      Long cooldownEnd = cooldowns.get(player.getUniqueId());
-      if (cooldownEnd != null) {
-        long remaining = cooldownEnd - System.currentTimeMillis();
+      long cooldownEnd = cooldowns.getCooldownEnd(player.getUniqueId());
+      if (cooldownEnd != 0L) {
+        long remaining = cooldownEnd - clock.getAsLong();
         if (remaining <= 0) {
           // Cooldown has expired while offline, remove it
           cooldowns.remove(player.getUniqueId());
@@ -205,4 +523,131 @@ public class AbilityManager implements Listener {
       }
     }
   }
+
+  /**
+   * Event handler for player quit - parks the cooldown in the compact offline tier.
+   *
+   * @param event The player quit event
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    Player player = event.getPlayer();
+    if (player != null) {
+      castAdmission.removeQueued(player.getUniqueId());
+      castRegistry.cancel(player.getUniqueId());
+      cooldowns.markOffline(player.getUniqueId(), clock.getAsLong());
+    }
+  }
+
+  /**
+   * Event handler for world change - cancels any cast that was in flight.
+   *
+   * @param event The player changed world event
+   */
+  @EventHandler
+  public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+    Player player = event.getPlayer();
+    if (player == null) {
+      return;
+    }
+    boolean dequeued = castAdmission.removeQueued(player.getUniqueId());
+    if (castRegistry.cancel(player.getUniqueId()) || dequeued) {
+      player.sendMessage(
+        Component.text("Ability cancelled! You changed worlds.", NamedTextColor.RED)
+      );
+    }
+  }
+
+  /**
+   * Replace the clock used for cooldowns and for timing queued casts.
+   * Tests that step the scheduler move this clock with it, so a full
+   * cooldown or queue timeout passes without waiting for it in real time.
+   *
+   * @param clock Current time in epoch milliseconds
+   */
+  public void setClock(LongSupplier clock) {
+    this.clock = Objects.requireNonNull(clock, "clock");
+    castAdmission.setClock(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()));
+  }
+
+  /**
+   * Get the current time on the cooldown clock.
+   *
+   * @return Current time in epoch milliseconds
+   */
+  public long currentTimeMillis() {
+    return clock.getAsLong();
+  }
+
+  /**
+   * Get the number of ability casts currently in flight.
+   *
+   * @return Active cast count
+   */
+  public int getActiveCastCount() {
+    return castRegistry.size();
+  }
+
+  /**
+   * Get the number of casts waiting for an admission slot.
+   *
+   * @return Cast queue length
+   */
+  public int getCastQueueLength() {
+    return castAdmission.getQueueLength();
+  }
+
+  /**
+   * Get the cast admission controller (for queue wait statistics).
+   *
+   * @return The admission controller
+   */
+  public CastAdmissionController getCastAdmission() {
+    return castAdmission;
+  }
+
+  /**
+   * Get the number of stored cooldown entries (online and offline).
+   *
+   * @return Cooldown entry count
+   */
+  public int getCooldownEntryCount() {
+    return cooldowns.size();
+  }
+
+  /**
+   * Get the estimated heap footprint of stored cooldowns.
+   *
+   * @return Estimated size in bytes
+   */
+  public long getCooldownMemoryBytes() {
+    return cooldowns.estimatedBytes();
+  }
+
+  /**
+   * Get the metrics registry this manager reports to.
+   *
+   * @return The metrics registry
+   */
+  public MetricsRegistry getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Shutdown the ability manager.
+   */
+  public void shutdown() {
+    if (sweepTask != null) {
+      sweepTask.cancel();
+    }
+    if (castQueueTask != null) {
+      castQueueTask.cancel();
+    }
+    // Drop queued casts first so cancelling running ones cannot admit them
+    castAdmission.clearQueue();
+    int cancelled = castRegistry.cancelAll();
+    if (cancelled > 0 && plugin != null) {
+      plugin.getLogger().info("Cancelled " + cancelled + " in-flight ability casts");
+    }
+  }
 }
@@ -0,0 +1,13 @@
+package com.dragonegg.lightning.ability;
+
+/**
+ * An ability cast that is still running on the scheduler.
+ */
+public interface ActiveCast {
+
+  /**
+   * Stop the cast, cancel its scheduled task and release any player or entity
+   * references it holds. Must be safe to call more than once.
+   */
+  void stop();
+}
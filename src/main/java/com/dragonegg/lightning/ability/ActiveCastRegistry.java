@@ -0,0 +1,104 @@
+package com.dragonegg.lightning.ability;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Tracks in-flight ability casts keyed by caster so they can be cancelled
+ * when the caster leaves, changes world or the plugin is disabled.
+ *
+ * Not thread-safe; all access is expected on the server main thread.
+ */
+public class ActiveCastRegistry {
+
+  private final Map<UUID, ActiveCast> casts;
+  private final Consumer<UUID> onCastEnded;
+
+  public ActiveCastRegistry() {
+    this(casterId -> { });
+  }
+
+  /**
+   * @param onCastEnded Called with the caster UUID whenever a registered cast
+   *                    finishes or is cancelled
+   */
+  public ActiveCastRegistry(Consumer<UUID> onCastEnded) {
+    this.casts = new HashMap<>();
+    this.onCastEnded = onCastEnded;
+  }
+
+  /**
+   * Register a running cast. A previous cast by the same caster is stopped.
+   *
+   * @param casterId The caster UUID
+   * @param cast The running cast
+   */
+  public void register(UUID casterId, ActiveCast cast) {
+    ActiveCast previous = casts.put(casterId, cast);
+    if (previous != null && previous != cast) {
+      previous.stop();
+    }
+  }
+
+  /**
+   * Remove a cast that finished on its own.
+   *
+   * @param casterId The caster UUID
+   * @param cast The cast that finished
+   */
+  public void unregister(UUID casterId, ActiveCast cast) {
+    if (casts.remove(casterId, cast)) {
+      onCastEnded.accept(casterId);
+    }
+  }
+
+  /**
+   * Cancel the in-flight cast of a caster, if any.
+   *
+   * @param casterId The caster UUID
+   * @return true if a cast was cancelled
+   */
+  public boolean cancel(UUID casterId) {
+    ActiveCast cast = casts.remove(casterId);
+    if (cast == null) {
+      return false;
+    }
+    cast.stop();
+    onCastEnded.accept(casterId);
+    return true;
+  }
+
+  /**
+   * Cancel every in-flight cast.
+   *
+   * @return Number of casts cancelled
+   */
+  public int cancelAll() {
+    Map<UUID, ActiveCast> running = new HashMap<>(casts);
+    casts.clear();
+    for (Map.Entry<UUID, ActiveCast> entry : running.entrySet()) {
+      entry.getValue().stop();
+      onCastEnded.accept(entry.getKey());
+    }
+    return running.size();
+  }
+
+  /**
+   * Check if a caster has a cast in flight.
+   *
+   * @param casterId The caster UUID
+   * @return true if a cast is running
+   */
+  public boolean isCasting(UUID casterId) {
+    return casts.containsKey(casterId);
+  }
+
+  /**
+   * @return Number of casts currently in flight
+   */
+  public int size() {
+    return casts.size();
+  }
+}
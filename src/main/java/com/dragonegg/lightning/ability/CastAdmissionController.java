@@ -0,0 +1,310 @@
+package com.dragonegg.lightning.ability;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many casts may run at once, globally and per region.
+ *
+ * Casts that arrive while a cap is reached wait in a FIFO queue and are
+ * admitted in arrival order as slots free up. A queued cast whose region is
+ * still full does not block casts queued behind it for other regions. Queued
+ * casts that wait longer than the timeout are dropped. Waits are measured on
+ * a replaceable clock, {@link System#nanoTime()} by default.
+ *
+ * Not thread-safe; all access is expected on the server main thread.
+ */
+public class CastAdmissionController {
+
+  /**
+   * Outcome of an admission request.
+   */
+  public enum Result {
+    /** A slot was free and the cast may start now. */
+    ADMITTED,
+    /** The cast is waiting for a slot. */
+    QUEUED,
+    /** The queue is full or the caster is already casting or waiting. */
+    REJECTED
+  }
+
+  /**
+   * A square area of chunks within one world.
+   */
+  public record Region(UUID worldId, int x, int z) {
+
+    /**
+     * Get the region containing a block position.
+     *
+     * @param worldId The world UUID
+     * @param blockX Block X coordinate
+     * @param blockZ Block Z coordinate
+     * @param regionSizeChunks Region edge length in chunks
+     * @return The region
+     */
+    public static Region of(UUID worldId, int blockX, int blockZ, int regionSizeChunks) {
+      int size = Math.max(1, regionSizeChunks);
+      return new Region(
+        worldId,
+        Math.floorDiv(blockX >> 4, size),
+        Math.floorDiv(blockZ >> 4, size)
+      );
+    }
+  }
+
+  private record PendingCast(
+    UUID casterId,
+    Region region,
+    long enqueuedNanos,
+    Runnable onAdmitted,
+    Runnable onTimedOut
+  ) {
+  }
+
+  private final Map<UUID, Region> holders;
+  private final Map<Region, Integer> regionCounts;
+  private final ArrayDeque<PendingCast> queue;
+
+  private LongSupplier clock = System::nanoTime;
+  private int maxConcurrent;
+  private int maxConcurrentPerRegion;
+  private int maxQueueLength;
+  private long queueTimeoutNanos;
+
+  // Queue statistics
+  private long admittedFromQueue;
+  private long timedOut;
+  private long rejected;
+  private long totalWaitNanos;
+  private long maxWaitNanos;
+
+  public CastAdmissionController(
+    int maxConcurrent,
+    int maxConcurrentPerRegion,
+    int maxQueueLength,
+    long queueTimeoutMillis
+  ) {
+    this.holders = new HashMap<>();
+    this.regionCounts = new HashMap<>();
+    this.queue = new ArrayDeque<>();
+    setLimits(maxConcurrent, maxConcurrentPerRegion, maxQueueLength, queueTimeoutMillis);
+  }
+
+  /**
+   * Update the admission limits. Casts already running are not affected.
+   */
+  public void setLimits(
+    int maxConcurrent,
+    int maxConcurrentPerRegion,
+    int maxQueueLength,
+    long queueTimeoutMillis
+  ) {
+    this.maxConcurrent = Math.max(1, maxConcurrent);
+    this.maxConcurrentPerRegion = Math.max(1, maxConcurrentPerRegion);
+    this.maxQueueLength = Math.max(0, maxQueueLength);
+    this.queueTimeoutNanos = Math.max(0L, queueTimeoutMillis) * 1_000_000L;
+  }
+
+  /**
+   * Request a cast slot.
+   *
+   * @param casterId The caster UUID
+   * @param region The region the cast happens in
+   * @param onAdmitted Run when a queued cast is admitted later (not on immediate admission)
+   * @param onTimedOut Run when a queued cast times out
+   * @return Whether the cast was admitted now, queued or rejected
+   */
+  public Result admit(UUID casterId, Region region, Runnable onAdmitted, Runnable onTimedOut) {
+    if (holders.containsKey(casterId) || isQueued(casterId)) {
+      rejected++;
+      return Result.REJECTED;
+    }
+    if (hasCapacity(region)) {
+      acquire(casterId, region);
+      return Result.ADMITTED;
+    }
+    if (queue.size() >= maxQueueLength) {
+      rejected++;
+      return Result.REJECTED;
+    }
+    queue.addLast(new PendingCast(casterId, region, clock.getAsLong(), onAdmitted, onTimedOut));
+    return Result.QUEUED;
+  }
+
+  /**
+   * Release the slot held by a caster and admit queued casts that now fit.
+   *
+   * @param casterId The caster UUID
+   */
+  public void release(UUID casterId) {
+    Region region = holders.remove(casterId);
+    if (region == null) {
+      return;
+    }
+    regionCounts.computeIfPresent(region, (key, count) -> count > 1 ? count - 1 : null);
+    drainQueue();
+  }
+
+  /**
+   * Drop queued casts that waited longer than the timeout.
+   *
+   * @return Number of queued casts dropped
+   */
+  public int expire() {
+    return expire(clock.getAsLong());
+  }
+
+  /**
+   * Drop queued casts that waited longer than the timeout.
+   *
+   * @param nowNanos Current time on the controller's clock
+   * @return Number of queued casts dropped
+   */
+  public int expire(long nowNanos) {
+    if (queue.isEmpty()) {
+      return 0;
+    }
+    int expired = 0;
+    List<PendingCast> timedOutCasts = new ArrayList<>();
+    Iterator<PendingCast> it = queue.iterator();
+    while (it.hasNext()) {
+      PendingCast pending = it.next();
+      if (nowNanos - pending.enqueuedNanos() < queueTimeoutNanos) {
+        // Entries are in arrival order, so the rest are younger
+        break;
+      }
+      it.remove();
+      timedOut++;
+      expired++;
+      timedOutCasts.add(pending);
+    }
+    for (PendingCast pending : timedOutCasts) {
+      pending.onTimedOut().run();
+    }
+    return expired;
+  }
+
+  /**
+   * Remove a caster's queued cast without running any callback.
+   *
+   * @param casterId The caster UUID
+   * @return true if a queued cast was removed
+   */
+  public boolean removeQueued(UUID casterId) {
+    return queue.removeIf(pending -> pending.casterId().equals(casterId));
+  }
+
+  /**
+   * Drop every queued cast without running callbacks (used on shutdown).
+   */
+  public void clearQueue() {
+    queue.clear();
+  }
+
+  /**
+   * Replace the clock used to time queued casts.
+   *
+   * @param clock Current time in nanoseconds
+   */
+  public void setClock(LongSupplier clock) {
+    this.clock = Objects.requireNonNull(clock, "clock");
+  }
+
+  public boolean isHolding(UUID casterId) {
+    return holders.containsKey(casterId);
+  }
+
+  public boolean isQueued(UUID casterId) {
+    for (PendingCast pending : queue) {
+      if (pending.casterId().equals(casterId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Number of casts holding a slot
+   */
+  public int getActiveCount() {
+    return holders.size();
+  }
+
+  /**
+   * @return Number of casts waiting for a slot
+   */
+  public int getQueueLength() {
+    return queue.size();
+  }
+
+  public long getAdmittedFromQueueCount() {
+    return admittedFromQueue;
+  }
+
+  public long getTimedOutCount() {
+    return timedOut;
+  }
+
+  public long getRejectedCount() {
+    return rejected;
+  }
+
+  /**
+   * @return Mean queue wait of admitted casts in nanoseconds
+   */
+  public long getAverageWaitNanos() {
+    return admittedFromQueue == 0 ? 0L : totalWaitNanos / admittedFromQueue;
+  }
+
+  /**
+   * @return Longest queue wait of an admitted cast in nanoseconds
+   */
+  public long getMaxWaitNanos() {
+    return maxWaitNanos;
+  }
+
+  private boolean hasCapacity(Region region) {
+    return holders.size() < maxConcurrent
+      && regionCounts.getOrDefault(region, 0) < maxConcurrentPerRegion;
+  }
+
+  private void acquire(UUID casterId, Region region) {
+    holders.put(casterId, region);
+    regionCounts.merge(region, 1, Integer::sum);
+  }
+
+  private void drainQueue() {
+    if (queue.isEmpty()) {
+      return;
+    }
+    long now = clock.getAsLong();
+    List<PendingCast> admitted = new ArrayList<>();
+    Iterator<PendingCast> it = queue.iterator();
+    while (it.hasNext() && holders.size() < maxConcurrent) {
+      PendingCast pending = it.next();
+      if (!hasCapacity(pending.region())) {
+        continue;
+      }
+      it.remove();
+      acquire(pending.casterId(), pending.region());
+
+      long waited = now - pending.enqueuedNanos();
+      admittedFromQueue++;
+      totalWaitNanos += waited;
+      maxWaitNanos = Math.max(maxWaitNanos, waited);
+      admitted.add(pending);
+    }
+
+    // Callbacks may release slots again, so run them once the queue is consistent
+    for (PendingCast pending : admitted) {
+      pending.onAdmitted().run();
+    }
+  }
+}
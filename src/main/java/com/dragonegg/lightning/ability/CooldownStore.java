@@ -0,0 +1,304 @@
+package com.dragonegg.lightning.ability;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Two-tier storage for ability cooldown end times.
+ *
+ * Online players live in a regular hash map. When a player logs out their
+ * entry is moved to a compact offline tier: an open-addressing table of
+ * primitive longs (24 bytes per slot) with a hard entry cap. Expired entries
+ * are dropped by {@link #sweep(long)}. When the offline tier is full, the
+ * eighth of it closest to expiry is evicted in one pass, so a mass logout at
+ * the cap scans the table once per batch rather than once per player.
+ *
+ * Not thread-safe; all access is expected on the server main thread.
+ */
+public class CooldownStore {
+
+  /** Rough heap cost of one online entry (map node, UUID and boxed Long). */
+  static final int ONLINE_ENTRY_BYTES = 88;
+
+  /** Heap cost of one offline slot (most/least significant bits and end time). */
+  static final int OFFLINE_SLOT_BYTES = 24;
+
+  private static final int MIN_OFFLINE_CAPACITY = 16;
+
+  /** Fraction of the cap evicted at once when the offline tier is full, as a shift. */
+  private static final int EVICTION_BATCH_SHIFT = 3;
+
+  private final Map<UUID, Long> online;
+
+  // Offline tier: parallel arrays, a slot is empty when ends[i] == 0
+  private long[] offlineMsb;
+  private long[] offlineLsb;
+  private long[] offlineEnds;
+  private int offlineSize;
+  private final int maxOfflineEntries;
+
+  public CooldownStore(int maxOfflineEntries) {
+    this.online = new HashMap<>();
+    this.maxOfflineEntries = Math.max(0, maxOfflineEntries);
+    allocateOffline(MIN_OFFLINE_CAPACITY);
+  }
+
+  /**
+   * Get the cooldown end time for a player.
+   *
+   * @param playerId The player UUID
+   * @return Cooldown end in epoch milliseconds, or 0 if none is stored
+   */
+  public long getCooldownEnd(UUID playerId) {
+    Long end = online.get(playerId);
+    if (end != null) {
+      return end;
+    }
+    if (offlineSize == 0) {
+      return 0L;
+    }
+    int slot = findOffline(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+    return slot >= 0 ? offlineEnds[slot] : 0L;
+  }
+
+  /**
+   * Store a cooldown end time for an online player.
+   *
+   * @param playerId The player UUID
+   * @param cooldownEnd Cooldown end in epoch milliseconds
+   */
+  public void setCooldownEnd(UUID playerId, long cooldownEnd) {
+    removeOffline(playerId);
+    online.put(playerId, cooldownEnd);
+  }
+
+  /**
+   * Remove any stored cooldown for a player.
+   *
+   * @param playerId The player UUID
+   */
+  public void remove(UUID playerId) {
+    if (online.remove(playerId) == null) {
+      removeOffline(playerId);
+    }
+  }
+
+  /**
+   * Move a player's cooldown to the offline tier (on logout).
+   *
+   * @param playerId The player UUID
+   * @param now Current time in epoch milliseconds
+   */
+  public void markOffline(UUID playerId, long now) {
+    Long end = online.remove(playerId);
+    if (end == null || end <= now || maxOfflineEntries == 0) {
+      return;
+    }
+    if (offlineSize >= maxOfflineEntries) {
+      sweepOffline(now);
+      if (offlineSize >= maxOfflineEntries) {
+        evictSoonestExpiring(Math.max(1, maxOfflineEntries >> EVICTION_BATCH_SHIFT));
+      }
+    }
+    putOffline(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), end);
+  }
+
+  /**
+   * Move a player's cooldown back to the online tier (on login).
+   *
+   * @param playerId The player UUID
+   */
+  public void markOnline(UUID playerId) {
+    if (offlineSize == 0) {
+      return;
+    }
+    int slot = findOffline(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+    if (slot >= 0) {
+      long end = offlineEnds[slot];
+      removeOfflineAt(slot);
+      online.put(playerId, end);
+    }
+  }
+
+  /**
+   * Drop every expired cooldown from both tiers.
+   *
+   * @param now Current time in epoch milliseconds
+   * @return Number of entries removed
+   */
+  public int sweep(long now) {
+    int before = size();
+    online.values().removeIf(end -> end <= now);
+    sweepOffline(now);
+    shrinkOfflineIfSparse();
+    return before - size();
+  }
+
+  public int getMaxOfflineEntries() {
+    return maxOfflineEntries;
+  }
+
+  /**
+   * @return Total number of stored cooldowns across both tiers
+   */
+  public int size() {
+    return online.size() + offlineSize;
+  }
+
+  public int onlineSize() {
+    return online.size();
+  }
+
+  public int offlineSize() {
+    return offlineSize;
+  }
+
+  /**
+   * @return Estimated heap footprint of the stored cooldowns in bytes
+   */
+  public long estimatedBytes() {
+    return (long) online.size() * ONLINE_ENTRY_BYTES
+      + (long) offlineEnds.length * OFFLINE_SLOT_BYTES;
+  }
+
+  // === Offline tier (open addressing with linear probing) ===
+
+  private void allocateOffline(int capacity) {
+    offlineMsb = new long[capacity];
+    offlineLsb = new long[capacity];
+    offlineEnds = new long[capacity];
+    offlineSize = 0;
+  }
+
+  private static int hash(long msb, long lsb) {
+    long h = msb ^ lsb;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  private int findOffline(long msb, long lsb) {
+    int mask = offlineEnds.length - 1;
+    int i = hash(msb, lsb) & mask;
+    while (offlineEnds[i] != 0) {
+      if (offlineMsb[i] == msb && offlineLsb[i] == lsb) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void putOffline(long msb, long lsb, long end) {
+    // Keep the load factor at or below 1/2
+    if ((offlineSize + 1) * 2 > offlineEnds.length) {
+      resizeOffline(offlineEnds.length * 2);
+    }
+    int mask = offlineEnds.length - 1;
+    int i = hash(msb, lsb) & mask;
+    while (offlineEnds[i] != 0) {
+      if (offlineMsb[i] == msb && offlineLsb[i] == lsb) {
+        offlineEnds[i] = end;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    offlineMsb[i] = msb;
+    offlineLsb[i] = lsb;
+    offlineEnds[i] = end;
+    offlineSize++;
+  }
+
+  private void removeOffline(UUID playerId) {
+    if (offlineSize == 0) {
+      return;
+    }
+    int slot = findOffline(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+    if (slot >= 0) {
+      removeOfflineAt(slot);
+    }
+  }
+
+  /**
+   * Remove the entry at a slot, shifting later entries of the probe chain back
+   * so lookups never need tombstones.
+   */
+  private void removeOfflineAt(int slot) {
+    int mask = offlineEnds.length - 1;
+    int hole = slot;
+    int j = slot;
+    while (true) {
+      j = (j + 1) & mask;
+      if (offlineEnds[j] == 0) {
+        break;
+      }
+      int home = hash(offlineMsb[j], offlineLsb[j]) & mask;
+      boolean movable = j > hole
+        ? (home <= hole || home > j)
+        : (home <= hole && home > j);
+      if (movable) {
+        offlineMsb[hole] = offlineMsb[j];
+        offlineLsb[hole] = offlineLsb[j];
+        offlineEnds[hole] = offlineEnds[j];
+        hole = j;
+      }
+    }
+    offlineEnds[hole] = 0;
+    offlineSize--;
+  }
+
+  private void sweepOffline(long now) {
+    int i = 0;
+    while (i < offlineEnds.length && offlineSize > 0) {
+      long end = offlineEnds[i];
+      if (end != 0 && end <= now) {
+        // The backward shift may pull another entry into this slot, so re-check it
+        removeOfflineAt(i);
+      } else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Evict at least {@code count} of the entries closest to expiry. Entries
+   * tied with the last one evicted go too.
+   */
+  private void evictSoonestExpiring(int count) {
+    long[] ends = new long[offlineSize];
+    int n = 0;
+    for (long end : offlineEnds) {
+      if (end != 0) {
+        ends[n++] = end;
+      }
+    }
+    Arrays.sort(ends);
+    sweepOffline(ends[Math.min(count, n) - 1]);
+  }
+
+  private void shrinkOfflineIfSparse() {
+    int capacity = offlineEnds.length;
+    if (capacity > MIN_OFFLINE_CAPACITY && offlineSize * 8 < capacity) {
+      int target = MIN_OFFLINE_CAPACITY;
+      while (target < offlineSize * 4) {
+        target *= 2;
+      }
+      resizeOffline(target);
+    }
+  }
+
+  private void resizeOffline(int capacity) {
+    long[] oldMsb = offlineMsb;
+    long[] oldLsb = offlineLsb;
+    long[] oldEnds = offlineEnds;
+    allocateOffline(capacity);
+    for (int i = 0; i < oldEnds.length; i++) {
+      if (oldEnds[i] != 0) {
+        putOffline(oldMsb[i], oldLsb[i], oldEnds[i]);
+      }
+    }
+  }
+}
@@ -1,13 +1,26 @@
 package com.dragonegg.lightning.ability;
 
 import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.config.ConfigManager;
+import com.dragonegg.lightning.config.PluginConfig;
+import com.dragonegg.lightning.jfr.LightningCastEvent;
+import com.dragonegg.lightning.jfr.StrikeEffectEvent;
+import com.dragonegg.lightning.jfr.TargetScanEvent;
+import com.dragonegg.lightning.metrics.Counter;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import com.dragonegg.lightning.trace.CastTraceBuffer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.entity.*;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -17,7 +30,7 @@ import org.bukkit.util.Vector;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.UUID;
 
 /**
  * Lightning ability that strikes targets with purple lightning.
@@ -25,29 +38,158 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class LightningAbility implements Ability {
 
-  private static final int STRIKE_COUNT = 3;
-  private static final long STRIKE_INTERVAL_TICKS = 10L; // 0.5 seconds
-  private static final double DAMAGE_PER_STRIKE = 4.0; // 2.0 hearts (bypasses armor)
-  private static final long COOLDOWN_MILLIS = 60000L; // 60 seconds
-  private static final double MAX_RANGE = 50.0;
   private static final String ABILITY_NAME = "Lightning Strike";
 
+  /** Records kept in the cast trace when running without a plugin. */
+  private static final int DEFAULT_TRACE_CAPACITY = 256;
+
+  /** Blocks within which players are sent particles and the impact sound. */
+  private static final double EFFECT_RANGE = 32.0;
+  /**
+   * Blocks within which players hear the thunder (16 per unit of volume).
+   * The bolt is counted for the same players.
+   */
+  private static final double THUNDER_RANGE = 48.0;
+
+  /**
+   * Why a cast ended. The ordinal is stored in the cast trace, so new values
+   * go at the end.
+   */
+  public enum EndReason {
+    COMPLETED("completed"),
+    NO_TARGET("no target"),
+    ITEM_REMOVED("item removed"),
+    CANCELLED("cancelled");
+
+    private final String label;
+
+    EndReason(String label) {
+      this.label = label;
+    }
+
+    public String label() {
+      return label;
+    }
+  }
+
   private final DragonEggLightningPlugin plugin;
+  private final ActiveCastRegistry castRegistry;
+  private final ConfigManager configManager;
+  private final Counter targetingQueries;
+  private final Histogram targetingScanEntities;
+  private final Counter retargets;
+  private final Counter strikes;
+  private final Counter particlesSpawned;
+  private final Counter soundsPlayed;
+  private final Counter effectPackets;
+  private final TickProfiler profiler;
+  private final CastTraceBuffer castTrace;
+  private final TargetCone targetCone = new TargetCone();
+  private final WorldProfileCache worldProfiles = new WorldProfileCache();
+
+  /**
+   * Outcome of one targeting query.
+   *
+   * @param target The entity found, or null
+   * @param candidates Entities examined by the cone scan; 0 when the ray trace hit
+   * @param nanos Time the query took, for the cast trace
+   */
+  private record TargetScan(LivingEntity target, int candidates, long nanos) {
+
+    static final TargetScan NONE = new TargetScan(null, 0, 0L);
+
+    TargetScan(LivingEntity target, int candidates) {
+      this(target, candidates, 0L);
+    }
+
+    /**
+     * Copy with the time elapsed since a query started.
+     */
+    TargetScan timedFrom(long startNanos) {
+      return new TargetScan(target, candidates, System.nanoTime() - startNanos);
+    }
+  }
+
+  // Reused to read player positions without allocating, main thread only
+  private final Location recipientLocation = new Location(null, 0, 0, 0);
 
   public LightningAbility(DragonEggLightningPlugin plugin) {
+    this(plugin, new ActiveCastRegistry());
+  }
+
+  public LightningAbility(DragonEggLightningPlugin plugin, ActiveCastRegistry castRegistry) {
+    this(
+      plugin,
+      castRegistry,
+      plugin != null ? plugin.getConfigManager() : new ConfigManager(null),
+      plugin != null ? plugin.getMetrics() : new MetricsRegistry()
+    );
+  }
+
+  public LightningAbility(
+    DragonEggLightningPlugin plugin,
+    ActiveCastRegistry castRegistry,
+    ConfigManager configManager,
+    MetricsRegistry metrics
+  ) {
     this.plugin = plugin;
+    this.castRegistry = castRegistry;
+    this.configManager = configManager;
+    this.targetingQueries = metrics.counter(
+      "dragonegg_targeting_queries_total",
+      "Target searches, including retargeting"
+    );
+    this.targetingScanEntities = metrics.histogram(
+      "dragonegg_targeting_scan_entities",
+      "Entities examined per cone targeting scan"
+    );
+    this.retargets = metrics.counter(
+      "dragonegg_retargets_total",
+      "Times a cast moved on to a new target"
+    );
+    this.strikes = metrics.counter(
+      "dragonegg_strikes_total",
+      "Lightning strikes landed"
+    );
+    this.particlesSpawned = metrics.counter(
+      "dragonegg_particles_total",
+      "Particles requested for lightning effects"
+    );
+    this.soundsPlayed = metrics.counter(
+      "dragonegg_sounds_total",
+      "Sounds played for lightning effects"
+    );
+    this.effectPackets = metrics.counter(
+      "dragonegg_effect_packets_total",
+      "Effect packets sent to players in range: bolts, particle batches and sounds, once per recipient"
+    );
+    this.profiler = metrics.getTickProfiler();
+    this.castTrace = plugin != null
+      ? plugin.getCastTrace()
+      : new CastTraceBuffer(DEFAULT_TRACE_CAPACITY);
   }
 
   @Override
   public boolean execute(Player player) {
+    return execute(player, 0);
+  }
+
+  @Override
+  public boolean execute(Player player, int queuedTicks) {
     if (player == null) {
       return false;
     }
 
+    // Settings stay fixed for the whole cast, even across a reload, and the
+    // world profile is resolved once here rather than on every strike
+    PluginConfig config = configManager.get();
+    World world = player.getWorld();
+    AbilityProfile profile = worldProfiles.get(config.profiles(), world.getUID(), world.getName());
+
     // Find initial target entity
-    LivingEntity target = findTargetEntity(player);
+    TargetScan scan = findTargetEntity(player, profile.maxRange());
 
-    if (target == null) {
+    if (scan.target() == null) {
       player.sendMessage(
         Component.text("No valid target found!", NamedTextColor.RED)
       );
@@ -65,13 +207,13 @@ public class LightningAbility implements Ability {
       return false;
     }
 
-    // Execute lightning strikes with intelligent target switching
-    executeLightningStrikes(player, target);
-
     player.sendMessage(
       Component.text("Lightning ability activated!", NamedTextColor.LIGHT_PURPLE)
     );
 
+    // Execute lightning strikes with intelligent target switching
+    executeLightningStrikes(player, scan, config, profile, queuedTicks);
+
     return true;
   }
 
@@ -86,7 +228,7 @@ public class LightningAbility implements Ability {
 
   @Override
   public long getCooldownMillis() {
-    return COOLDOWN_MILLIS;
+    return configManager.get().cooldownMillis();
   }
 
   @Override
@@ -118,12 +260,26 @@ public class LightningAbility implements Ability {
    * Find the closest living entity in the direction the player is facing.
    *
    * @param player The player
-   * @return The target entity or null if none found
+   * @param maxRange Targeting range in blocks
+   * @return The scan, whose target is null if none was found
    */
-  private LivingEntity findTargetEntity(Player player) {
+  private TargetScan findTargetEntity(Player player, double maxRange) {
     if (player == null) {
-      return null;
+      return TargetScan.NONE;
     }
+    long start = System.nanoTime();
+    profiler.enter(TickProfiler.Subsystem.TARGETING, start);
+    try {
+      return scanForTarget(player, maxRange).timedFrom(start);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  private TargetScan scanForTarget(Player player, double maxRange) {
+    targetingQueries.increment();
+    TargetScanEvent scanEvent = new TargetScanEvent();
+    scanEvent.begin();
     Location eyeLocation = player.getEyeLocation();
     Vector direction = eyeLocation.getDirection();
 
@@ -131,18 +287,37 @@ public class LightningAbility implements Ability {
     RayTraceResult result = player.getWorld().rayTraceEntities(
       eyeLocation,
       direction,
-      MAX_RANGE,
+      maxRange,
       entity -> entity instanceof LivingEntity &&
         entity != player &&
         !entity.isDead()
     );
 
     if (result != null && result.getHitEntity() instanceof LivingEntity) {
-      return (LivingEntity) result.getHitEntity();
+      LivingEntity hit = (LivingEntity) result.getHitEntity();
+      commitScanEvent(scanEvent, false, 0, true);
+      return new TargetScan(hit, 0);
     }
 
     // Fallback: find nearest entity in viewing cone
-    return findNearestEntityInCone(player, eyeLocation, direction);
+    TargetScan nearest = findNearestEntityInCone(player, eyeLocation, direction, maxRange);
+    commitScanEvent(scanEvent, false, nearest.candidates(), nearest.target() != null);
+    return nearest;
+  }
+
+  private static void commitScanEvent(
+    TargetScanEvent event,
+    boolean retarget,
+    int candidates,
+    boolean found
+  ) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.retarget = retarget;
+      event.candidates = candidates;
+      event.found = found;
+      event.commit();
+    }
   }
 
   /**
@@ -151,45 +326,26 @@ public class LightningAbility implements Ability {
    * @param player The player
    * @param eyeLocation The player's eye location
    * @param direction The player's look direction
-   * @return The nearest entity or null
+   * @param maxRange Targeting range in blocks
+   * @return The scan, whose target is null if nothing is in the cone
    */
-  private LivingEntity findNearestEntityInCone(
+  private TargetScan findNearestEntityInCone(
     Player player,
     Location eyeLocation,
-    Vector direction
+    Vector direction,
+    double maxRange
   ) {
-    LivingEntity nearest = null;
-    double nearestDistance = MAX_RANGE;
-    double minDotProduct = 0.9; // Roughly 25 degree cone
-
-    for (Entity entity : player.getWorld().getNearbyEntities(
+    LivingEntity nearest = targetCone.nearest(
       eyeLocation,
-      MAX_RANGE,
-      MAX_RANGE,
-      MAX_RANGE
-    )) {
-      if (!(entity instanceof LivingEntity) ||
-          entity == player ||
-          entity.isDead()) {
-        continue;
-      }
-
-      Vector toEntity = entity.getLocation()
-        .subtract(eyeLocation)
-        .toVector()
-        .normalize();
-      double dot = direction.dot(toEntity);
-
-      if (dot >= minDotProduct) {
-        double distance = eyeLocation.distance(entity.getLocation());
-        if (distance < nearestDistance) {
-          nearest = (LivingEntity) entity;
-          nearestDistance = distance;
-        }
-      }
-    }
-
-    return nearest;
+      direction,
+      player.getWorld().getNearbyEntities(eyeLocation, maxRange, maxRange, maxRange),
+      maxRange,
+      player,
+      null
+    );
+    int scanned = targetCone.getLastScanned();
+    targetingScanEntities.record(scanned);
+    return new TargetScan(nearest, scanned);
   }
 
   /**
@@ -197,129 +353,292 @@ public class LightningAbility implements Ability {
    *
    * @param player The player
    * @param currentTarget The current target to exclude
-   * @return The next closest target or null if none found
+   * @param maxRange Targeting range in blocks
+   * @return The scan, whose target is null if none was found
    */
-  private LivingEntity findNextTarget(Player player, LivingEntity currentTarget) {
+  private TargetScan findNextTarget(Player player, LivingEntity currentTarget, double maxRange) {
     if (player == null || currentTarget == null) {
-      return null;
+      return TargetScan.NONE;
     }
+    long start = System.nanoTime();
+    profiler.enter(TickProfiler.Subsystem.TARGETING, start);
+    try {
+      return scanForNextTarget(player, currentTarget, maxRange).timedFrom(start);
+    } finally {
+      profiler.exit();
+    }
+  }
 
+  private TargetScan scanForNextTarget(
+    Player player,
+    LivingEntity currentTarget,
+    double maxRange
+  ) {
+
+    targetingQueries.increment();
+    TargetScanEvent scanEvent = new TargetScanEvent();
+    scanEvent.begin();
     Location eyeLocation = player.getEyeLocation();
     Vector direction = eyeLocation.getDirection();
-    LivingEntity nextTarget = null;
-    double nearestDistance = MAX_RANGE;
-    double minDotProduct = 0.9; // Roughly 25 degree cone
-
-    for (Entity entity : player.getWorld().getNearbyEntities(
+    // Exclude the current target
+    LivingEntity nextTarget = targetCone.nearest(
       eyeLocation,
-      MAX_RANGE,
-      MAX_RANGE,
-      MAX_RANGE
-    )) {
-      if (!(entity instanceof LivingEntity) ||
-          entity == player ||
-          entity == currentTarget || // Exclude current target
-          entity.isDead()) {
-        continue;
-      }
-
-      Vector toEntity = entity.getLocation()
-        .subtract(eyeLocation)
-        .toVector()
-        .normalize();
-      double dot = direction.dot(toEntity);
-
-      if (dot >= minDotProduct) {
-        double distance = eyeLocation.distance(entity.getLocation());
-        if (distance < nearestDistance) {
-          nextTarget = (LivingEntity) entity;
-          nearestDistance = distance;
-        }
-      }
-    }
-
-    return nextTarget;
+      direction,
+      player.getWorld().getNearbyEntities(eyeLocation, maxRange, maxRange, maxRange),
+      maxRange,
+      player,
+      currentTarget
+    );
+    int scanned = targetCone.getLastScanned();
+    targetingScanEntities.record(scanned);
+    commitScanEvent(scanEvent, true, scanned, nextTarget != null);
+    return new TargetScan(nextTarget, scanned);
   }
 
   /**
    * Execute sequential lightning strikes with intelligent target switching.
    *
    * @param player The player casting the ability
-   * @param initialTarget The initial target entity
+   * @param initialScan The scan that found the initial target
+   * @param config The settings captured when the cast started
+   * @param profile The caster's world profile
+   * @param queuedTicks Ticks the cast waited for an admission slot
+   */
+  private void executeLightningStrikes(
+    Player player,
+    TargetScan initialScan,
+    PluginConfig config,
+    AbilityProfile profile,
+    int queuedTicks
+  ) {
+    LightningCast cast = new LightningCast(player, initialScan, config, profile, queuedTicks);
+    cast.runTaskTimer(plugin, config.strikeIntervalTicks(), config.strikeIntervalTicks());
+    castRegistry.register(player.getUniqueId(), cast);
+
+    // Land the first strike in the same tick as the input instead of the next one
+    cast.run();
+  }
+
+  /**
+   * A running lightning cast. Registered with the {@link ActiveCastRegistry}
+   * so it can be cancelled from outside, and drops its player and entity
+   * references as soon as it ends. Trace data is kept in primitive fields
+   * and written to the {@link CastTraceBuffer} once, when the cast ends.
    */
-  private void executeLightningStrikes(Player player, LivingEntity initialTarget) {
-    // Use AtomicReference to make variables effectively final for inner class
-    final AtomicReference<LivingEntity> currentTargetRef = new AtomicReference<>(initialTarget);
-    final AtomicReference<String> currentTargetNameRef = new AtomicReference<>(getTargetName(initialTarget));
-    final AtomicReference<Integer> totalStrikesRef = new AtomicReference<>(0);
-    final AtomicReference<Integer> strikesOnCurrentTargetRef = new AtomicReference<>(0);
-    final Player finalPlayer = player;
-
-    new BukkitRunnable() {
-      @Override
-      public void run() {
-        // Check if player still has dragon egg (can be switched mid-cast)
-        if (!hasRequiredItem(finalPlayer)) {
-          finalPlayer.sendMessage(
-            Component.text(
-              "Ability cancelled! Dragon Egg removed from offhand.",
-              NamedTextColor.RED
-            )
+  private final class LightningCast extends BukkitRunnable implements ActiveCast {
+
+    private final UUID casterId;
+    private final PluginConfig config;
+    private final AbilityProfile profile;
+    private Player caster;
+    private LivingEntity currentTarget;
+    private String currentTargetName;
+    private int totalStrikes;
+    private int strikesOnCurrentTarget;
+    private int retargetCount;
+    private boolean finished;
+    private final LightningCastEvent castEvent;
+
+    // Cast trace fields, see CastTraceBuffer for the record layout
+    private final long startMillis;
+    private final long startNanos;
+    // The tick the player activated the cast, before any wait for a slot
+    private final int requestTick;
+    private int targetCount;
+    private long targets0;
+    private long targets1;
+    private long strikeTicks0;
+    private long strikeTicks1;
+    private int scanCandidates;
+    private long scanNanos;
+    private long strikeNanos;
+    private long packets;
+
+    LightningCast(
+      Player caster,
+      TargetScan initialScan,
+      PluginConfig config,
+      AbilityProfile profile,
+      int queuedTicks
+    ) {
+      LivingEntity initialTarget = initialScan.target();
+      this.casterId = caster.getUniqueId();
+      this.config = config;
+      this.profile = profile;
+      this.caster = caster;
+      this.currentTarget = initialTarget;
+      this.currentTargetName = getTargetName(initialTarget);
+      this.castEvent = new LightningCastEvent();
+      castEvent.begin();
+      this.startMillis = System.currentTimeMillis();
+      this.startNanos = System.nanoTime();
+      this.requestTick = Bukkit.getCurrentTick() - Math.max(0, queuedTicks);
+      this.scanCandidates = initialScan.candidates();
+      this.scanNanos = initialScan.nanos();
+      addTarget(initialTarget);
+    }
+
+    @Override
+    public void run() {
+      if (finished) {
+        return;
+      }
+
+      // Check if player still has dragon egg (can be switched mid-cast)
+      if (!hasRequiredItem(caster)) {
+        caster.sendMessage(
+          Component.text(
+            "Ability cancelled! Dragon Egg removed from offhand.",
+            NamedTextColor.RED
+          )
+        );
+        finish(EndReason.ITEM_REMOVED);
+        return;
+      }
+
+      // If no valid target, try to find a new one
+      if (currentTarget == null || currentTarget.isDead() || !currentTarget.isValid()) {
+        TargetScan scan = findNextTarget(caster, currentTarget, profile.maxRange());
+        LivingEntity newTarget = scan.target();
+        scanCandidates += scan.candidates();
+        scanNanos += scan.nanos();
+        if (newTarget == null) {
+          caster.sendMessage(
+            Component.text("No more valid targets found!", NamedTextColor.RED)
           );
-          cancel();
+          finish(EndReason.NO_TARGET);
           return;
+        } else {
+          // Switched to new target
+          retargets.increment();
+          retargetCount++;
+          currentTarget = newTarget;
+          currentTargetName = getTargetName(newTarget);
+          strikesOnCurrentTarget = 0;
+          addTarget(newTarget);
+          caster.sendMessage(
+            Component.text("Lightning shifts to " + currentTargetName + "!", NamedTextColor.GOLD)
+          );
         }
+      }
 
-        LivingEntity currentTarget = currentTargetRef.get();
-
-        // If no valid target, try to find a new one
-        if (currentTarget == null || currentTarget.isDead() || !currentTarget.isValid()) {
-          LivingEntity newTarget = findNextTarget(finalPlayer, currentTarget);
-          if (newTarget == null) {
-            finalPlayer.sendMessage(
-              Component.text("No more valid targets found!", NamedTextColor.RED)
-            );
-            cancel();
-            return;
-          } else {
-            // Switched to new target
-            currentTargetRef.set(newTarget);
-            currentTargetNameRef.set(getTargetName(newTarget));
-            strikesOnCurrentTargetRef.set(0);
-            finalPlayer.sendMessage(
-              Component.text("Lightning shifts to " + currentTargetNameRef.get() + "!", NamedTextColor.GOLD)
-            );
-          }
-        }
+      // Strike the current target
+      long strikeStart = System.nanoTime();
+      packets += strikeLightning(currentTarget, profile);
+      strikeNanos += System.nanoTime() - strikeStart;
+      addStrikeTick(Bukkit.getCurrentTick() - requestTick);
+      totalStrikes++;
+      strikesOnCurrentTarget++;
+
+      // Send strike message with target information
+      caster.sendMessage(
+        Component.text("Lightning strike " + totalStrikes + "/" + config.strikeCount() +
+                      " hit " + currentTargetName + "!",
+                      NamedTextColor.LIGHT_PURPLE)
+      );
+
+      // Check if all strikes are done
+      if (totalStrikes >= config.strikeCount()) {
+        finish(EndReason.COMPLETED);
+      }
+    }
 
-        // Strike the current target
-        strikeLightning(currentTargetRef.get(), finalPlayer, currentTargetNameRef.get());
-        totalStrikesRef.set(totalStrikesRef.get() + 1);
-        strikesOnCurrentTargetRef.set(strikesOnCurrentTargetRef.get() + 1);
+    @Override
+    public void stop() {
+      finish(EndReason.CANCELLED);
+    }
 
-        // Send strike message with target information
-        finalPlayer.sendMessage(
-          Component.text("Lightning strike " + totalStrikesRef.get() + "/" + STRIKE_COUNT +
-                        " hit " + currentTargetNameRef.get() + "!",
-                        NamedTextColor.LIGHT_PURPLE)
-        );
+    private void addTarget(LivingEntity target) {
+      if (targetCount >= CastTraceBuffer.MAX_TARGETS) {
+        return;
+      }
+      long id = target.getEntityId() & 0xFFFFFFFFL;
+      int shift = (targetCount % 2) * 32;
+      if (targetCount < 2) {
+        targets0 |= id << shift;
+      } else {
+        targets1 |= id << shift;
+      }
+      targetCount++;
+    }
 
-        // Check if all strikes are done
-        if (totalStrikesRef.get() >= STRIKE_COUNT) {
-          cancel();
-        }
+    private void addStrikeTick(int offset) {
+      if (totalStrikes >= CastTraceBuffer.MAX_STRIKE_TICKS) {
+        return;
+      }
+      if (totalStrikes < 4) {
+        strikeTicks0 = CastTraceBuffer.withLane(strikeTicks0, totalStrikes, offset);
+      } else {
+        strikeTicks1 = CastTraceBuffer.withLane(strikeTicks1, totalStrikes - 4, offset);
       }
-    }.runTaskTimer(plugin, 0L, STRIKE_INTERVAL_TICKS);
+    }
+
+    private void writeTrace(EndReason reason) {
+      int base = castTrace.claim();
+      castTrace.set(base, CastTraceBuffer.CASTER_MSB, casterId.getMostSignificantBits());
+      castTrace.set(base, CastTraceBuffer.CASTER_LSB, casterId.getLeastSignificantBits());
+      castTrace.set(base, CastTraceBuffer.START_MILLIS, startMillis);
+      castTrace.set(base, CastTraceBuffer.START_TICK, requestTick);
+      castTrace.set(base, CastTraceBuffer.COUNTS, CastTraceBuffer.packCounts(
+        totalStrikes, retargetCount, reason.ordinal(), scanCandidates
+      ));
+      castTrace.set(base, CastTraceBuffer.TARGETS_0, targets0);
+      castTrace.set(base, CastTraceBuffer.TARGETS_1, targets1);
+      castTrace.set(base, CastTraceBuffer.STRIKE_TICKS_0, strikeTicks0);
+      castTrace.set(base, CastTraceBuffer.STRIKE_TICKS_1, strikeTicks1);
+      castTrace.set(base, CastTraceBuffer.SCAN_NANOS, scanNanos);
+      castTrace.set(base, CastTraceBuffer.STRIKE_NANOS, strikeNanos);
+      castTrace.set(base, CastTraceBuffer.LIFETIME_NANOS, System.nanoTime() - startNanos);
+      castTrace.set(base, CastTraceBuffer.PACKETS, packets);
+      castTrace.publish(base);
+    }
+
+    /**
+     * Cancel the scheduled task, leave the registry and release references.
+     *
+     * @param reason Why the cast ended, for the JFR event and cast trace
+     */
+    private void finish(EndReason reason) {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      writeTrace(reason);
+      castEvent.end();
+      if (castEvent.shouldCommit()) {
+        castEvent.player = caster.getName();
+        castEvent.strikes = totalStrikes;
+        castEvent.retargets = retargetCount;
+        castEvent.endReason = reason.label();
+        castEvent.commit();
+      }
+      cancel();
+      castRegistry.unregister(casterId, this);
+      caster = null;
+      currentTarget = null;
+    }
   }
 
   /**
-   * Strike a single lightning bolt on the target.
+   * Strike a single lightning bolt on the target. Package-private so the
+   * allocation budget test can call it directly.
    *
    * @param target The target entity
-   * @param player The casting player (for feedback)
-   * @param targetName The name of the target for messages
+   * @param profile The caster's world profile
+   * @return Effect packets the strike sent, counted once per recipient
    */
-  private void strikeLightning(LivingEntity target, Player player, String targetName) {
+  int strikeLightning(LivingEntity target, AbilityProfile profile) {
+    profiler.enter(TickProfiler.Subsystem.STRIKES);
+    try {
+      return emitStrike(target, profile);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  private int emitStrike(LivingEntity target, AbilityProfile profile) {
+    StrikeEffectEvent effectEvent = new StrikeEffectEvent();
+    effectEvent.begin();
     Location targetLocation = target.getLocation();
 
     // Create actual lightning strike (use correct entity type)
@@ -327,10 +646,11 @@ public class LightningAbility implements Ability {
       .spawnEntity(targetLocation, EntityType.LIGHTNING_BOLT);
 
     // Make it visually purple with particles
-    createPurpleLightningEffect(targetLocation);
+    int particleBatches = createPurpleLightningEffect(targetLocation, profile.particleDensity(), effectEvent);
 
     // Deal armor-bypassing damage directly to health
-    dealDirectDamage(target, DAMAGE_PER_STRIKE);
+    dealDirectDamage(target, profile.damagePerStrike());
+    strikes.increment();
 
     // Play proper thunder sound
     target.getWorld().playSound(
@@ -347,6 +667,44 @@ public class LightningAbility implements Ability {
       2.0f,
       1.0f
     );
+    soundsPlayed.add(2);
+    int packets = countEffectPackets(targetLocation, particleBatches);
+
+    effectEvent.end();
+    if (effectEvent.shouldCommit()) {
+      effectEvent.sounds = 2;
+      effectEvent.commit();
+    }
+    return packets;
+  }
+
+  /**
+   * Count the packets one strike sends, once for every player they reach.
+   * Particle batches and the impact sound reach players within
+   * {@link #EFFECT_RANGE}; the bolt and the thunder reach those within
+   * {@link #THUNDER_RANGE}.
+   *
+   * @param location The strike location
+   * @param particleBatches spawnParticle calls made for the strike
+   * @return The packet count, also added to the effect packet counter
+   */
+  private int countEffectPackets(Location location, int particleBatches) {
+    double effectRangeSquared = EFFECT_RANGE * EFFECT_RANGE;
+    double thunderRangeSquared = THUNDER_RANGE * THUNDER_RANGE;
+    int effectRecipients = 0;
+    int thunderRecipients = 0;
+    for (Player player : location.getWorld().getPlayers()) {
+      double distanceSquared = player.getLocation(recipientLocation).distanceSquared(location);
+      if (distanceSquared <= thunderRangeSquared) {
+        thunderRecipients++;
+        if (distanceSquared <= effectRangeSquared) {
+          effectRecipients++;
+        }
+      }
+    }
+    int packets = effectRecipients * (particleBatches + 1) + thunderRecipients * 2;
+    effectPackets.add(packets);
+    return packets;
   }
 
   /**
@@ -370,19 +728,32 @@ public class LightningAbility implements Ability {
    * Create purple lightning visual effect.
    *
    * @param location The location to spawn the effect
+   * @param density Particle multiplier; 1 is the full effect and 0 disables it
+   * @param effectEvent The strike's event, given the number of particles requested
+   * @return Number of spawnParticle calls, each one packet per nearby player
    */
-  private void createPurpleLightningEffect(Location location) {
-    Location topLocation = location.clone().add(0, 10, 0);
+  private int createPurpleLightningEffect(Location location, double density, StrikeEffectEvent effectEvent) {
+    if (density <= 0.0) {
+      return 0;
+    }
+
+    // Thinner effects use fewer beam layers as well as fewer particles per layer
+    double beamStep = 0.3 / Math.min(1.0, density);
+    int beamCount = scaledCount(5, density);
+    int sparkCount = scaledCount(3, density);
+    int explosionCount = scaledCount(50, density);
+    long particles = 0;
+    int batches = 0;
 
     // Create vertical purple particle beam
-    for (double y = 0; y <= 10; y += 0.3) {
+    for (double y = 0; y <= 10; y += beamStep) {
       Location particleLocation = location.clone().add(0, y, 0);
 
       // Main purple beam
       particleLocation.getWorld().spawnParticle(
         Particle.DUST,
         particleLocation,
-        5,
+        beamCount,
         0.1,
         0.1,
         0.1,
@@ -394,19 +765,21 @@ public class LightningAbility implements Ability {
       particleLocation.getWorld().spawnParticle(
         Particle.ELECTRIC_SPARK,
         particleLocation,
-        3,
+        sparkCount,
         0.2,
         0.2,
         0.2,
         0.05
       );
+      particles += beamCount + sparkCount;
+      batches += 2;
     }
 
     // Add explosion effect at impact
     location.getWorld().spawnParticle(
       Particle.DUST,
       location,
-      50,
+      explosionCount,
       0.5,
       0.5,
       0.5,
@@ -424,5 +797,13 @@ public class LightningAbility implements Ability {
       0,
       0
     );
+    particles += explosionCount + 1;
+    particlesSpawned.add(particles);
+    effectEvent.particles = particles;
+    return batches + 2;
+  }
+
+  private static int scaledCount(int baseCount, double density) {
+    return Math.max(1, (int) Math.round(baseCount * density));
   }
 }
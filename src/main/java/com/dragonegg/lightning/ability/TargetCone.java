@@ -0,0 +1,79 @@
+package com.dragonegg.lightning.ability;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+
+/**
+ * Picks the nearest living entity inside a viewing cone.
+ *
+ * Works on any set of candidate entities, so it can be run against a
+ * world query or a synthetic entity set. Remembers how many candidates the
+ * last call examined. Not thread-safe.
+ */
+public final class TargetCone {
+
+  /** Cosine of the cone half-angle, roughly 25 degrees. */
+  public static final double MIN_DOT_PRODUCT = 0.9;
+
+  private int lastScanned;
+
+  /**
+   * Find the nearest living entity in the cone.
+   *
+   * @param eyeLocation Apex of the cone
+   * @param direction Cone axis, normalized
+   * @param candidates Entities to consider
+   * @param maxRange Targeting range in blocks
+   * @param caster Entity to skip, usually the caster
+   * @param excluded Another entity to skip, or null
+   * @return The nearest entity or null
+   */
+  public LivingEntity nearest(
+    Location eyeLocation,
+    Vector direction,
+    Iterable<? extends Entity> candidates,
+    double maxRange,
+    Entity caster,
+    Entity excluded
+  ) {
+    LivingEntity nearest = null;
+    double nearestDistance = maxRange;
+    int scanned = 0;
+
+    for (Entity entity : candidates) {
+      scanned++;
+      if (!(entity instanceof LivingEntity) ||
+          entity == caster ||
+          entity == excluded ||
+          entity.isDead()) {
+        continue;
+      }
+
+      Vector toEntity = entity.getLocation()
+        .subtract(eyeLocation)
+        .toVector()
+        .normalize();
+      double dot = direction.dot(toEntity);
+
+      if (dot >= MIN_DOT_PRODUCT) {
+        double distance = eyeLocation.distance(entity.getLocation());
+        if (distance < nearestDistance) {
+          nearest = (LivingEntity) entity;
+          nearestDistance = distance;
+        }
+      }
+    }
+
+    lastScanned = scanned;
+    return nearest;
+  }
+
+  /**
+   * @return Candidates examined by the last {@link #nearest} call
+   */
+  public int getLastScanned() {
+    return lastScanned;
+  }
+}
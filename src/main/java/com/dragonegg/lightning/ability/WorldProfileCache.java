@@ -0,0 +1,69 @@
+package com.dragonegg.lightning.ability;
+
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.config.WorldProfiles;
+
+import java.util.UUID;
+
+/**
+ * Profile indexes of the worlds casts have been made in, keyed by world UID.
+ *
+ * A world's index is resolved by name with {@link WorldProfiles#indexOf(String)}
+ * the first time it is seen and read back with {@link WorldProfiles#get(int)}
+ * after that, so a cast does no string hashing. UIDs are kept as primitive
+ * longs and found by a linear scan, which is cheaper than a hash lookup for
+ * the handful of worlds a server runs. Everything is forgotten when the
+ * profiles change, i.e. after a config reload.
+ *
+ * Not thread-safe; all access is expected on the server main thread.
+ */
+final class WorldProfileCache {
+
+  /** Worlds remembered before starting over, for servers that create worlds on the fly. */
+  static final int MAX_WORLDS = 32;
+
+  private final long[] mostSignificant = new long[MAX_WORLDS];
+  private final long[] leastSignificant = new long[MAX_WORLDS];
+  private final int[] indexes = new int[MAX_WORLDS];
+  private WorldProfiles profiles;
+  private int size;
+
+  /**
+   * Get the profile for a world.
+   *
+   * @param profiles The current profiles
+   * @param worldId The world's UID
+   * @param worldName The world's name, used only the first time it is seen
+   * @return The world's profile, or the default profile
+   */
+  AbilityProfile get(WorldProfiles profiles, UUID worldId, String worldName) {
+    if (profiles != this.profiles) {
+      this.profiles = profiles;
+      size = 0;
+    }
+    long msb = worldId.getMostSignificantBits();
+    long lsb = worldId.getLeastSignificantBits();
+    for (int i = 0; i < size; i++) {
+      if (mostSignificant[i] == msb && leastSignificant[i] == lsb) {
+        return profiles.get(indexes[i]);
+      }
+    }
+
+    int index = profiles.indexOf(worldName);
+    if (size == MAX_WORLDS) {
+      size = 0;
+    }
+    mostSignificant[size] = msb;
+    leastSignificant[size] = lsb;
+    indexes[size] = index;
+    size++;
+    return profiles.get(index);
+  }
+
+  /**
+   * @return Number of worlds currently remembered
+   */
+  int size() {
+    return size;
+  }
+}
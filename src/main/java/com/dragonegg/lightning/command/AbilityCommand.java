@@ -3,176 +3,436 @@ package com.dragonegg.lightning.command;
 import com.dragonegg.lightning.DragonEggLightningPlugin;
 import com.dragonegg.lightning.ability.Ability;
 import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.config.PluginConfig;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import com.dragonegg.lightning.trace.CastTraceBuffer;
+import com.dragonegg.lightning.trace.CastTraceFile;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
- * Command handler for /ability command with tab completion support.
+ * Brigadier command tree for /ability.
+ *
+ * Subcommands are declared in a table and turned into literal nodes, and the
+ * ability number is an integer argument whose suggestions come from the
+ * ability registry.
  */
-public class AbilityCommand implements CommandExecutor, TabCompleter {
+public class AbilityCommand {
+
+  private static final String PERMISSION = "dragonegg.ability";
+  private static final String ADMIN_PERMISSION = "dragonegg.admin";
+  private static final String ABILITY_ARGUMENT = "ability";
+  private static final DateTimeFormatter TRACE_FILE_TIME =
+    DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+  // Cooldown messages are cached per remaining second instead of rebuilt each attempt
+  private static final int MAX_CACHED_COOLDOWN_SECONDS = 3600;
+
+  // Players listed under the throttle total in /ability profile
+  private static final int PROFILE_THROTTLED_PLAYERS = 5;
+
+  private static final Component PLAYERS_ONLY_MESSAGE = Component.text(
+    "This command can only be used by players!",
+    NamedTextColor.RED
+  );
+  private static final Component USAGE_MESSAGE = Component.text(
+    "Usage: /ability <number> | /ability version | /ability help",
+    NamedTextColor.RED
+  );
+  private static final Component ABILITY_NOT_FOUND_MESSAGE = Component.text(
+    "Ability not found! Use /ability help for available abilities.",
+    NamedTextColor.RED
+  );
+  private static final Component REQUIRED_ITEM_MESSAGE = Component.text(
+    "You must hold a Dragon Egg in your offhand to use this ability!",
+    NamedTextColor.RED
+  );
+  private static final Component FAILED_MESSAGE = Component.text(
+    "Failed to use ability!",
+    NamedTextColor.RED
+  );
+
+  /**
+   * A literal subcommand of /ability.
+   *
+   * @param name Literal name; words separated by spaces become nested literals
+   * @param permission Extra permission required, or null
+   * @param playerOnly Whether the sender must be a player
+   * @param handler What to run
+   */
+  private record Subcommand(
+    String name,
+    String permission,
+    boolean playerOnly,
+    Consumer<CommandSender> handler
+  ) {
+  }
 
   private final DragonEggLightningPlugin plugin;
   private final AbilityManager abilityManager;
+  private final CommandRateLimiter rateLimiter;
+  private final Component[] cooldownMessages;
+  private final List<Subcommand> subcommands;
+  private final List<String> abilityIdSuggestions;
 
   public AbilityCommand(
     DragonEggLightningPlugin plugin,
-    AbilityManager abilityManager
+    AbilityManager abilityManager,
+    CommandRateLimiter rateLimiter
   ) {
     this.plugin = plugin;
     this.abilityManager = abilityManager;
+    this.rateLimiter = rateLimiter;
+    this.cooldownMessages = new Component[MAX_CACHED_COOLDOWN_SECONDS + 1];
+    this.subcommands = List.of(
+      new Subcommand("about", null, true, sender -> plugin.sendPluginInfo((Player) sender)),
+      new Subcommand("help", null, true, sender -> sendHelp((Player) sender)),
+      new Subcommand("profile", ADMIN_PERMISSION, false, this::sendProfile),
+      new Subcommand("reload", ADMIN_PERMISSION, false, this::reloadConfig),
+      new Subcommand("trace dump", ADMIN_PERMISSION, false, this::dumpTrace),
+      new Subcommand("version", null, true, sender -> plugin.sendPluginInfo((Player) sender))
+    );
+
+    // The registry is fixed after startup, so suggestions are precomputed once
+    List<String> ids = new ArrayList<>();
+    for (int id : abilityManager.getAbilityIds()) {
+      ids.add(Integer.toString(id));
+    }
+    this.abilityIdSuggestions = List.copyOf(ids);
   }
 
-  @Override
-  public boolean onCommand(
-    CommandSender sender,
-    Command command,
-    String label,
-    String[] args
-  ) {
-    // Check if sender is a player
-    if (!(sender instanceof Player)) {
-      sender.sendMessage(
-        Component.text("This command can only be used by players!",
-          NamedTextColor.RED)
-      );
-      return true;
-    }
-
-    Player player = (Player) sender;
-
-    // Handle about command
-    if (args.length == 1 && args[0].equalsIgnoreCase("about")) {
-      plugin.sendPluginInfo(player);
-      return true;
-    }
-
-    // Handle help command
-    if (args.length == 1 && args[0].equalsIgnoreCase("help")) {
-      player.sendMessage(
-        Component.text("=== DragonEggLightning Help ===", NamedTextColor.GOLD)
-      );
-      player.sendMessage(
-        Component.text("How to use the Dragon Egg Lightning ability:", NamedTextColor.WHITE)
-      );
-      player.sendMessage(
-        Component.text("1. Hold a Dragon Egg in your offhand", NamedTextColor.GRAY)
-      );
-      player.sendMessage(
-        Component.text("2. Use /ability 1 to cast lightning strike", NamedTextColor.GRAY)
-      );
-      player.sendMessage(
-        Component.text("3. Lightning will strike your target 3 times", NamedTextColor.GRAY)
-      );
-      player.sendMessage(
-        Component.text("4. Each strike deals 2 hearts of damage", NamedTextColor.GRAY)
-      );
-      player.sendMessage(
-        Component.text("5. Damage bypasses armor protection", NamedTextColor.GRAY)
-      );
-      player.sendMessage(
-        Component.text("6. 60 second cooldown between uses", NamedTextColor.GRAY)
-      );
-      return true;
-    }
-
-    // Handle version command
-    if (args.length == 1 && args[0].equalsIgnoreCase("version")) {
-      plugin.sendPluginInfo(player);
-      return true;
-    }
-
-    // Check arguments for ability use
-    if (args.length != 1) {
-      player.sendMessage(
-        Component.text("Usage: /ability <number> | /ability version | /ability help", NamedTextColor.RED)
-      );
-      return true;
-    }
-
-    // Parse ability ID
-    int abilityId;
+  /**
+   * Build the /ability command node.
+   *
+   * @return The root literal node
+   */
+  public LiteralCommandNode<CommandSourceStack> createNode() {
+    LiteralArgumentBuilder<CommandSourceStack> root = Commands.literal("ability")
+      .requires(source -> source.getSender().hasPermission(PERMISSION))
+      .executes(context -> {
+        context.getSource().getSender().sendMessage(USAGE_MESSAGE);
+        return Command.SINGLE_SUCCESS;
+      });
+
+    for (Subcommand subcommand : subcommands) {
+      root.then(subcommandNode(subcommand));
+    }
+
+    root.then(Commands.argument(ABILITY_ARGUMENT, IntegerArgumentType.integer(1))
+      .suggests(this::suggestAbilityIds)
+      .executes(context -> castAbility(
+        context,
+        IntegerArgumentType.getInteger(context, ABILITY_ARGUMENT)
+      )));
+
+    return root.build();
+  }
+
+  private LiteralArgumentBuilder<CommandSourceStack> subcommandNode(Subcommand subcommand) {
+    String[] path = subcommand.name().split(" ");
+    LiteralArgumentBuilder<CommandSourceStack> node = Commands.literal(path[path.length - 1])
+      .executes(context -> runSubcommand(context, subcommand));
+    for (int i = path.length - 2; i >= 0; i--) {
+      node = Commands.literal(path[i]).then(node);
+    }
+    return node.requires(source -> subcommand.permission() == null
+      || source.getSender().hasPermission(subcommand.permission()));
+  }
+
+  private int runSubcommand(CommandContext<CommandSourceStack> context, Subcommand subcommand) {
+    TickProfiler profiler = plugin.getMetrics().getTickProfiler();
+    profiler.enter(TickProfiler.Subsystem.COMMANDS);
+    try {
+      return dispatchSubcommand(context, subcommand);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  private int dispatchSubcommand(CommandContext<CommandSourceStack> context, Subcommand subcommand) {
+    CommandSender sender = context.getSource().getSender();
+    if (subcommand.playerOnly()) {
+      Player player = requirePlayer(sender);
+      if (player == null) {
+        return Command.SINGLE_SUCCESS;
+      }
+    }
+    subcommand.handler().accept(sender);
+    return Command.SINGLE_SUCCESS;
+  }
+
+  private int castAbility(CommandContext<CommandSourceStack> context, int abilityId) {
+    TickProfiler profiler = plugin.getMetrics().getTickProfiler();
+    profiler.enter(TickProfiler.Subsystem.COMMANDS);
     try {
-      abilityId = Integer.parseInt(args[0]);
-    } catch (NumberFormatException e) {
-      player.sendMessage(
-        Component.text("Invalid ability number! Use /ability help for usage.", NamedTextColor.RED)
-      );
-      return true;
+      return runCastCommand(context, abilityId);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  private int runCastCommand(CommandContext<CommandSourceStack> context, int abilityId) {
+    Player player = requirePlayer(context.getSource().getSender());
+    if (player == null) {
+      return Command.SINGLE_SUCCESS;
     }
 
     // Get ability
     Ability ability = abilityManager.getAbility(abilityId);
     if (ability == null) {
-      player.sendMessage(
-        Component.text("Ability not found! Use /ability help for available abilities.", NamedTextColor.RED)
-      );
-      return true;
+      player.sendMessage(ABILITY_NOT_FOUND_MESSAGE);
+      return Command.SINGLE_SUCCESS;
     }
 
     // Check if player has required item
     if (!ability.hasRequiredItem(player)) {
-      player.sendMessage(
-        Component.text(
-          "You must hold a Dragon Egg in your offhand to use this ability!",
-          NamedTextColor.RED
-        )
-      );
-      return true;
+      player.sendMessage(REQUIRED_ITEM_MESSAGE);
+      return Command.SINGLE_SUCCESS;
     }
 
     // Check cooldown
     if (abilityManager.isOnCooldown(player)) {
-      int remaining = abilityManager.getRemainingCooldown(player);
-      player.sendMessage(
-        Component.text(
-          "Ability on cooldown! " + remaining + " seconds remaining.",
-          NamedTextColor.RED
-        )
-      );
-      return true;
-    }
-
-    // Use ability
-    boolean success = abilityManager.useAbility(player, ability);
-    if (!success) {
-      player.sendMessage(
-        Component.text(
-          "Failed to use ability!",
-          NamedTextColor.RED
-        )
-      );
-    }
-
-    return true;
-  }
-
-  @Override
-  public List<String> onTabComplete(
-    CommandSender sender,
-    Command command,
-    String alias,
-    String[] args
+      player.sendMessage(cooldownMessage(abilityManager.getRemainingCooldown(player)));
+      return Command.SINGLE_SUCCESS;
+    }
+
+    // Use ability; the manager tells the player when the cast is queued
+    AbilityManager.UseResult result = abilityManager.useAbility(player, ability);
+    if (!result.accepted() && result != AbilityManager.UseResult.ALREADY_QUEUED) {
+      player.sendMessage(FAILED_MESSAGE);
+    }
+    return Command.SINGLE_SUCCESS;
+  }
+
+  /**
+   * Resolve the sending player and apply the rate limit.
+   *
+   * @param sender The command sender
+   * @return The player, or null if the command must not run
+   */
+  private Player requirePlayer(CommandSender sender) {
+    if (!(sender instanceof Player player)) {
+      sender.sendMessage(PLAYERS_ONLY_MESSAGE);
+      return null;
+    }
+
+    // Throttled attempts take a cheap fast path
+    long now = System.currentTimeMillis();
+    if (!rateLimiter.tryAcquire(player.getUniqueId(), now)) {
+      rateLimiter.notifyThrottled(player, now);
+      return null;
+    }
+    return player;
+  }
+
+  /**
+   * Suggest registered ability numbers from the precomputed list.
+   */
+  private CompletableFuture<Suggestions> suggestAbilityIds(
+    CommandContext<CommandSourceStack> context,
+    SuggestionsBuilder builder
   ) {
-    List<String> completions = new ArrayList<>();
+    String partial = builder.getRemaining();
+    for (String id : abilityIdSuggestions) {
+      if (id.startsWith(partial)) {
+        builder.suggest(id);
+      }
+    }
+    return builder.buildFuture();
+  }
+
+  /**
+   * Reload config.yml and report the outcome. Running casts keep their settings.
+   */
+  private void reloadConfig(CommandSender sender) {
+    List<String> problems = plugin.getConfigManager().reload();
+    if (problems.isEmpty()) {
+      sender.sendMessage(Component.text("Configuration reloaded.", NamedTextColor.GREEN));
+      return;
+    }
+    sender.sendMessage(
+      Component.text("Configuration not reloaded, keeping current settings:", NamedTextColor.RED)
+    );
+    for (String problem : problems) {
+      sender.sendMessage(Component.text("- " + problem, NamedTextColor.RED));
+    }
+  }
+
+  /**
+   * Print per-tick main-thread cost by subsystem.
+   */
+  private void sendProfile(CommandSender sender) {
+    TickProfiler profiler = plugin.getMetrics().getTickProfiler();
+    sender.sendMessage(Component.text(
+      profiler.hasCompleteWindow()
+        ? "=== Tick profile (last minute, per tick) ==="
+        : "=== Tick profile (current partial minute, per tick) ===",
+      NamedTextColor.GOLD
+    ));
+    for (TickProfiler.Subsystem subsystem : TickProfiler.Subsystem.values()) {
+      Histogram histogram = profiler.getHistogram(subsystem);
+      sender.sendMessage(Component.text(
+        String.format(
+          "%-9s p50 %s  p99 %s  max %s  (%d ticks)",
+          subsystem.name(),
+          formatNanos(histogram.quantile(0.5)),
+          formatNanos(histogram.quantile(0.99)),
+          formatNanos(histogram.max()),
+          histogram.count()
+        ),
+        NamedTextColor.GRAY
+      ));
+    }
+    sendThrottled(sender);
+  }
+
+  /**
+   * Print the throttled /ability total and the online players throttled most.
+   */
+  private void sendThrottled(CommandSender sender) {
+    sender.sendMessage(Component.text(
+      "Throttled /ability: " + rateLimiter.getTotalThrottled() + " since startup",
+      NamedTextColor.GOLD
+    ));
+    List<Map.Entry<UUID, Long>> counts = new ArrayList<>(rateLimiter.getThrottledCounts().entrySet());
+    counts.sort(Map.Entry.<UUID, Long>comparingByValue().reversed());
+    for (Map.Entry<UUID, Long> entry : counts.subList(0, Math.min(PROFILE_THROTTLED_PLAYERS, counts.size()))) {
+      Player player = plugin.getServer().getPlayer(entry.getKey());
+      String name = player != null ? player.getName() : entry.getKey().toString();
+      sender.sendMessage(Component.text(
+        String.format("  %-16s %d", name, entry.getValue()),
+        NamedTextColor.GRAY
+      ));
+    }
+  }
+
+  /**
+   * Write the cast trace to plugins/DragonEggLightning/traces off the main thread.
+   */
+  private void dumpTrace(CommandSender sender) {
+    CastTraceBuffer trace = plugin.getCastTrace();
+    String baseName = "casts-" + LocalDateTime.now().format(TRACE_FILE_TIME);
+    Path directory = plugin.getDataFolder().toPath().resolve("traces");
+    sender.sendMessage(Component.text("Writing cast trace...", NamedTextColor.GRAY));
+
+    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+      long[] records = trace.snapshot();
+      Component result;
+      try {
+        // Dumps in the same millisecond get a numbered name instead of overwriting each other
+        Path file = CastTraceFile.writeNew(directory, baseName, records);
+        result = Component.text(
+          "Wrote " + records.length / CastTraceBuffer.RECORD_LONGS + " casts to traces/" + file.getFileName(),
+          NamedTextColor.GREEN
+        );
+      } catch (IOException e) {
+        plugin.getLogger().warning("Could not write cast trace " + baseName + ": " + e.getMessage());
+        result = Component.text("Could not write cast trace: " + e.getMessage(), NamedTextColor.RED);
+      }
+      Component message = result;
+      plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    });
+  }
+
+  private static String formatNanos(long nanos) {
+    if (nanos < 1_000L) {
+      return nanos + "ns";
+    }
+    if (nanos < 1_000_000L) {
+      return String.format("%.1fus", nanos / 1_000.0);
+    }
+    return String.format("%.2fms", nanos / 1_000_000.0);
+  }
+
+  private void sendHelp(Player player) {
+    PluginConfig config = plugin.getConfigManager().get();
+    AbilityProfile profile = config.profiles().forWorld(player.getWorld().getName());
+    player.sendMessage(
+      Component.text("=== DragonEggLightning Help ===", NamedTextColor.GOLD)
+    );
+    player.sendMessage(
+      Component.text("How to use the Dragon Egg Lightning ability:", NamedTextColor.WHITE)
+    );
+    player.sendMessage(
+      Component.text("1. Hold a Dragon Egg in your offhand", NamedTextColor.GRAY)
+    );
+    player.sendMessage(
+      Component.text("2. Use /ability 1 or right-click to cast lightning strike", NamedTextColor.GRAY)
+    );
+    player.sendMessage(
+      Component.text(
+        "3. Lightning will strike your target " + config.strikeCount() + " times",
+        NamedTextColor.GRAY
+      )
+    );
+    player.sendMessage(
+      Component.text(
+        "4. Each strike deals " + formatHearts(profile.damagePerStrike()) + " hearts of damage",
+        NamedTextColor.GRAY
+      )
+    );
+    player.sendMessage(
+      Component.text("5. Damage bypasses armor protection", NamedTextColor.GRAY)
+    );
+    player.sendMessage(
+      Component.text(
+        "6. " + config.cooldownMillis() / 1000L + " second cooldown between uses",
+        NamedTextColor.GRAY
+      )
+    );
+  }
 
-    if (args.length == 1) {
-      // Only show supported commands
-      completions.add("1");      // Lightning ability
-      completions.add("version"); // Version info
-      completions.add("help");    // Help text
+  private static String formatHearts(double damage) {
+    double hearts = damage / 2.0;
+    return hearts == Math.rint(hearts) ? Long.toString((long) hearts) : Double.toString(hearts);
+  }
 
-      // Filter completions based on what the player has typed
-      String partial = args[0].toLowerCase();
-      completions.removeIf(comp -> !comp.toLowerCase().startsWith(partial));
+  /**
+   * Get the cooldown message for a remaining time, building it once per value.
+   *
+   * @param remaining Remaining cooldown in seconds
+   * @return The cooldown message
+   */
+  private Component cooldownMessage(int remaining) {
+    if (remaining < 0 || remaining > MAX_CACHED_COOLDOWN_SECONDS) {
+      return buildCooldownMessage(remaining);
     }
+    Component message = cooldownMessages[remaining];
+    if (message == null) {
+      message = buildCooldownMessage(remaining);
+      cooldownMessages[remaining] = message;
+    }
+    return message;
+  }
 
-    return completions;
+  private static Component buildCooldownMessage(int remaining) {
+    return Component.text(
+      "Ability on cooldown! " + remaining + " seconds remaining.",
+      NamedTextColor.RED
+    );
   }
 }
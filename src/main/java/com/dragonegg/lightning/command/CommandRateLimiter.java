@@ -0,0 +1,142 @@
+package com.dragonegg.lightning.command;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player token bucket in front of the /ability command.
+ *
+ * Each player may burst up to {@code capacity} commands, refilled at a fixed
+ * rate. Throttled attempts are answered with one cached message per second
+ * at most and counted per player.
+ *
+ * Not thread-safe; all access is expected on the server main thread.
+ */
+public class CommandRateLimiter implements Listener {
+
+  private static final long NOTICE_INTERVAL_MILLIS = 1000L;
+  private static final Component THROTTLED_MESSAGE = Component.text(
+    "Slow down! You are using /ability too quickly.",
+    NamedTextColor.RED
+  );
+
+  private final double capacity;
+  private final double tokensPerMilli;
+  private final Map<UUID, Bucket> buckets;
+  private long totalThrottled;
+
+  /**
+   * @param capacity Maximum burst of commands
+   * @param tokensPerSecond Sustained commands per second
+   */
+  public CommandRateLimiter(double capacity, double tokensPerSecond) {
+    this.capacity = Math.max(1.0, capacity);
+    this.tokensPerMilli = Math.max(0.0, tokensPerSecond) / 1000.0;
+    this.buckets = new HashMap<>();
+  }
+
+  /**
+   * Take one token for a command attempt.
+   *
+   * @param playerId The player UUID
+   * @param nowMillis Current time in epoch milliseconds
+   * @return true if the command may run, false if it is throttled
+   */
+  public boolean tryAcquire(UUID playerId, long nowMillis) {
+    Bucket bucket = buckets.get(playerId);
+    if (bucket == null) {
+      bucket = new Bucket(capacity, nowMillis);
+      buckets.put(playerId, bucket);
+    } else if (nowMillis > bucket.lastRefill) {
+      bucket.tokens = Math.min(capacity, bucket.tokens + (nowMillis - bucket.lastRefill) * tokensPerMilli);
+      bucket.lastRefill = nowMillis;
+    }
+
+    if (bucket.tokens >= 1.0) {
+      bucket.tokens -= 1.0;
+      return true;
+    }
+    bucket.throttled++;
+    totalThrottled++;
+    return false;
+  }
+
+  /**
+   * Tell a throttled player to slow down, at most once per second.
+   *
+   * @param player The throttled player
+   * @param nowMillis Current time in epoch milliseconds
+   */
+  public void notifyThrottled(Player player, long nowMillis) {
+    Bucket bucket = buckets.get(player.getUniqueId());
+    if (bucket == null || nowMillis - bucket.lastNotice < NOTICE_INTERVAL_MILLIS) {
+      return;
+    }
+    bucket.lastNotice = nowMillis;
+    player.sendMessage(THROTTLED_MESSAGE);
+  }
+
+  /**
+   * Get the number of throttled commands for an online player.
+   *
+   * @param playerId The player UUID
+   * @return Throttled command count since the player joined
+   */
+  public long getThrottledCount(UUID playerId) {
+    Bucket bucket = buckets.get(playerId);
+    return bucket != null ? bucket.throttled : 0L;
+  }
+
+  /**
+   * @return Throttled command count across all players since startup
+   */
+  public long getTotalThrottled() {
+    return totalThrottled;
+  }
+
+  /**
+   * Get the throttled command count of every tracked player.
+   *
+   * @return Map of player UUID to throttled count
+   */
+  public Map<UUID, Long> getThrottledCounts() {
+    Map<UUID, Long> counts = new HashMap<>();
+    buckets.forEach((id, bucket) -> {
+      if (bucket.throttled > 0) {
+        counts.put(id, bucket.throttled);
+      }
+    });
+    return counts;
+  }
+
+  /**
+   * Forget the bucket of players who leave.
+   *
+   * @param event The player quit event
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    buckets.remove(event.getPlayer().getUniqueId());
+  }
+
+  private static final class Bucket {
+    private double tokens;
+    private long lastRefill;
+    private long lastNotice;
+    private long throttled;
+
+    private Bucket(double tokens, long now) {
+      this.tokens = tokens;
+      this.lastRefill = now;
+      this.lastNotice = Long.MIN_VALUE / 2;
+    }
+  }
+}
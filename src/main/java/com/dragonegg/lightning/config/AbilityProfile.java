@@ -0,0 +1,64 @@
+package com.dragonegg.lightning.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+
+/**
+ * Lightning parameters that can differ between worlds.
+ *
+ * @param maxRange Targeting range in blocks
+ * @param damagePerStrike Armor-bypassing damage per strike in health points
+ * @param particleDensity Multiplier for the purple particle effect (0 disables it)
+ */
+public record AbilityProfile(
+  double maxRange,
+  double damagePerStrike,
+  double particleDensity
+) {
+
+  /** Built-in profile, used when nothing is configured. */
+  public static final AbilityProfile DEFAULTS = new AbilityProfile(
+    50.0,
+    4.0, // 2.0 hearts (bypasses armor)
+    1.0
+  );
+
+  /**
+   * Read and validate a profile. Keys missing from the section are taken
+   * from {@code fallback}; invalid values are reported and replaced by it.
+   *
+   * @param section Section holding max-range, damage-per-strike and particle-density
+   * @param path Path of the section, used in problem messages
+   * @param fallback Profile to inherit from
+   * @param problems Receives one message per invalid value
+   * @return The profile
+   */
+  static AbilityProfile fromConfig(
+    ConfigurationSection section,
+    String path,
+    AbilityProfile fallback,
+    List<String> problems
+  ) {
+    double maxRange = section.getDouble("max-range", fallback.maxRange);
+    if (!(maxRange >= 1.0 && maxRange <= 128.0)) {
+      problems.add(path + ".max-range must be between 1 and 128, got " + maxRange);
+      maxRange = fallback.maxRange;
+    }
+
+    double damagePerStrike = section.getDouble("damage-per-strike", fallback.damagePerStrike);
+    if (!(damagePerStrike >= 0.0 && damagePerStrike <= 1024.0)) {
+      problems.add(path + ".damage-per-strike must be between 0 and 1024, got "
+        + damagePerStrike);
+      damagePerStrike = fallback.damagePerStrike;
+    }
+
+    double particleDensity = section.getDouble("particle-density", fallback.particleDensity);
+    if (!(particleDensity >= 0.0 && particleDensity <= 4.0)) {
+      problems.add(path + ".particle-density must be between 0 and 4, got " + particleDensity);
+      particleDensity = fallback.particleDensity;
+    }
+
+    return new AbilityProfile(maxRange, damagePerStrike, particleDensity);
+  }
+}
@@ -0,0 +1,100 @@
+package com.dragonegg.lightning.config;
+
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes the current {@link PluginConfig} snapshot.
+ *
+ * Readers call {@link #get()}, which is a single volatile read with no
+ * locking. {@link #reload()} validates config.yml into a new snapshot and
+ * swaps it in only if it is valid, so readers always see either the old or
+ * the new settings in full. Casts capture the snapshot when they start and
+ * keep using it until they finish.
+ */
+public class ConfigManager {
+
+  private static final String CONFIG_FILE = "config.yml";
+
+  private final DragonEggLightningPlugin plugin;
+  private volatile PluginConfig current;
+
+  /**
+   * @param plugin The plugin, or null to serve the built-in defaults
+   */
+  public ConfigManager(DragonEggLightningPlugin plugin) {
+    this.plugin = plugin;
+    this.current = PluginConfig.DEFAULTS;
+    load();
+  }
+
+  /**
+   * Get the current snapshot.
+   *
+   * @return The current settings
+   */
+  public PluginConfig get() {
+    return current;
+  }
+
+  /**
+   * Re-read config.yml and publish it if it is valid.
+   *
+   * The file is loaded and validated on its own first; the plugin's live
+   * configuration is only reloaded once it passes, so a rejected edit leaves
+   * everything that reads {@code getConfig()} directly on the old values too.
+   *
+   * @return Validation problems; empty if the new snapshot was published
+   */
+  public List<String> reload() {
+    List<String> problems = new ArrayList<>();
+    if (plugin == null) {
+      return problems;
+    }
+
+    YamlConfiguration candidate = new YamlConfiguration();
+    // Keys missing from the file fall back to the bundled defaults, as they do after reloadConfig()
+    Configuration defaults = plugin.getConfig().getDefaults();
+    if (defaults != null) {
+      candidate.setDefaults(defaults);
+    }
+    File file = new File(plugin.getDataFolder(), CONFIG_FILE);
+    if (file.exists()) {
+      try {
+        candidate.load(file);
+      } catch (IOException | InvalidConfigurationException e) {
+        problems.add(CONFIG_FILE + " could not be read: " + e.getMessage());
+        return problems;
+      }
+    }
+
+    PluginConfig loaded = PluginConfig.fromConfig(candidate, problems);
+    if (problems.isEmpty()) {
+      plugin.reloadConfig();
+      current = loaded;
+    }
+    return problems;
+  }
+
+  /**
+   * Initial load. Invalid values are logged and replaced by their defaults so
+   * the plugin still starts.
+   */
+  private void load() {
+    if (plugin == null) {
+      return;
+    }
+    List<String> problems = new ArrayList<>();
+    current = PluginConfig.fromConfig(plugin.getConfig(), problems);
+    for (String problem : problems) {
+      plugin.getLogger().warning("Invalid config value, using default: " + problem);
+    }
+  }
+}
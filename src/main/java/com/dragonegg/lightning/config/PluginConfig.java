@@ -0,0 +1,91 @@
+package com.dragonegg.lightning.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+import java.util.List;
+
+/**
+ * Immutable, validated snapshot of the tunable ability settings.
+ *
+ * A snapshot is never modified after it is built; reloading the config builds
+ * a new one and publishes it through {@link ConfigManager}.
+ *
+ * @param strikeCount Lightning strikes per cast
+ * @param strikeIntervalTicks Ticks between strikes
+ * @param cooldownMillis Cooldown after a cast in milliseconds
+ * @param profiles Range, damage and particle settings per world
+ */
+public record PluginConfig(
+  int strikeCount,
+  long strikeIntervalTicks,
+  long cooldownMillis,
+  WorldProfiles profiles
+) {
+
+  /** Built-in values, used when no config is available or it fails validation. */
+  public static final PluginConfig DEFAULTS = new PluginConfig(
+    3,
+    10L, // 0.5 seconds
+    60000L, // 60 seconds
+    WorldProfiles.DEFAULTS
+  );
+
+  /**
+   * Read and validate the lightning settings from a config.
+   *
+   * Missing keys fall back to {@link #DEFAULTS}. Every out-of-range value is
+   * reported in {@code problems}; callers should not publish the snapshot
+   * when any were found.
+   *
+   * @param config The root config section
+   * @param problems Receives one message per invalid value
+   * @return The snapshot, with invalid values replaced by defaults
+   */
+  public static PluginConfig fromConfig(ConfigurationSection config, List<String> problems) {
+    ConfigurationSection lightning = config.getConfigurationSection("lightning");
+    if (lightning == null) {
+      lightning = new MemoryConfiguration();
+    }
+
+    int strikeCount = lightning.getInt("strike-count", DEFAULTS.strikeCount);
+    if (strikeCount < 1 || strikeCount > 20) {
+      problems.add("lightning.strike-count must be between 1 and 20, got " + strikeCount);
+      strikeCount = DEFAULTS.strikeCount;
+    }
+
+    long strikeIntervalTicks = lightning.getLong(
+      "strike-interval-ticks",
+      DEFAULTS.strikeIntervalTicks
+    );
+    if (strikeIntervalTicks < 1 || strikeIntervalTicks > 200) {
+      problems.add("lightning.strike-interval-ticks must be between 1 and 200, got "
+        + strikeIntervalTicks);
+      strikeIntervalTicks = DEFAULTS.strikeIntervalTicks;
+    }
+
+    long cooldownSeconds = lightning.getLong(
+      "cooldown-seconds",
+      DEFAULTS.cooldownMillis / 1000L
+    );
+    if (cooldownSeconds < 0 || cooldownSeconds > 86400) {
+      problems.add("lightning.cooldown-seconds must be between 0 and 86400, got "
+        + cooldownSeconds);
+      cooldownSeconds = DEFAULTS.cooldownMillis / 1000L;
+    }
+
+    return new PluginConfig(
+      strikeCount,
+      strikeIntervalTicks,
+      cooldownSeconds * 1000L,
+      WorldProfiles.fromConfig(lightning, problems)
+    );
+  }
+
+  /**
+   * @return The profile used in worlds without overrides
+   */
+  public AbilityProfile defaultProfile() {
+    return profiles.defaultProfile();
+  }
+}
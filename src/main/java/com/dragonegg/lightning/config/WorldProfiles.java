@@ -0,0 +1,138 @@
+package com.dragonegg.lightning.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-world ability profiles compiled into an array.
+ *
+ * Index 0 holds the default profile and every world with overrides gets its
+ * own slot. Callers resolve a world to its index once with
+ * {@link #indexOf(String)} and then read the profile with a plain array
+ * access. Immutable once built.
+ */
+public final class WorldProfiles {
+
+  /** Profiles with no per-world overrides. */
+  public static final WorldProfiles DEFAULTS = new WorldProfiles(
+    new AbilityProfile[] {AbilityProfile.DEFAULTS},
+    Map.of()
+  );
+
+  private final AbilityProfile[] profiles;
+  private final Map<String, Integer> worldIndexes;
+
+  private WorldProfiles(AbilityProfile[] profiles, Map<String, Integer> worldIndexes) {
+    this.profiles = profiles;
+    this.worldIndexes = worldIndexes;
+  }
+
+  /**
+   * Compile the global profile and the overrides under {@code worlds}.
+   *
+   * @param lightning The lightning config section
+   * @param problems Receives one message per invalid value
+   * @return The compiled profiles
+   */
+  static WorldProfiles fromConfig(ConfigurationSection lightning, List<String> problems) {
+    AbilityProfile defaultProfile = AbilityProfile.fromConfig(
+      lightning,
+      "lightning",
+      AbilityProfile.DEFAULTS,
+      problems
+    );
+
+    List<AbilityProfile> compiled = new ArrayList<>();
+    compiled.add(defaultProfile);
+    Map<String, Integer> indexes = new HashMap<>();
+
+    ConfigurationSection worlds = lightning.getConfigurationSection("worlds");
+    if (worlds != null) {
+      for (String worldName : worlds.getKeys(false)) {
+        ConfigurationSection overrides = worlds.getConfigurationSection(worldName);
+        if (overrides == null) {
+          problems.add("lightning.worlds." + worldName + " must be a section");
+          continue;
+        }
+        indexes.put(worldName, compiled.size());
+        compiled.add(AbilityProfile.fromConfig(
+          overrides,
+          "lightning.worlds." + worldName,
+          defaultProfile,
+          problems
+        ));
+      }
+    }
+
+    return new WorldProfiles(compiled.toArray(new AbilityProfile[0]), Map.copyOf(indexes));
+  }
+
+  /**
+   * Get the profile index for a world.
+   *
+   * @param worldName The world name
+   * @return The world's index, or 0 for the default profile
+   */
+  public int indexOf(String worldName) {
+    Integer index = worldIndexes.get(worldName);
+    return index != null ? index : 0;
+  }
+
+  /**
+   * Get a profile by index.
+   *
+   * @param index An index from {@link #indexOf(String)}
+   * @return The profile
+   */
+  public AbilityProfile get(int index) {
+    return profiles[index];
+  }
+
+  /**
+   * Get the profile for a world.
+   *
+   * @param worldName The world name
+   * @return The world's profile, or the default profile
+   */
+  public AbilityProfile forWorld(String worldName) {
+    return profiles[indexOf(worldName)];
+  }
+
+  public AbilityProfile defaultProfile() {
+    return profiles[0];
+  }
+
+  /**
+   * @return Number of compiled profiles, including the default
+   */
+  public int size() {
+    return profiles.length;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof WorldProfiles that)) {
+      return false;
+    }
+    return Arrays.equals(profiles, that.profiles) && worldIndexes.equals(that.worldIndexes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(profiles) + worldIndexes.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "WorldProfiles[profiles=" + Arrays.toString(profiles)
+      + ", worldIndexes=" + worldIndexes + "]";
+  }
+}
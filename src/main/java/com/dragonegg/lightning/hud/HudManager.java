@@ -3,6 +3,10 @@ package com.dragonegg.lightning.hud;
 import com.dragonegg.lightning.DragonEggLightningPlugin;
 import com.dragonegg.lightning.ability.Ability;
 import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.jfr.HudPassEvent;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.metrics.TickProfiler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -17,6 +21,10 @@ public class HudManager {
 
   private final DragonEggLightningPlugin plugin;
   private final AbilityManager abilityManager;
+  private final Histogram playersPerPass;
+  private final Histogram packetsPerPass;
+  private final Histogram passDuration;
+  private final TickProfiler profiler;
   private BukkitTask updateTask;
 
   public HudManager(
@@ -25,13 +33,32 @@ public class HudManager {
   ) {
     this.plugin = plugin;
     this.abilityManager = abilityManager;
+
+    MetricsRegistry metrics = plugin != null ? plugin.getMetrics() : new MetricsRegistry();
+    this.playersPerPass = metrics.histogram(
+      "dragonegg_hud_players_per_tick",
+      "Online players checked per HUD pass"
+    );
+    this.packetsPerPass = metrics.histogram(
+      "dragonegg_hud_packets_per_tick",
+      "Action bar updates sent per HUD pass"
+    );
+    this.passDuration = metrics.histogram(
+      "dragonegg_hud_pass_nanos",
+      "Main-thread time per HUD pass, in nanoseconds"
+    );
+    this.profiler = metrics.getTickProfiler();
     startUpdateTask();
   }
 
   /**
    * Start the HUD update task.
+   * Only starts if plugin is not null (handles testing scenarios).
    */
   private void startUpdateTask() {
+    if (plugin == null) {
+      return;
+    }
     // Update HUD every tick (20 times per second)
     updateTask = Bukkit.getScheduler().runTaskTimer(
       plugin,
@@ -42,11 +69,33 @@ public class HudManager {
   }
 
   /**
-   * Update HUD for all online players.
+   * Update HUD for all online players. Runs every tick from the update task.
    */
-  private void updateAllPlayerHuds() {
-    for (Player player : Bukkit.getOnlinePlayers()) {
-      updatePlayerHud(player);
+  public void updateAllPlayerHuds() {
+    HudPassEvent event = new HudPassEvent();
+    event.begin();
+    profiler.enter(TickProfiler.Subsystem.HUD);
+    long start = System.nanoTime();
+    int players = 0;
+    int packets = 0;
+    try {
+      for (Player player : Bukkit.getOnlinePlayers()) {
+        players++;
+        if (updatePlayerHud(player)) {
+          packets++;
+        }
+      }
+    } finally {
+      profiler.exit();
+    }
+    playersPerPass.record(players);
+    packetsPerPass.record(packets);
+    passDuration.record(System.nanoTime() - start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.players = players;
+      event.packets = packets;
+      event.commit();
     }
   }
 
@@ -54,12 +103,13 @@ public class HudManager {
    * Update HUD for a specific player.
    *
    * @param player The player
+   * @return true if an action bar update was sent
    */
-  private void updatePlayerHud(Player player) {
+  private boolean updatePlayerHud(Player player) {
     // Only show HUD if player has dragon egg in offhand
     Ability lightningAbility = abilityManager.getAbility(1);
     if (lightningAbility == null || !lightningAbility.hasRequiredItem(player)) {
-      return;
+      return false;
     }
 
     int cooldown = abilityManager.getRemainingCooldown(player);
@@ -83,6 +133,7 @@ public class HudManager {
 
     // Send action bar (appears above hotbar, middle-left area)
     player.sendActionBar(hudText);
+    return true;
   }
 
   /**
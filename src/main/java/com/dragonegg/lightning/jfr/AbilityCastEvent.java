@@ -0,0 +1,28 @@
+package com.dragonegg.lightning.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Main-thread work to start an admitted ability cast.
+ */
+@Name("com.dragonegg.lightning.AbilityCast")
+@Label("Ability Cast")
+@Category({"DragonEggLightning", "Ability"})
+@Description("Starting an ability cast on the main thread, including target selection")
+@StackTrace(false)
+public class AbilityCastEvent extends Event {
+
+  @Label("Player")
+  public String player;
+
+  @Label("Ability")
+  public String ability;
+
+  @Label("Success")
+  public boolean success;
+}
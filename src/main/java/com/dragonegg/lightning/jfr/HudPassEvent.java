@@ -0,0 +1,26 @@
+package com.dragonegg.lightning.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HUD update pass over the online players.
+ */
+@Name("com.dragonegg.lightning.HudPass")
+@Label("HUD Pass")
+@Category({"DragonEggLightning", "HUD"})
+@Description("Updating the cooldown action bar for online players")
+@StackTrace(false)
+public class HudPassEvent extends Event {
+
+  @Label("Players")
+  public int players;
+
+  @Label("Packets")
+  @Description("Action bar updates sent")
+  public int packets;
+}
@@ -0,0 +1,31 @@
+package com.dragonegg.lightning.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Lifetime of a lightning cast, from the first strike to the end of the cast.
+ */
+@Name("com.dragonegg.lightning.LightningCast")
+@Label("Lightning Cast")
+@Category({"DragonEggLightning", "Ability"})
+@Description("A lightning cast from start to end, spanning several ticks")
+@StackTrace(false)
+public class LightningCastEvent extends Event {
+
+  @Label("Player")
+  public String player;
+
+  @Label("Strikes")
+  public int strikes;
+
+  @Label("Retargets")
+  public int retargets;
+
+  @Label("End Reason")
+  public String endReason;
+}
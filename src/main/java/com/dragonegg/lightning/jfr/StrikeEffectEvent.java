@@ -0,0 +1,25 @@
+package com.dragonegg.lightning.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One lightning strike: bolt, particles, damage and sounds.
+ */
+@Name("com.dragonegg.lightning.StrikeEffect")
+@Label("Strike Effect")
+@Category({"DragonEggLightning", "Ability"})
+@Description("Spawning the bolt, particles and sounds of one strike")
+@StackTrace(false)
+public class StrikeEffectEvent extends Event {
+
+  @Label("Particles")
+  public long particles;
+
+  @Label("Sounds")
+  public int sounds;
+}
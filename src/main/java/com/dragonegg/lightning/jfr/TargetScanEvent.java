@@ -0,0 +1,30 @@
+package com.dragonegg.lightning.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One targeting query: a ray trace and, if it misses, a cone scan.
+ */
+@Name("com.dragonegg.lightning.TargetScan")
+@Label("Target Scan")
+@Category({"DragonEggLightning", "Ability"})
+@Description("Searching for a lightning target")
+@StackTrace(false)
+public class TargetScanEvent extends Event {
+
+  @Label("Retarget")
+  @Description("Whether this query replaced a dead or invalid target")
+  public boolean retarget;
+
+  @Label("Candidates")
+  @Description("Entities examined by the cone scan; 0 when the ray trace hit")
+  public int candidates;
+
+  @Label("Found")
+  public boolean found;
+}
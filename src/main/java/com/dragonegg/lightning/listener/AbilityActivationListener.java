@@ -0,0 +1,109 @@
+package com.dragonegg.lightning.listener;
+
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Casts the lightning ability when a player right-clicks with a Dragon Egg
+ * in their offhand, without going through command dispatch.
+ */
+public class AbilityActivationListener implements Listener {
+
+  private static final int LIGHTNING_ABILITY_ID = 1;
+  private static final long DEFAULT_DEBOUNCE_MILLIS = 250L;
+  private static final String PERMISSION = "dragonegg.ability";
+
+  private final AbilityManager abilityManager;
+  private final long debounceMillis;
+  private final Map<UUID, Long> lastActivation;
+  private final TickProfiler profiler;
+
+  public AbilityActivationListener(
+    DragonEggLightningPlugin plugin,
+    AbilityManager abilityManager
+  ) {
+    this.abilityManager = abilityManager;
+    this.debounceMillis = plugin != null
+      ? plugin.getConfig().getLong("activation.debounce-millis", DEFAULT_DEBOUNCE_MILLIS)
+      : DEFAULT_DEBOUNCE_MILLIS;
+    this.lastActivation = new HashMap<>();
+    this.profiler = plugin != null ? plugin.getMetrics().getTickProfiler() : new TickProfiler();
+  }
+
+  /**
+   * Trigger the ability on an offhand right-click with a Dragon Egg.
+   *
+   * @param event The player interact event
+   */
+  @EventHandler(priority = EventPriority.HIGH)
+  public void onPlayerInteract(PlayerInteractEvent event) {
+    if (event.getHand() != EquipmentSlot.OFF_HAND) {
+      return;
+    }
+    Action action = event.getAction();
+    if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK) {
+      return;
+    }
+    ItemStack item = event.getItem();
+    if (item == null || item.getType() != Material.DRAGON_EGG) {
+      return;
+    }
+
+    Player player = event.getPlayer();
+    if (!player.hasPermission(PERMISSION)) {
+      return;
+    }
+
+    // Debounce spam clicks before doing any ability work, on the same clock as cooldowns
+    long now = abilityManager.currentTimeMillis();
+    Long last = lastActivation.get(player.getUniqueId());
+    if (last != null && now - last < debounceMillis) {
+      return;
+    }
+    lastActivation.put(player.getUniqueId(), now);
+
+    // This click is an activation, so don't also place the egg. Players
+    // without permission and debounced clicks keep the vanilla behaviour
+    event.setUseItemInHand(Event.Result.DENY);
+
+    // The HUD already shows the remaining cooldown, so stay silent here
+    Ability ability = abilityManager.getAbility(LIGHTNING_ABILITY_ID);
+    if (ability == null || abilityManager.isOnCooldown(player)) {
+      return;
+    }
+
+    profiler.enter(TickProfiler.Subsystem.COMMANDS);
+    try {
+      abilityManager.useAbility(player, ability);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  /**
+   * Forget debounce state for players who leave.
+   *
+   * @param event The player quit event
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    lastActivation.remove(event.getPlayer().getUniqueId());
+  }
+}
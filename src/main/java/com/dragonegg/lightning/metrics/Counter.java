@@ -0,0 +1,42 @@
+package com.dragonegg.lightning.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter. Increments are a single uncontended add, so it is safe
+ * to bump on hot paths from any thread.
+ */
+public final class Counter implements Metric {
+
+  private final String name;
+  private final String help;
+  private final LongAdder value;
+
+  Counter(String name, String help) {
+    this.name = name;
+    this.help = help;
+    this.value = new LongAdder();
+  }
+
+  public void increment() {
+    value.increment();
+  }
+
+  public void add(long amount) {
+    value.add(amount);
+  }
+
+  public long get() {
+    return value.sum();
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String help() {
+    return help;
+  }
+}
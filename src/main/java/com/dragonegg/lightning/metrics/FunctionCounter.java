@@ -0,0 +1,35 @@
+package com.dragonegg.lightning.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic total kept by its owner and read through a supplier, such as a
+ * rejection count on a single-threaded limiter. Exported as a counter, so
+ * the supplier must never go down.
+ */
+public final class FunctionCounter implements Metric {
+
+  private final String name;
+  private final String help;
+  private final LongSupplier supplier;
+
+  FunctionCounter(String name, String help, LongSupplier supplier) {
+    this.name = name;
+    this.help = help;
+    this.supplier = supplier;
+  }
+
+  public long get() {
+    return supplier.getAsLong();
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String help() {
+    return help;
+  }
+}
@@ -0,0 +1,34 @@
+package com.dragonegg.lightning.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Value sampled on demand, such as a map size. The supplier runs on the
+ * thread reading the metric, so it should only read plain fields.
+ */
+public final class Gauge implements Metric {
+
+  private final String name;
+  private final String help;
+  private final LongSupplier supplier;
+
+  Gauge(String name, String help, LongSupplier supplier) {
+    this.name = name;
+    this.help = help;
+    this.supplier = supplier;
+  }
+
+  public long get() {
+    return supplier.getAsLong();
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String help() {
+    return help;
+  }
+}
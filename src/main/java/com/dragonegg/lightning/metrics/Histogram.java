@@ -0,0 +1,162 @@
+package com.dragonegg.lightning.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of non-negative long values.
+ *
+ * Values below 16 get one bucket each. Larger values are split into powers
+ * of two, each divided into 8 linear sub-buckets, so any recorded value is
+ * reported within 12.5% of its true size. Recording is one array increment
+ * plus two adders and never allocates.
+ */
+public final class Histogram implements Metric {
+
+  private static final int LINEAR_BUCKETS = 16;
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int FIRST_EXPONENT = 4; // log2(LINEAR_BUCKETS)
+
+  /** Buckets for every long value from 0 to {@link Long#MAX_VALUE}. */
+  static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+  private final String name;
+  private final String help;
+  private final AtomicLongArray buckets;
+  private final LongAdder count;
+  private final LongAdder sum;
+  private final LongAccumulator max;
+
+  Histogram(String name, String help) {
+    this.name = name;
+    this.help = help;
+    this.buckets = new AtomicLongArray(BUCKET_COUNT);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * Record a value. Negative values are recorded as 0.
+   *
+   * @param value The value
+   */
+  public void record(long value) {
+    long v = Math.max(0L, value);
+    buckets.incrementAndGet(bucketIndex(v));
+    count.increment();
+    sum.add(v);
+    max.accumulate(v);
+  }
+
+  /**
+   * Clear all recorded values. Not atomic with respect to concurrent
+   * {@link #record(long)} calls.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0L);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long sum() {
+    return sum.sum();
+  }
+
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * @return Mean of the recorded values, or 0 if none were recorded
+   */
+  public double mean() {
+    long n = count();
+    return n == 0 ? 0.0 : (double) sum() / n;
+  }
+
+  /**
+   * Estimate a quantile from the buckets.
+   *
+   * @param quantile Quantile between 0 and 1, e.g. 0.99
+   * @return Upper bound of the bucket holding the quantile, capped at the max
+   */
+  public long quantile(double quantile) {
+    long[] counts = bucketCounts();
+    long total = 0;
+    for (long c : counts) {
+      total += c;
+    }
+    if (total == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), max());
+      }
+    }
+    return max();
+  }
+
+  /**
+   * Copy the bucket counts. Index {@code i} covers values up to
+   * {@link #bucketUpperBound(int)}.
+   *
+   * @return A copy of the bucket counts
+   */
+  public long[] bucketCounts() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * Get the largest value that falls into a bucket.
+   *
+   * @param index Bucket index
+   * @return Inclusive upper bound of the bucket
+   */
+  public static long bucketUpperBound(int index) {
+    if (index < LINEAR_BUCKETS) {
+      return index;
+    }
+    int exponent = FIRST_EXPONENT + (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long next = (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    // The last bucket's bound overflows to Long.MIN_VALUE
+    return next <= 0 ? Long.MAX_VALUE : next - 1;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String help() {
+    return help;
+  }
+}
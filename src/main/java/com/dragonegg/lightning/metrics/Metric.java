@@ -0,0 +1,21 @@
+package com.dragonegg.lightning.metrics;
+
+/**
+ * A named value tracked by the {@link MetricsRegistry}.
+ */
+public interface Metric {
+
+  /**
+   * Get the metric name, in Prometheus style (lowercase with underscores).
+   *
+   * @return The metric name
+   */
+  String name();
+
+  /**
+   * Get a one-line description of the metric.
+   *
+   * @return The description
+   */
+  String help();
+}
@@ -0,0 +1,100 @@
+package com.dragonegg.lightning.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics registry at {@code /metrics} for Prometheus scrapes.
+ *
+ * Built on the JDK's HTTP server. Requests are handled on virtual threads, so
+ * a scrape never runs on the server main thread.
+ */
+public class MetricsHttpServer {
+
+  /** Path the metrics are served on. */
+  public static final String PATH = "/metrics";
+
+  private final MetricsRegistry registry;
+  private final InetSocketAddress address;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * @param registry The registry to serve
+   * @param address Address to bind; use port 0 for any free port
+   */
+  public MetricsHttpServer(MetricsRegistry registry, InetSocketAddress address) {
+    this.registry = registry;
+    this.address = address;
+  }
+
+  /**
+   * Bind the socket and start serving.
+   *
+   * @throws IOException If the address cannot be bound
+   */
+  public synchronized void start() throws IOException {
+    if (server != null) {
+      return;
+    }
+    HttpServer httpServer = HttpServer.create(address, 0);
+    httpServer.createContext(PATH, this::handle);
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    httpServer.setExecutor(executor);
+    httpServer.start();
+    server = httpServer;
+  }
+
+  /**
+   * Stop serving and release the port.
+   */
+  public synchronized void stop() {
+    if (server == null) {
+      return;
+    }
+    server.stop(0);
+    executor.shutdownNow();
+    server = null;
+    executor = null;
+  }
+
+  /**
+   * @return The bound port, or -1 if the server is not running
+   */
+  public synchronized int getPort() {
+    return server != null ? server.getAddress().getPort() : -1;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String method = exchange.getRequestMethod();
+      if (!exchange.getRequestURI().getPath().equals(PATH)) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      if (!method.equals("GET") && !method.equals("HEAD")) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      byte[] body = PrometheusFormatter.format(registry).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", PrometheusFormatter.CONTENT_TYPE);
+      if (method.equals("HEAD")) {
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.dragonegg.lightning.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the plugin's counters, histograms and gauges.
+ *
+ * Metrics are created once at startup and the caller keeps the returned
+ * reference, so hot paths never look anything up by name. Registration is
+ * synchronized; reading and updating metrics is lock-free and may happen on
+ * any thread.
+ */
+public class MetricsRegistry {
+
+  private final Map<String, Metric> metrics;
+  private final TickProfiler tickProfiler;
+
+  public MetricsRegistry() {
+    this.metrics = new LinkedHashMap<>();
+    this.tickProfiler = new TickProfiler();
+  }
+
+  /**
+   * Get the per-tick profiler. Unlike the registered metrics it may only be
+   * used on the server main thread.
+   *
+   * @return The tick profiler
+   */
+  public TickProfiler getTickProfiler() {
+    return tickProfiler;
+  }
+
+  /**
+   * Get or create a counter.
+   *
+   * @param name Metric name
+   * @param help One-line description
+   * @return The counter
+   */
+  public Counter counter(String name, String help) {
+    return register(Counter.class, name, () -> new Counter(name, help));
+  }
+
+  /**
+   * Get or create a histogram.
+   *
+   * @param name Metric name
+   * @param help One-line description
+   * @return The histogram
+   */
+  public Histogram histogram(String name, String help) {
+    return register(Histogram.class, name, () -> new Histogram(name, help));
+  }
+
+  /**
+   * Register a gauge, replacing any earlier gauge with the same name.
+   *
+   * @param name Metric name
+   * @param help One-line description
+   * @param supplier Supplies the current value
+   * @return The gauge
+   */
+  public synchronized Gauge gauge(String name, String help, LongSupplier supplier) {
+    Metric existing = metrics.get(name);
+    if (existing != null && !(existing instanceof Gauge)) {
+      throw new IllegalArgumentException("Metric " + name + " is already registered as "
+        + existing.getClass().getSimpleName());
+    }
+    Gauge gauge = new Gauge(name, help, supplier);
+    metrics.put(name, gauge);
+    return gauge;
+  }
+
+  /**
+   * Register a counter whose total is kept elsewhere, replacing any earlier
+   * one with the same name.
+   *
+   * @param name Metric name
+   * @param help One-line description
+   * @param supplier Supplies the current total, which must never decrease
+   * @return The counter
+   */
+  public synchronized FunctionCounter counter(String name, String help, LongSupplier supplier) {
+    Metric existing = metrics.get(name);
+    if (existing != null && !(existing instanceof FunctionCounter)) {
+      throw new IllegalArgumentException("Metric " + name + " is already registered as "
+        + existing.getClass().getSimpleName());
+    }
+    FunctionCounter counter = new FunctionCounter(name, help, supplier);
+    metrics.put(name, counter);
+    return counter;
+  }
+
+  /**
+   * Get a registered metric by name.
+   *
+   * @param name Metric name
+   * @return The metric, or null if none is registered
+   */
+  public synchronized Metric get(String name) {
+    return metrics.get(name);
+  }
+
+  /**
+   * @return All registered metrics in registration order
+   */
+  public synchronized List<Metric> metrics() {
+    return new ArrayList<>(metrics.values());
+  }
+
+  private synchronized <T extends Metric> T register(
+    Class<T> type,
+    String name,
+    Supplier<T> factory
+  ) {
+    Metric existing = metrics.get(name);
+    if (existing != null) {
+      if (!type.isInstance(existing)) {
+        throw new IllegalArgumentException("Metric " + name + " is already registered as "
+          + existing.getClass().getSimpleName());
+      }
+      return type.cast(existing);
+    }
+    T metric = factory.get();
+    metrics.put(name, metric);
+    return metric;
+  }
+}
@@ -0,0 +1,75 @@
+package com.dragonegg.lightning.metrics;
+
+/**
+ * Renders a {@link MetricsRegistry} in the Prometheus text exposition format
+ * (version 0.0.4).
+ *
+ * Counters and gauges map directly. Histograms are exported as summaries
+ * with 0.5, 0.9 and 0.99 quantiles plus {@code _sum} and {@code _count}, and
+ * a separate {@code _max} gauge, which keeps the output small compared to
+ * exporting every bucket.
+ */
+public final class PrometheusFormatter {
+
+  /** Content type for the text exposition format. */
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+  private PrometheusFormatter() {
+  }
+
+  /**
+   * Render every registered metric.
+   *
+   * @param registry The registry to export
+   * @return The exposition text
+   */
+  public static String format(MetricsRegistry registry) {
+    StringBuilder out = new StringBuilder(4096);
+    for (Metric metric : registry.metrics()) {
+      if (metric instanceof Counter counter) {
+        header(out, metric, "counter");
+        sample(out, metric.name(), null, counter.get());
+      } else if (metric instanceof FunctionCounter counter) {
+        header(out, metric, "counter");
+        sample(out, metric.name(), null, counter.get());
+      } else if (metric instanceof Gauge gauge) {
+        header(out, metric, "gauge");
+        sample(out, metric.name(), null, gauge.get());
+      } else if (metric instanceof Histogram histogram) {
+        header(out, metric, "summary");
+        for (double quantile : QUANTILES) {
+          sample(out, metric.name(), quantile, histogram.quantile(quantile));
+        }
+        sample(out, metric.name() + "_sum", null, histogram.sum());
+        sample(out, metric.name() + "_count", null, histogram.count());
+
+        String maxName = metric.name() + "_max";
+        out.append("# HELP ").append(maxName).append(" Largest value of ")
+          .append(metric.name()).append('\n');
+        out.append("# TYPE ").append(maxName).append(" gauge\n");
+        sample(out, maxName, null, histogram.max());
+      }
+    }
+    return out.toString();
+  }
+
+  private static void header(StringBuilder out, Metric metric, String type) {
+    out.append("# HELP ").append(metric.name()).append(' ')
+      .append(escapeHelp(metric.help())).append('\n');
+    out.append("# TYPE ").append(metric.name()).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, Double quantile, long value) {
+    out.append(name);
+    if (quantile != null) {
+      out.append("{quantile=\"").append(Double.toString(quantile)).append("\"}");
+    }
+    out.append(' ').append(value).append('\n');
+  }
+
+  private static String escapeHelp(String help) {
+    return help.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+}
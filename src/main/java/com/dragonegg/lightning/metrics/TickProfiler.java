@@ -0,0 +1,173 @@
+package com.dragonegg.lightning.metrics;
+
+/**
+ * Measures main-thread time spent per server tick, split by subsystem.
+ *
+ * Entry points call {@link #enter(Subsystem)} and {@link #exit()} around
+ * their work. Sections may nest; time is charged exclusively to the
+ * innermost subsystem, so a targeting scan run from a command counts as
+ * targeting, not as command handling. At the end of each tick the per-tick
+ * totals are recorded into one histogram per subsystem.
+ *
+ * Histograms cover a one-minute window. When a window ends it becomes the
+ * "last window" and a cleared histogram takes its place, so memory stays
+ * fixed. Not thread-safe; all calls are expected on the server main thread.
+ */
+public class TickProfiler {
+
+  /**
+   * Parts of the plugin that are timed separately.
+   */
+  public enum Subsystem {
+    /** The action bar update pass. */
+    HUD,
+    /** Lightning strikes: bolts, particles, damage and sounds. */
+    STRIKES,
+    /** Ray traces and cone scans for targets. */
+    TARGETING,
+    /** /ability commands and right-click activation. */
+    COMMANDS
+  }
+
+  /** Length of one histogram window. */
+  public static final long WINDOW_NANOS = 60_000_000_000L;
+
+  private static final Subsystem[] SUBSYSTEMS = Subsystem.values();
+  private static final int MAX_DEPTH = 8;
+
+  private final long[] tickNanos;
+  private long lastTickNanos;
+  private Histogram[] current;
+  private Histogram[] lastWindow;
+  private boolean hasLastWindow;
+  private long windowStart;
+
+  // Stack of entered subsystems (by ordinal) and when the innermost resumed
+  private final int[] stack;
+  private int depth;
+  private long sectionStart;
+
+  public TickProfiler() {
+    this.tickNanos = new long[SUBSYSTEMS.length];
+    this.current = newHistograms();
+    this.lastWindow = newHistograms();
+    this.stack = new int[MAX_DEPTH];
+    this.windowStart = System.nanoTime();
+  }
+
+  private static Histogram[] newHistograms() {
+    Histogram[] histograms = new Histogram[SUBSYSTEMS.length];
+    for (Subsystem subsystem : SUBSYSTEMS) {
+      String name = subsystem.name().toLowerCase();
+      histograms[subsystem.ordinal()] = new Histogram(
+        "dragonegg_tick_" + name + "_nanos",
+        "Main-thread nanoseconds per tick spent in " + name
+      );
+    }
+    return histograms;
+  }
+
+  /**
+   * Start timing a subsystem. Must be paired with {@link #exit()}.
+   *
+   * @param subsystem The subsystem being entered
+   */
+  public void enter(Subsystem subsystem) {
+    enter(subsystem, System.nanoTime());
+  }
+
+  /**
+   * Stop timing the innermost subsystem and resume the one around it.
+   */
+  public void exit() {
+    exit(System.nanoTime());
+  }
+
+  /**
+   * Start timing a subsystem at a given time.
+   *
+   * @param subsystem The subsystem being entered
+   * @param nowNanos Current {@link System#nanoTime()} value
+   */
+  public void enter(Subsystem subsystem, long nowNanos) {
+    if (depth > 0 && depth <= MAX_DEPTH) {
+      tickNanos[stack[depth - 1]] += nowNanos - sectionStart;
+    }
+    if (depth < MAX_DEPTH) {
+      stack[depth] = subsystem.ordinal();
+    }
+    depth++;
+    sectionStart = nowNanos;
+  }
+
+  /**
+   * Stop timing the innermost subsystem at a given time.
+   *
+   * @param nowNanos Current {@link System#nanoTime()} value
+   */
+  public void exit(long nowNanos) {
+    if (depth == 0) {
+      return;
+    }
+    depth--;
+    if (depth < MAX_DEPTH) {
+      tickNanos[stack[depth]] += nowNanos - sectionStart;
+    }
+    sectionStart = nowNanos;
+  }
+
+  /**
+   * Record this tick's totals and roll the window over if it has ended.
+   *
+   * @param nowNanos Current {@link System#nanoTime()} value
+   */
+  public void endTick(long nowNanos) {
+    long total = 0L;
+    for (int i = 0; i < tickNanos.length; i++) {
+      current[i].record(tickNanos[i]);
+      total += tickNanos[i];
+      tickNanos[i] = 0L;
+    }
+    lastTickNanos = total;
+    if (nowNanos - windowStart >= WINDOW_NANOS) {
+      rollOver(nowNanos);
+    }
+  }
+
+  private void rollOver(long nowNanos) {
+    Histogram[] finished = current;
+    current = lastWindow;
+    for (Histogram histogram : current) {
+      histogram.reset();
+    }
+    lastWindow = finished;
+    hasLastWindow = true;
+    windowStart = nowNanos;
+  }
+
+  /**
+   * Get the histogram of per-tick time for a subsystem.
+   *
+   * @param subsystem The subsystem
+   * @return The last complete window, or the current one if none has completed
+   */
+  public Histogram getHistogram(Subsystem subsystem) {
+    return hasLastWindow ? lastWindow[subsystem.ordinal()] : current[subsystem.ordinal()];
+  }
+
+  /**
+   * Get the plugin's total time in the last completed tick.
+   *
+   * @return Nanoseconds across all subsystems in the tick closed by the last {@link #endTick(long)}
+   */
+  public long getLastTickNanos() {
+    return lastTickNanos;
+  }
+
+  /**
+   * @return Whether {@link #getHistogram(Subsystem)} reports a complete window
+   */
+  public boolean hasCompleteWindow() {
+    return hasLastWindow;
+  }
+}
@@ -0,0 +1,193 @@
+package com.dragonegg.lightning.trace;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size ring of compact cast records.
+ *
+ * All records live in one preallocated {@code long[]}; each record is
+ * {@link #RECORD_LONGS} longs laid out as described by the field constants.
+ * Writers claim a slot, fill in fields and publish it, without allocating or
+ * locking. Each slot carries a sequence number used as a seqlock: it is odd
+ * while the slot is being written and {@code 2 * n + 2} once record
+ * {@code n} is published. Readers on other threads copy a slot and keep it
+ * only if the sequence was even and unchanged, so a dump never blocks the
+ * main thread and never sees a half-written record.
+ */
+public class CastTraceBuffer {
+
+  /** Longs per record. */
+  public static final int RECORD_LONGS = 14;
+
+  /** Sequence number: odd while writing, {@code 2 * n + 2} when published. */
+  public static final int SEQUENCE = 0;
+  /** Caster UUID, most significant bits. */
+  public static final int CASTER_MSB = 1;
+  /** Caster UUID, least significant bits. */
+  public static final int CASTER_LSB = 2;
+  /** Wall-clock start time in epoch milliseconds. */
+  public static final int START_MILLIS = 3;
+  /** Server tick the cast was activated on, before any wait for an admission slot. */
+  public static final int START_TICK = 4;
+  /** Packed counts, see {@link #packCounts(int, int, int, int)}. */
+  public static final int COUNTS = 5;
+  /** Entity IDs of the first two targets, the first in the low 32 bits. */
+  public static final int TARGETS_0 = 6;
+  /** Entity IDs of the third and fourth targets. */
+  public static final int TARGETS_1 = 7;
+  /** Tick offsets of strikes 1 to 4 from {@link #START_TICK}, 16 bits each. */
+  public static final int STRIKE_TICKS_0 = 8;
+  /** Tick offsets of strikes 5 to 8, 16 bits each. */
+  public static final int STRIKE_TICKS_1 = 9;
+  /** Main-thread nanoseconds spent in target scans. */
+  public static final int SCAN_NANOS = 10;
+  /** Main-thread nanoseconds spent emitting strikes. */
+  public static final int STRIKE_NANOS = 11;
+  /** Nanoseconds from cast start to cast end. */
+  public static final int LIFETIME_NANOS = 12;
+  /** Effect packets the cast's strikes sent, counted once per recipient. */
+  public static final int PACKETS = 13;
+
+  /** Number of targets recorded per cast. */
+  public static final int MAX_TARGETS = 4;
+  /** Number of strike ticks recorded per cast. */
+  public static final int MAX_STRIKE_TICKS = 8;
+
+  private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int READ_ATTEMPTS = 4;
+
+  private final int capacity;
+  private final long[] slots;
+  private final AtomicLong next;
+
+  /**
+   * @param capacity Number of records kept before the oldest is overwritten
+   */
+  public CastTraceBuffer(int capacity) {
+    this.capacity = Math.max(1, capacity);
+    this.slots = new long[this.capacity * RECORD_LONGS];
+    this.next = new AtomicLong();
+  }
+
+  /**
+   * Claim the next slot, overwriting the oldest record if the ring is full.
+   * The slot must be filled with {@link #set(int, int, long)} and then
+   * published with {@link #publish(int)}.
+   *
+   * @return Base index of the claimed slot
+   */
+  public int claim() {
+    long n = next.getAndIncrement();
+    int base = (int) (n % capacity) * RECORD_LONGS;
+    SLOTS.setOpaque(slots, base + SEQUENCE, 2 * n + 1);
+    // Readers must see the odd sequence before any field changes
+    VarHandle.storeStoreFence();
+    return base;
+  }
+
+  /**
+   * Write one field of a claimed slot.
+   *
+   * @param base Base index from {@link #claim()}
+   * @param field Field constant, e.g. {@link #CASTER_MSB}
+   * @param value The value
+   */
+  public void set(int base, int field, long value) {
+    SLOTS.setOpaque(slots, base + field, value);
+  }
+
+  /**
+   * Publish a claimed slot so readers accept it.
+   *
+   * @param base Base index from {@link #claim()}
+   */
+  public void publish(int base) {
+    long sequence = (long) SLOTS.getOpaque(slots, base + SEQUENCE);
+    SLOTS.setRelease(slots, base + SEQUENCE, sequence + 1);
+  }
+
+  /**
+   * Copy the published records, oldest first. Safe to call from any thread
+   * while writers are active; records being written are skipped.
+   *
+   * @return Records back to back, {@link #RECORD_LONGS} longs each
+   */
+  public long[] snapshot() {
+    long end = next.get();
+    long start = Math.max(0L, end - capacity);
+    long[] out = new long[(int) (end - start) * RECORD_LONGS];
+    int written = 0;
+
+    for (long n = start; n < end; n++) {
+      int base = (int) (n % capacity) * RECORD_LONGS;
+      long expected = 2 * n + 2;
+      for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+        long before = (long) SLOTS.getAcquire(slots, base + SEQUENCE);
+        if (before != expected) {
+          // Still being written, or already overwritten by a newer record
+          break;
+        }
+        for (int field = 1; field < RECORD_LONGS; field++) {
+          out[written + field] = (long) SLOTS.getOpaque(slots, base + field);
+        }
+        VarHandle.loadLoadFence();
+        long after = (long) SLOTS.getOpaque(slots, base + SEQUENCE);
+        if (after == before) {
+          out[written + SEQUENCE] = before;
+          written += RECORD_LONGS;
+          break;
+        }
+      }
+    }
+
+    if (written == out.length) {
+      return out;
+    }
+    long[] trimmed = new long[written];
+    System.arraycopy(out, 0, trimmed, 0, written);
+    return trimmed;
+  }
+
+  /**
+   * @return Number of records written since startup
+   */
+  public long getRecordCount() {
+    return next.get();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Pack the per-cast counts into one long.
+   *
+   * @param strikes Strikes landed (8 bits)
+   * @param retargets Retargets (8 bits)
+   * @param endReason End reason code (8 bits)
+   * @param scanCandidates Entities examined across all scans (32 bits)
+   * @return The packed value
+   */
+  public static long packCounts(int strikes, int retargets, int endReason, int scanCandidates) {
+    return (long) (strikes & 0xFF)
+      | (long) (retargets & 0xFF) << 8
+      | (long) (endReason & 0xFF) << 16
+      | (scanCandidates & 0xFFFFFFFFL) << 32;
+  }
+
+  /**
+   * Store a 16-bit value into one of four lanes of a long.
+   *
+   * @param packed Current packed value
+   * @param lane Lane from 0 to 3
+   * @param value Value, clamped to 0..65535
+   * @return The updated packed value
+   */
+  public static long withLane(long packed, int lane, int value) {
+    int shift = lane * 16;
+    long clamped = Math.max(0, Math.min(0xFFFF, value));
+    return (packed & ~(0xFFFFL << shift)) | clamped << shift;
+  }
+}
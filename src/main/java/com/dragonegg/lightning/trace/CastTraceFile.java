@@ -0,0 +1,87 @@
+package com.dragonegg.lightning.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary dump format for {@link CastTraceBuffer} snapshots.
+ *
+ * Layout, big-endian: int magic {@code 0x44454C54} ("DELT"), int format
+ * version, int longs per record, int record count, then the records as
+ * longs in the field order of {@link CastTraceBuffer}.
+ */
+public final class CastTraceFile {
+
+  /** File magic, "DELT". */
+  public static final int MAGIC = 0x44454C54;
+
+  /** Current format version. */
+  public static final int VERSION = 2;
+
+  private CastTraceFile() {
+  }
+
+  /** Names tried by {@link #writeNew(Path, String, long[])} before giving up. */
+  static final int MAX_NAME_ATTEMPTS = 100;
+
+  /**
+   * Write a snapshot to a file, creating parent directories as needed.
+   *
+   * @param file Destination file
+   * @param records Records from {@link CastTraceBuffer#snapshot()}
+   * @throws IOException If the file cannot be written
+   */
+  public static void write(Path file, long[] records) throws IOException {
+    write(file, records, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Write a snapshot to a new file in a directory, never replacing an
+   * existing dump. The file is named {@code <baseName>.bin}, or
+   * {@code <baseName>-<n>.bin} when that name is taken.
+   *
+   * @param directory Destination directory, created as needed
+   * @param baseName File name without the extension
+   * @param records Records from {@link CastTraceBuffer#snapshot()}
+   * @return The file written
+   * @throws IOException If the file cannot be written, or no free name was found
+   */
+  public static Path writeNew(Path directory, String baseName, long[] records) throws IOException {
+    for (int attempt = 0; attempt < MAX_NAME_ATTEMPTS; attempt++) {
+      Path file = directory.resolve(attempt == 0 ? baseName + ".bin" : baseName + "-" + attempt + ".bin");
+      try {
+        write(file, records, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return file;
+      } catch (FileAlreadyExistsException e) {
+        // Another dump took this name, try the next one
+      }
+    }
+    throw new FileAlreadyExistsException(directory.resolve(baseName + ".bin").toString(), null,
+      "no free name after " + MAX_NAME_ATTEMPTS + " attempts");
+  }
+
+  private static void write(Path file, long[] records, OpenOption... options) throws IOException {
+    Path parent = file.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (DataOutputStream out = new DataOutputStream(
+      new BufferedOutputStream(Files.newOutputStream(file, options))
+    )) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(CastTraceBuffer.RECORD_LONGS);
+      out.writeInt(records.length / CastTraceBuffer.RECORD_LONGS);
+      for (long value : records) {
+        out.writeLong(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package com.dragonegg.lightning.load;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.metrics.Counter;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.Metric;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Load simulation on MockBukkit.
+ *
+ * Loads the real plugin, spawns many players and mobs, and drives scripted
+ * patterns over simulated ticks: every player right-clicks to cast on a
+ * staggered schedule and moves the Dragon Egg in and out of the offhand on
+ * another. Each tick runs the scripted actions, then the scheduler (HUD,
+ * strikes, sweeps).
+ *
+ * The headline cost is the plugin's own instrumented time: the sum of the
+ * tick profiler's subsystems for each tick. Wall time for the whole tick,
+ * which includes the script and MockBukkit's event bus and scheduler, is
+ * reported separately and is mostly harness overhead.
+ */
+public final class LoadSimulation {
+
+  /**
+   * What to simulate.
+   *
+   * @param players Online players
+   * @param mobs Zombies spread around the players
+   * @param ticks Ticks to run
+   * @param castIntervalTicks Ticks between cast attempts per player
+   * @param swapIntervalTicks Ticks between egg swaps per player
+   * @param seed Seed for positions and schedules
+   */
+  public record Settings(
+    int players,
+    int mobs,
+    int ticks,
+    int castIntervalTicks,
+    int swapIntervalTicks,
+    long seed
+  ) {
+
+    /** Hundreds of players, thousands of mobs, 20 simulated seconds. */
+    public static Settings defaults() {
+      return new Settings(300, 3000, 400, 100, 60, 42L);
+    }
+  }
+
+  /**
+   * Outcome of a run.
+   *
+   * @param ticks Ticks run
+   * @param castAttempts Right-clicks sent with an egg in the offhand
+   * @param castsStarted Casts the plugin started
+   * @param strikes Lightning strikes landed
+   * @param swaps Egg swaps performed
+   * @param averagePluginNanos Mean plugin time per tick, from the tick profiler
+   * @param worstPluginNanos Most plugin time in one tick
+   * @param worstTick Tick the most plugin time was spent on
+   * @param averageWallNanos Mean wall time per tick, including the script and MockBukkit
+   * @param worstWallNanos Longest wall time of one tick
+   * @param subsystemP99Nanos Per-tick p99 by subsystem, from the tick profiler
+   */
+  public record Report(
+    int ticks,
+    long castAttempts,
+    long castsStarted,
+    long strikes,
+    long swaps,
+    long averagePluginNanos,
+    long worstPluginNanos,
+    int worstTick,
+    long averageWallNanos,
+    long worstWallNanos,
+    Map<TickProfiler.Subsystem, Long> subsystemP99Nanos
+  ) {
+
+    /**
+     * @return A short human-readable summary
+     */
+    public String format() {
+      StringBuilder out = new StringBuilder();
+      out.append(String.format(
+        "%d ticks: plugin avg %.3f ms/tick, worst %.3f ms (tick %d)%n",
+        ticks, averagePluginNanos / 1e6, worstPluginNanos / 1e6, worstTick
+      ));
+      out.append(String.format(
+        "wall time incl. harness: avg %.3f ms/tick, worst %.3f ms%n",
+        averageWallNanos / 1e6, worstWallNanos / 1e6
+      ));
+      out.append(String.format(
+        "casts %d/%d attempted, strikes %d, egg swaps %d%n",
+        castsStarted, castAttempts, strikes, swaps
+      ));
+      for (Map.Entry<TickProfiler.Subsystem, Long> entry : subsystemP99Nanos.entrySet()) {
+        out.append(String.format(
+          "  %-9s p99 %.3f ms/tick%n", entry.getKey().name(), entry.getValue() / 1e6
+        ));
+      }
+      return out.toString();
+    }
+  }
+
+  private static final double SPREAD_BLOCKS = 200.0;
+  private static final double MOB_RADIUS = 12.0;
+  private static final double GROUND_Y = 64.0;
+
+  private final Settings settings;
+
+  public LoadSimulation(Settings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Run the simulation on a fresh mock server.
+   *
+   * @return The report
+   */
+  public Report run() {
+    ServerMock server = MockBukkit.mock();
+    try {
+      DragonEggLightningPlugin plugin = MockBukkit.load(DragonEggLightningPlugin.class);
+      WorldMock world = server.addSimpleWorld("load");
+      Random random = new Random(settings.seed());
+      PlayerMock[] players = spawnPlayers(server, world, random);
+      spawnMobs(world, players, random);
+      return drive(server, plugin, players);
+    } finally {
+      MockBukkit.unmock();
+    }
+  }
+
+  private PlayerMock[] spawnPlayers(ServerMock server, WorldMock world, Random random) {
+    PlayerMock[] players = new PlayerMock[settings.players()];
+    for (int i = 0; i < players.length; i++) {
+      PlayerMock player = server.addPlayer();
+      Location location = new Location(
+        world,
+        (random.nextDouble() - 0.5) * SPREAD_BLOCKS,
+        GROUND_Y,
+        (random.nextDouble() - 0.5) * SPREAD_BLOCKS,
+        random.nextFloat() * 360.0f,
+        0.0f
+      );
+      player.teleport(location);
+      player.getInventory().setItemInOffHand(new ItemStack(Material.DRAGON_EGG));
+      players[i] = player;
+    }
+    return players;
+  }
+
+  /**
+   * Scatter mobs around random players so most casts find a target.
+   */
+  private void spawnMobs(WorldMock world, PlayerMock[] players, Random random) {
+    for (int i = 0; i < settings.mobs(); i++) {
+      Location near = players[random.nextInt(players.length)].getLocation();
+      Location location = new Location(
+        world,
+        near.getX() + (random.nextDouble() * 2 - 1) * MOB_RADIUS,
+        GROUND_Y,
+        near.getZ() + (random.nextDouble() * 2 - 1) * MOB_RADIUS
+      );
+      world.spawnEntity(location, EntityType.ZOMBIE);
+    }
+  }
+
+  private Report drive(ServerMock server, DragonEggLightningPlugin plugin, PlayerMock[] players) {
+    TickProfiler profiler = plugin.getMetrics().getTickProfiler();
+    Counter castsStarted = counter(plugin, "dragonegg_casts_total");
+    Counter strikes = counter(plugin, "dragonegg_strikes_total");
+    long startedBefore = castsStarted.get();
+    long strikesBefore = strikes.get();
+
+    ItemStack egg = new ItemStack(Material.DRAGON_EGG);
+    ItemStack empty = new ItemStack(Material.AIR);
+    long castAttempts = 0;
+    long swaps = 0;
+    long totalPluginNanos = 0;
+    long worstPluginNanos = 0;
+    int worstTick = 0;
+    long totalWallNanos = 0;
+    long worstWallNanos = 0;
+
+    for (int tick = 0; tick < settings.ticks(); tick++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < players.length; i++) {
+        PlayerMock player = players[i];
+        // Stagger per player so work is spread across ticks like real play
+        if ((tick + i) % settings.swapIntervalTicks() == 0) {
+          boolean holding = player.getInventory().getItemInOffHand().getType() == Material.DRAGON_EGG;
+          player.getInventory().setItemInOffHand(holding ? empty : egg);
+          swaps++;
+        }
+        if ((tick + i * 7) % settings.castIntervalTicks() == 0) {
+          ItemStack offhand = player.getInventory().getItemInOffHand();
+          if (offhand.getType() == Material.DRAGON_EGG) {
+            castAttempts++;
+            server.getPluginManager().callEvent(new PlayerInteractEvent(
+              player, Action.RIGHT_CLICK_AIR, offhand, null, BlockFace.SELF, EquipmentSlot.OFF_HAND
+            ));
+          }
+        }
+      }
+      server.getScheduler().performOneTick();
+      long end = System.nanoTime();
+      profiler.endTick(end);
+
+      long plugin = profiler.getLastTickNanos();
+      totalPluginNanos += plugin;
+      if (plugin > worstPluginNanos) {
+        worstPluginNanos = plugin;
+        worstTick = tick;
+      }
+      long wall = end - start;
+      totalWallNanos += wall;
+      worstWallNanos = Math.max(worstWallNanos, wall);
+    }
+
+    Map<TickProfiler.Subsystem, Long> p99 = new EnumMap<>(TickProfiler.Subsystem.class);
+    for (TickProfiler.Subsystem subsystem : TickProfiler.Subsystem.values()) {
+      Histogram histogram = profiler.getHistogram(subsystem);
+      p99.put(subsystem, histogram.quantile(0.99));
+    }
+    return new Report(
+      settings.ticks(),
+      castAttempts,
+      castsStarted.get() - startedBefore,
+      strikes.get() - strikesBefore,
+      swaps,
+      settings.ticks() == 0 ? 0L : totalPluginNanos / settings.ticks(),
+      worstPluginNanos,
+      worstTick,
+      settings.ticks() == 0 ? 0L : totalWallNanos / settings.ticks(),
+      worstWallNanos,
+      p99
+    );
+  }
+
+  private static Counter counter(DragonEggLightningPlugin plugin, String name) {
+    Metric metric = plugin.getMetrics().get(name);
+    if (!(metric instanceof Counter counter)) {
+      throw new IllegalStateException("Missing counter " + name);
+    }
+    return counter;
+  }
+}
@@ -0,0 +1,76 @@
+package com.dragonegg.lightning.perf;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures heap bytes allocated by the current thread.
+ *
+ * Uses the per-thread allocated-bytes counter of the HotSpot
+ * {@code ThreadMXBean}, so only the calling thread's allocations are seen
+ * and no agent is needed. The action is warmed up first so the JIT has a
+ * chance to remove allocations it can prove do not escape, as it would on
+ * a long-running server.
+ */
+public final class AllocationMeter {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  // Results are folded in here so the JIT cannot drop the measured work
+  private static volatile long sink;
+
+  private AllocationMeter() {
+  }
+
+  /**
+   * @return Whether this JVM reports per-thread allocation
+   */
+  public static boolean isSupported() {
+    return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+  }
+
+  /**
+   * @return Bytes allocated by the current thread since it started
+   */
+  public static long allocatedBytes() {
+    return THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * Average bytes allocated per call of an action.
+   *
+   * @param warmup Calls made before measuring
+   * @param iterations Calls measured
+   * @param action The action; its result is consumed so it is not optimized away
+   * @return Mean bytes allocated per measured call
+   */
+  public static double bytesPerCall(int warmup, int iterations, LongSupplier action) {
+    long result = 0;
+    for (int i = 0; i < warmup; i++) {
+      result ^= action.getAsLong();
+    }
+    long before = allocatedBytes();
+    for (int i = 0; i < iterations; i++) {
+      result ^= action.getAsLong();
+    }
+    long after = allocatedBytes();
+    sink = result;
+    return (after - before) / (double) iterations;
+  }
+
+  /**
+   * Average bytes allocated per call of an action that returns nothing.
+   *
+   * @param warmup Calls made before measuring
+   * @param iterations Calls measured
+   * @param action The action
+   * @return Mean bytes allocated per measured call
+   */
+  public static double bytesPerRun(int warmup, int iterations, Runnable action) {
+    return bytesPerCall(warmup, iterations, () -> {
+      action.run();
+      return 0L;
+    });
+  }
+}
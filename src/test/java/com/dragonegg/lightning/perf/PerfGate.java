@@ -0,0 +1,295 @@
+package com.dragonegg.lightning.perf;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares JMH JSON results against a committed baseline.
+ *
+ * Each benchmark and parameter combination is matched by name. For
+ * average-time and sample-time modes a higher score is a regression; for
+ * throughput a lower one is. The gate fails when any benchmark regresses by
+ * more than the threshold. Benchmarks missing from the baseline are listed
+ * as new and never fail the gate. A missing baseline file fails the gate,
+ * so a deleted or mistyped baseline cannot pass silently, unless
+ * {@code allowMissing} is set. Scores are converted when the baseline used
+ * another time unit; a baseline in an incompatible unit fails the benchmark.
+ *
+ * Usage: {@code PerfGate <baseline.json> <results.json> <threshold> [update] [allowMissing]}.
+ * With {@code update} set to true the results replace the baseline instead.
+ */
+public final class PerfGate {
+
+  /**
+   * One benchmark score.
+   *
+   * @param key Benchmark name plus sorted parameters
+   * @param mode JMH mode, e.g. "avgt" or "thrpt"
+   * @param score Primary score
+   * @param unit Score unit, e.g. "ns/op"
+   */
+  public record Score(String key, String mode, double score, String unit) {
+
+    boolean higherIsBetter() {
+      return "thrpt".equals(mode);
+    }
+  }
+
+  /**
+   * A benchmark compared against its baseline.
+   *
+   * @param current Current score
+   * @param baseline Baseline score, or null for a new benchmark
+   * @param change Relative regression; positive is worse, 0.1 means 10% worse.
+   *   NaN when the baseline unit cannot be converted to the current one
+   * @param failed Whether the regression is past the threshold, or the units differ
+   */
+  public record Comparison(Score current, Score baseline, double change, boolean failed) {
+  }
+
+  private PerfGate() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    int status = run(args);
+    if (status != 0) {
+      System.exit(status);
+    }
+  }
+
+  /**
+   * Run the gate.
+   *
+   * @param args Command line arguments, see the class documentation
+   * @return Exit status: 0 on success, 1 on a regression or a missing
+   *   baseline, 2 on bad usage
+   * @throws IOException If a file cannot be read or written
+   */
+  public static int run(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: PerfGate <baseline.json> <results.json> <threshold> [update] [allowMissing]");
+      return 2;
+    }
+    Path baselineFile = Path.of(args[0]);
+    Path resultsFile = Path.of(args[1]);
+    double threshold = Double.parseDouble(args[2]);
+    boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+    boolean allowMissing = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+    if (update) {
+      Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+      Files.copy(resultsFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+      System.out.println("Performance baseline updated: " + baselineFile);
+      return 0;
+    }
+
+    Map<String, Score> baseline = Map.of();
+    if (Files.exists(baselineFile)) {
+      baseline = read(baselineFile);
+    } else if (allowMissing) {
+      System.out.println("No performance baseline at " + baselineFile
+        + "; reporting every benchmark as new");
+    } else {
+      System.err.println("No performance baseline at " + baselineFile
+        + "; record one on the reference machine with -Dperf.gate.update=true,"
+        + " or pass -Dperf.gate.allowMissing=true to run without one");
+      return 1;
+    }
+    List<Comparison> comparisons = compare(baseline, read(resultsFile), threshold);
+    System.out.print(format(comparisons, threshold));
+    return comparisons.stream().anyMatch(Comparison::failed) ? 1 : 0;
+  }
+
+  /**
+   * Read scores from a JMH JSON result file.
+   *
+   * @param file The file
+   * @return Scores keyed by benchmark and parameters, in file order
+   * @throws IOException If the file cannot be read
+   */
+  public static Map<String, Score> read(Path file) throws IOException {
+    try (Reader reader = Files.newBufferedReader(file)) {
+      return parse(reader);
+    }
+  }
+
+  /**
+   * Parse JMH JSON. JSON is valid YAML, so SnakeYAML reads it directly.
+   *
+   * @param reader JSON source
+   * @return Scores keyed by benchmark and parameters, in source order
+   */
+  @SuppressWarnings("unchecked")
+  public static Map<String, Score> parse(Reader reader) {
+    Object root = new Yaml(new LoaderOptions()).load(reader);
+    Map<String, Score> scores = new LinkedHashMap<>();
+    if (!(root instanceof List<?> entries)) {
+      return scores;
+    }
+    for (Object entry : entries) {
+      Map<String, Object> result = (Map<String, Object>) entry;
+      Map<String, Object> metric = (Map<String, Object>) result.get("primaryMetric");
+      String key = key(
+        (String) result.get("benchmark"),
+        (Map<String, Object>) result.get("params")
+      );
+      scores.put(key, new Score(
+        key,
+        (String) result.get("mode"),
+        ((Number) metric.get("score")).doubleValue(),
+        (String) metric.get("scoreUnit")
+      ));
+    }
+    return scores;
+  }
+
+  private static String key(String benchmark, Map<String, Object> params) {
+    // Drop the package so the report stays readable
+    String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+    if (params == null || params.isEmpty()) {
+      return name;
+    }
+    StringBuilder key = new StringBuilder(name);
+    for (Map.Entry<String, Object> param : new TreeMap<>(params).entrySet()) {
+      key.append(' ').append(param.getKey()).append('=').append(param.getValue());
+    }
+    return key.toString();
+  }
+
+  /**
+   * Compare current scores against the baseline.
+   *
+   * @param baseline Baseline scores
+   * @param current Current scores
+   * @param threshold Allowed regression, e.g. 0.2 for 20%
+   * @return One comparison per current score, in current order
+   */
+  public static List<Comparison> compare(
+    Map<String, Score> baseline,
+    Map<String, Score> current,
+    double threshold
+  ) {
+    List<Comparison> comparisons = new ArrayList<>();
+    for (Score score : current.values()) {
+      Score base = baseline.get(score.key());
+      if (base == null || base.score() <= 0.0) {
+        comparisons.add(new Comparison(score, base, 0.0, false));
+        continue;
+      }
+      double baseScore = convert(base.score(), base.unit(), score.unit());
+      if (Double.isNaN(baseScore)) {
+        comparisons.add(new Comparison(score, base, Double.NaN, true));
+        continue;
+      }
+      double change = score.higherIsBetter()
+        ? (baseScore - score.score()) / baseScore
+        : (score.score() - baseScore) / baseScore;
+      comparisons.add(new Comparison(score, base, change, change > threshold));
+    }
+    return comparisons;
+  }
+
+  /**
+   * Convert a score between JMH units of the same kind, e.g. us/op to ns/op
+   * or ops/ms to ops/s.
+   *
+   * @param score The score
+   * @param from Its unit
+   * @param to The wanted unit
+   * @return The converted score, or NaN if the units measure different things
+   */
+  public static double convert(double score, String from, String to) {
+    if (from == null || to == null) {
+      return Double.NaN;
+    }
+    if (from.equals(to)) {
+      return score;
+    }
+    String[] source = from.split("/");
+    String[] target = to.split("/");
+    if (source.length != 2 || target.length != 2) {
+      return Double.NaN;
+    }
+    if ("op".equals(source[1]) && "op".equals(target[1])) {
+      return score * seconds(source[0]) / seconds(target[0]);
+    }
+    if ("ops".equals(source[0]) && "ops".equals(target[0])) {
+      return score * seconds(target[1]) / seconds(source[1]);
+    }
+    return Double.NaN;
+  }
+
+  private static double seconds(String timeUnit) {
+    return switch (timeUnit) {
+      case "ns" -> 1e-9;
+      case "us" -> 1e-6;
+      case "ms" -> 1e-3;
+      case "s" -> 1.0;
+      case "min" -> 60.0;
+      case "hr" -> 3600.0;
+      default -> Double.NaN;
+    };
+  }
+
+  /**
+   * Render comparisons as a table.
+   *
+   * @param comparisons The comparisons
+   * @param threshold The threshold used
+   * @return The report text
+   */
+  public static String format(List<Comparison> comparisons, double threshold) {
+    StringBuilder out = new StringBuilder();
+    out.append(String.format(Locale.ROOT,
+      "Performance gate: fail above %+.0f%% (positive change is slower)%n", threshold * 100));
+    out.append(String.format(Locale.ROOT,
+      "%-52s %16s %16s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Result"));
+    int failures = 0;
+    for (Comparison comparison : comparisons) {
+      Score current = comparison.current();
+      Score base = comparison.baseline();
+      String result;
+      if (base == null) {
+        result = "NEW";
+      } else if (Double.isNaN(comparison.change())) {
+        result = "FAIL (unit " + base.unit() + " vs " + current.unit() + ")";
+        failures++;
+      } else if (comparison.failed()) {
+        result = "FAIL";
+        failures++;
+      } else {
+        result = "ok";
+      }
+      out.append(String.format(Locale.ROOT,
+        "%-52s %16s %16s %9s  %s%n",
+        current.key(),
+        base == null ? "-" : formatScore(base),
+        formatScore(current),
+        base == null || Double.isNaN(comparison.change())
+          ? "-"
+          : String.format(Locale.ROOT, "%+.1f%%", comparison.change() * 100),
+        result
+      ));
+    }
+    out.append(failures == 0
+      ? "No regressions past the threshold." + System.lineSeparator()
+      : failures + " benchmark(s) regressed past the threshold." + System.lineSeparator());
+    return out.toString();
+  }
+
+  private static String formatScore(Score score) {
+    return String.format(Locale.ROOT, "%.2f %s", score.score(), score.unit());
+  }
+}
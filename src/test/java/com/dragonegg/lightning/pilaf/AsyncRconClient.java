@@ -0,0 +1,318 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipelined RCON client over an NIO socket channel
+ *
+ * Commands are written back to back without waiting for replies, each with its
+ * own request id, and every call returns a future for its output. A reader
+ * thread matches replies to requests by id.
+ *
+ * The server may split long output over several packets with the same id and
+ * gives no length up front. To find the end, each command is followed by a
+ * marker packet of type 0 with the next id. The server answers packets in
+ * order, so once the reply to the marker arrives every fragment of the
+ * command's output has been received. Commands use odd ids and markers the
+ * even id right after.
+ */
+public class AsyncRconClient implements AutoCloseable {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final Duration timeout;
+
+    private final AtomicInteger ids = new AtomicInteger(1);
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private volatile SocketChannel channel;
+    private volatile CompletableFuture<Boolean> authResult;
+    private volatile boolean authenticated;
+    private Thread reader;
+
+    /**
+     * The server rejected the RCON password
+     */
+    public static class AuthenticationException extends IOException {
+        public AuthenticationException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Output collected so far for one command
+     */
+    private static final class Pending {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    }
+
+    public AsyncRconClient(String host, int port, String password) {
+        this(host, port, password, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout How long to wait for the connection, the login and each command
+     */
+    public AsyncRconClient(String host, int port, String password, Duration timeout) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Connect and log in, blocking until the server answers
+     *
+     * @throws IOException If the connection fails, the password is rejected or the server times out
+     */
+    public void connect() throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("Already connected to " + host + ":" + port);
+        }
+        SocketChannel opened = SocketChannel.open();
+        try {
+            opened.socket().connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+            opened.socket().setTcpNoDelay(true);
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        channel = opened;
+        authResult = new CompletableFuture<>();
+
+        reader = new Thread(this::readLoop, "rcon-reader-" + host + ":" + port);
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            write(List.of(new RconFrame(nextId(), RconFrame.TYPE_AUTH, password)));
+            if (!authResult.get(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AuthenticationException("RCON password rejected by " + host + ":" + port);
+            }
+            authenticated = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IOException("Interrupted while logging in to RCON", e);
+        } catch (ExecutionException | TimeoutException e) {
+            close();
+            throw new IOException("RCON login to " + host + ":" + port + " failed: " + e, e);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a command without waiting for the reply
+     *
+     * @return The command output; fails with an IOException if the connection drops
+     *     and with a TimeoutException if the server does not answer in time
+     */
+    public CompletableFuture<String> execute(String command) {
+        return executeAll(List.of(command)).get(0);
+    }
+
+    /**
+     * Send several commands in a single write
+     *
+     * Every command is checked before any is registered, so a batch with one
+     * oversized command sends nothing and leaves nothing pending.
+     *
+     * @return One future per command, in the same order
+     */
+    public List<CompletableFuture<String>> executeAll(List<String> commands) {
+        if (!authenticated) {
+            throw new IllegalStateException("RCON client not authenticated");
+        }
+        List<byte[]> bodies = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            byte[] body = command.getBytes(StandardCharsets.UTF_8);
+            if (body.length > RconFrame.MAX_REQUEST_BODY) {
+                throw new IllegalArgumentException("RCON command longer than "
+                    + RconFrame.MAX_REQUEST_BODY + " bytes: " + command.substring(0, 32) + "...");
+            }
+            bodies.add(body);
+        }
+
+        List<RconFrame> frames = new ArrayList<>(commands.size() * 2);
+        List<CompletableFuture<String>> futures = new ArrayList<>(commands.size());
+        List<Integer> sent = new ArrayList<>(commands.size());
+        for (byte[] body : bodies) {
+            RconFrame frame = new RconFrame(nextId(), RconFrame.TYPE_EXEC_COMMAND, body);
+            int id = frame.requestId();
+            Pending entry = new Pending();
+            pending.put(id, entry);
+            sent.add(id);
+            futures.add(entry.future
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((output, error) -> pending.remove(id)));
+            frames.add(frame);
+            frames.add(new RconFrame(id + 1, RconFrame.TYPE_RESPONSE_VALUE, new byte[0]));
+        }
+
+        try {
+            write(frames);
+        } catch (IOException e) {
+            for (int id : sent) {
+                Pending entry = pending.remove(id);
+                if (entry != null) {
+                    entry.future.completeExceptionally(e);
+                }
+            }
+        }
+        return futures;
+    }
+
+    public boolean isConnected() {
+        SocketChannel current = channel;
+        return authenticated && current != null && current.isOpen();
+    }
+
+    /**
+     * Commands sent whose output has not fully arrived yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Close the connection and fail every command still waiting for output
+     */
+    @Override
+    public void close() {
+        authenticated = false;
+        SocketChannel current = channel;
+        channel = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.out.println("❌ Error closing RCON channel: " + e.getMessage());
+            }
+        }
+        failAll(new IOException("RCON connection to " + host + ":" + port + " closed"));
+    }
+
+    private int nextId() {
+        // Two ids per command, the command's own (odd) and its marker (even)
+        return ids.getAndUpdate(id -> id >= Integer.MAX_VALUE - 2 ? 1 : id + 2);
+    }
+
+    private void write(List<RconFrame> frames) throws IOException {
+        int size = 0;
+        for (RconFrame frame : frames) {
+            size += frame.encodedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (RconFrame frame : frames) {
+            frame.encode(buffer);
+        }
+        buffer.flip();
+
+        SocketChannel current = channel;
+        if (current == null) {
+            throw new IOException("RCON client not connected");
+        }
+        synchronized (writeLock) {
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+        }
+    }
+
+    private void readLoop() {
+        SocketChannel current = channel;
+        ByteBuffer buffer = ByteBuffer.allocate(2 * (RconFrame.MAX_RESPONSE_BODY + 14));
+        IOException failure = null;
+        try {
+            while (current.read(buffer) >= 0) {
+                buffer.flip();
+                RconFrame frame;
+                while ((frame = RconFrame.decode(buffer)) != null) {
+                    dispatch(frame);
+                }
+                buffer = compactOrGrow(buffer);
+            }
+            failure = new IOException("RCON server closed the connection");
+        } catch (IOException e) {
+            failure = e;
+        } catch (IllegalStateException e) {
+            failure = new IOException(e.getMessage(), e);
+        } finally {
+            // After close() and a new connect() this reader is stale: close()
+            // already failed its commands, and the pending map and login now
+            // belong to the new connection
+            if (channel == current) {
+                channel = null;
+                authenticated = false;
+                try {
+                    current.close();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+                failAll(failure != null ? failure : new IOException("RCON reader stopped"));
+            }
+        }
+    }
+
+    private static ByteBuffer compactOrGrow(ByteBuffer buffer) {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            // A frame larger than the buffer is still arriving
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer);
+            return larger;
+        }
+        return buffer.compact();
+    }
+
+    private void dispatch(RconFrame frame) {
+        CompletableFuture<Boolean> auth = authResult;
+        if (!authenticated && frame.type() == RconFrame.TYPE_AUTH_RESPONSE) {
+            auth.complete(frame.requestId() != -1);
+            return;
+        }
+        int id = frame.requestId();
+        if ((id & 1) == 1) {
+            Pending entry = pending.get(id);
+            if (entry != null) {
+                entry.body.write(frame.body(), 0, frame.body().length);
+            }
+        } else {
+            // Marker reply: the command before it is complete
+            Pending entry = pending.get(id - 1);
+            if (entry != null) {
+                entry.future.complete(entry.body.toString(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void failAll(IOException cause) {
+        CompletableFuture<Boolean> auth = authResult;
+        if (auth != null) {
+            auth.completeExceptionally(cause);
+        }
+        for (Integer id : List.copyOf(pending.keySet())) {
+            Pending entry = pending.remove(id);
+            if (entry != null) {
+                entry.future.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process RCON server that behaves like a vanilla server
+ *
+ * Logs clients in with a password, answers commands from a script, splits
+ * long output into 4096-byte packets and answers any other packet type with
+ * "Unknown request". Lets RCON clients and the real-server backends be tested
+ * and benchmarked without a Minecraft server or network access.
+ *
+ * Scripted responses are checked in the order they were added, then the
+ * fallback responder is used. Network conditions can be shaped:
+ * - Latency delays every reply without holding up the commands behind it,
+ *   like a slow link; command time holds up the connection, like a busy server
+ * - Fragment size lowers the 4096-byte packet split to force multi-packet output
+ * - Write chunk size splits the bytes on the wire so packets arrive in pieces
+ *
+ * Faults can be injected to test how clients recover: dropping every open
+ * connection, or accepting and immediately closing the next few connections.
+ *
+ * Listens on a loopback port chosen by the system.
+ */
+public class FakeRconServer implements AutoCloseable {
+
+    private record Rule(Pattern pattern, Function<MatchResult, String> output) {
+    }
+
+    private final String password;
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicInteger refuseNext = new AtomicInteger();
+
+    private volatile Function<String, String> responder = command -> "";
+    private volatile long latencyNanos;
+    private volatile long commandTimeNanos;
+    private volatile int fragmentSize = RconFrame.MAX_RESPONSE_BODY;
+    private volatile int writeChunkSize;
+    private ServerSocket serverSocket;
+
+    public FakeRconServer(String password) {
+        this.password = password;
+    }
+
+    /**
+     * Start accepting connections
+     *
+     * @return The port the server listens on
+     */
+    public int start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-rcon-accept-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Answer one exact command with fixed output
+     */
+    public FakeRconServer respond(String command, String output) {
+        return respond(Pattern.compile(Pattern.quote(command)), match -> output);
+    }
+
+    /**
+     * Answer commands matching a pattern, e.g. {@code summon (\w+) .*} with the
+     * output built from the match groups
+     */
+    public FakeRconServer respond(Pattern pattern, Function<MatchResult, String> output) {
+        rules.add(new Rule(pattern, output));
+        return this;
+    }
+
+    /**
+     * Answer commands no scripted response matches; the default returns empty output
+     */
+    public void setResponder(Function<String, String> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Delay every reply by this much, without holding up later commands
+     */
+    public void setLatency(Duration latency) {
+        this.latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * Spend this long on every command before reading the next one
+     */
+    public void setCommandTime(Duration commandTime) {
+        this.commandTimeNanos = commandTime.toNanos();
+    }
+
+    /**
+     * Split command output into packets of at most this many characters
+     */
+    public void setFragmentSize(int fragmentSize) {
+        if (fragmentSize < 1) {
+            throw new IllegalArgumentException("fragmentSize must be positive, got " + fragmentSize);
+        }
+        this.fragmentSize = fragmentSize;
+    }
+
+    /**
+     * Write replies in pieces of at most this many bytes; 0 writes each packet whole
+     */
+    public void setWriteChunkSize(int writeChunkSize) {
+        this.writeChunkSize = Math.max(0, writeChunkSize);
+    }
+
+    /**
+     * Fault: close every open client connection, as if the server restarted
+     */
+    public void dropConnections() {
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        connections.clear();
+    }
+
+    /**
+     * Fault: accept and immediately close the next connections
+     */
+    public void refuseConnections(int count) {
+        refuseNext.set(count);
+    }
+
+    /**
+     * Connections accepted so far, refused ones included
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    public int getOpenConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Commands executed so far, across all connections
+     */
+    public int getCommandCount() {
+        return commands.size();
+    }
+
+    /**
+     * Every command executed so far, in the order received
+     */
+    public List<String> getCommands() {
+        return new ArrayList<>(commands);
+    }
+
+    @Override
+    public void close() {
+        if (serverSocket != null) {
+            closeQuietly(serverSocket);
+        }
+        dropConnections();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            connectionCount.incrementAndGet();
+            if (refuseNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                closeQuietly(socket);
+                continue;
+            }
+            connections.add(socket);
+            Thread handler = new Thread(() -> handle(socket), "fake-rcon-" + socket.getPort());
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    private void handle(Socket socket) {
+        // Replies go out on their own thread so latency does not hold up reading
+        ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "fake-rcon-writer-" + socket.getPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            boolean authenticated = false;
+            RconFrame request;
+            while ((request = readFrame(in)) != null) {
+                List<RconFrame> replies = new ArrayList<>();
+                if (request.type() == RconFrame.TYPE_AUTH) {
+                    authenticated = password.equals(request.bodyText());
+                    replies.add(new RconFrame(authenticated ? request.requestId() : -1,
+                        RconFrame.TYPE_AUTH_RESPONSE, ""));
+                } else if (authenticated && request.type() == RconFrame.TYPE_EXEC_COMMAND) {
+                    String command = request.bodyText();
+                    commands.add(command);
+                    sleepNanos(commandTimeNanos);
+                    fragment(request.requestId(), answer(command), replies);
+                } else {
+                    replies.add(new RconFrame(request.requestId(), RconFrame.TYPE_RESPONSE_VALUE,
+                        "Unknown request " + Integer.toHexString(request.type())));
+                }
+                writer.schedule(() -> send(socket, out, replies), latencyNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (SocketException e) {
+            // Dropped by a fault or by the client
+        } catch (IOException e) {
+            System.out.println("❌ Fake RCON connection failed: " + e.getMessage());
+        } finally {
+            connections.remove(socket);
+            writer.shutdownNow();
+        }
+    }
+
+    private String answer(String command) {
+        for (Rule rule : rules) {
+            Matcher matcher = rule.pattern().matcher(command);
+            if (matcher.matches()) {
+                return rule.output().apply(matcher.toMatchResult());
+            }
+        }
+        return responder.apply(command);
+    }
+
+    private void fragment(int requestId, String output, List<RconFrame> replies) {
+        int size = fragmentSize;
+        int offset = 0;
+        do {
+            int end = Math.min(output.length(), offset + size);
+            replies.add(new RconFrame(requestId, RconFrame.TYPE_RESPONSE_VALUE, output.substring(offset, end)));
+            offset = end;
+        } while (offset < output.length());
+    }
+
+    private void send(Socket socket, OutputStream out, List<RconFrame> replies) {
+        try {
+            int chunk = writeChunkSize;
+            for (RconFrame reply : replies) {
+                byte[] bytes = reply.encode().array();
+                if (chunk == 0) {
+                    out.write(bytes);
+                } else {
+                    for (int offset = 0; offset < bytes.length; offset += chunk) {
+                        out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            closeQuietly(socket);
+        }
+    }
+
+    private static RconFrame readFrame(InputStream in) throws IOException {
+        byte[] header = in.readNBytes(4);
+        if (header.length < 4) {
+            return null;
+        }
+        int length = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (length < RconFrame.MIN_LENGTH || length > RconFrame.MAX_LENGTH) {
+            throw new IOException("Bad RCON packet length " + length);
+        }
+        byte[] rest = in.readNBytes(length);
+        if (rest.length < length) {
+            return null;
+        }
+        return RconFrame.decode(ByteBuffer.allocate(4 + length).put(header).put(rest).flip());
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Closing anyway
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.dragonegg.lightning.pilaf;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 /**
  * MockBukkit backend for DITF framework
  *
- * Fast, in-memory testing using MockBukkit mock objects
+ * Fast, in-memory testing using MockBukkit mock objects. State changes wake
+ * anything waiting in awaitCondition, so waits end as soon as they can.
  */
 public class MockBukkitBackend implements PilafBackend {
 
     private final Map<String, PilafTestEntity> entities;
     private final Map<String, PilafTestPlayer> players;
+    private final PilafConditionWaiter changes;
     private boolean initialized;
+    private long ticks;
 
     public MockBukkitBackend() {
-        this.entities = new HashMap<>();
-        this.players = new HashMap<>();
+        this.entities = new ConcurrentHashMap<>();
+        this.players = new ConcurrentHashMap<>();
+        this.changes = new PilafConditionWaiter();
         this.initialized = false;
     }
 
@@ -24,6 +31,14 @@ public class MockBukkitBackend implements PilafBackend {
         return "MockBukkit";
     }
 
+    /**
+     * Each instance keeps its own in-memory state
+     */
+    @Override
+    public boolean supportsParallelWorkers() {
+        return true;
+    }
+
     @Override
     public void initialize() throws Exception {
         if (!initialized) {
@@ -40,6 +55,7 @@ public class MockBukkitBackend implements PilafBackend {
             System.out.println("🧹 Cleaning up MockBukkit backend...");
             entities.clear();
             players.clear();
+            changes.signal();
             initialized = false;
             System.out.println("✅ MockBukkit backend cleaned up");
         }
@@ -75,6 +91,28 @@ public class MockBukkitBackend implements PilafBackend {
         // Implement chat sending here
     }
 
+    @Override
+    public void addPlayer(String playerName, List<Double> location) {
+        System.out.println("👤 MockBukkit: Adding player " + playerName + " at " + location);
+        players.put(playerName, new PilafTestPlayer(playerName, location));
+        changes.signal();
+    }
+
+    @Override
+    public void advanceTicks(int ticks) {
+        // Nothing here is scheduled, so time passes instantly
+        this.ticks += ticks;
+        System.out.println("⏩ MockBukkit: Advanced " + ticks + " ticks to tick " + this.ticks);
+        changes.signal();
+    }
+
+    /**
+     * Ticks advanced so far
+     */
+    public long getCurrentTick() {
+        return ticks;
+    }
+
     @Override
     public void spawnEntity(String name, String entityType, List<Double> location, Map<String, String> equipment) {
         System.out.println("🌟 MockBukkit: Spawning entity " + name + " (" + entityType + ") at " + location);
@@ -83,6 +121,7 @@ public class MockBukkitBackend implements PilafBackend {
             entity.setEquipment(equipment);
         }
         entities.put(name, entity);
+        changes.signal();
     }
 
     @Override
@@ -97,6 +136,7 @@ public class MockBukkitBackend implements PilafBackend {
         PilafTestEntity entity = entities.get(entityName);
         if (entity != null) {
             entity.setHealth(health);
+            changes.signal();
         }
     }
 
@@ -139,11 +179,18 @@ public class MockBukkitBackend implements PilafBackend {
     public void removeAllTestEntities() {
         System.out.println("🧹 MockBukkit: Removing all test entities");
         entities.clear();
+        changes.signal();
     }
 
     @Override
     public void removeAllTestPlayers() {
         System.out.println("🧹 MockBukkit: Removing all test players");
         players.clear();
+        changes.signal();
+    }
+
+    @Override
+    public boolean awaitCondition(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        return changes.await(condition, timeout);
     }
 }
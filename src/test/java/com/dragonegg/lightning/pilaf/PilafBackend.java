@@ -1,13 +1,16 @@
 package com.dragonegg.lightning.pilaf;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 /**
  * Backend interface for Paper Integration Lightning Automation Framework (PILAF)
  *
  * Defines the contract for different testing backends:
  * - MockBukkitBackend: Fast, in-memory testing using MockBukkit
+ * - TickSteppingMockBukkitBackend: The real plugin on MockBukkit, with time stepped in ticks
  * - RealServerBackend: Integration testing with actual Paper servers
  */
 public interface PilafBackend {
@@ -28,6 +31,17 @@ public interface PilafBackend {
      */
     void cleanup() throws Exception;
 
+    /**
+     * Whether several instances of this backend can run stories at once
+     *
+     * False for backends that share external state, such as one real server:
+     * story entity names collide there, and one worker's cleanup removes the
+     * other workers' entities. The parallel runner uses one worker for them.
+     */
+    default boolean supportsParallelWorkers() {
+        return false;
+    }
+
     // Player Actions
     /**
      * Move player to destination
@@ -55,6 +69,29 @@ public interface PilafBackend {
     void sendChat(String playerName, String message);
 
     // Server Actions
+    /**
+     * Add a test player at a location
+     * Backends that create players on first use can ignore this
+     */
+    default void addPlayer(String playerName, List<Double> location) {
+    }
+
+    /**
+     * Let server ticks pass
+     * A live server has to wait them out; in-memory backends step them at once
+     */
+    default void advanceTicks(int ticks) throws InterruptedException {
+        Thread.sleep(ticks * 50L);
+    }
+
+    /**
+     * Let a stretch of time pass, for story wait steps
+     * Backends that control time step the same span in ticks instead of sleeping
+     */
+    default void waitFor(Duration duration) throws InterruptedException {
+        Thread.sleep(duration.toMillis());
+    }
+
     /**
      * Spawn entity
      */
@@ -96,6 +133,49 @@ public interface PilafBackend {
      */
     boolean pluginReceivedCommand(String pluginName, String command, String playerName);
 
+    // Waiting
+    /**
+     * Wait until a condition on backend state holds, polling with backoff
+     *
+     * Backends that see their own state change override this to wake waiters
+     * on each change.
+     * @return true if the condition held before the timeout
+     */
+    default boolean awaitCondition(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        return PilafConditionWaiter.poll(condition, timeout);
+    }
+
+    /**
+     * Wait until an entity's health drops below a threshold
+     */
+    default boolean awaitEntityHealthBelow(String entityName, double threshold, Duration timeout)
+        throws InterruptedException {
+        return awaitCondition(() -> getEntityHealth(entityName) < threshold, timeout);
+    }
+
+    /**
+     * Wait until a plugin has received a command from a player
+     */
+    default boolean awaitPluginCommand(String pluginName, String command, String playerName, Duration timeout)
+        throws InterruptedException {
+        return awaitCondition(() -> pluginReceivedCommand(pluginName, command, playerName), timeout);
+    }
+
+    // Performance
+    /**
+     * Start a new window for readPerformance()
+     */
+    default void markPerformance() {
+    }
+
+    /**
+     * Plugin performance since the last markPerformance()
+     * @return null if this backend cannot see the plugin's metrics
+     */
+    default PilafPerformance readPerformance() {
+        return null;
+    }
+
     // Cleanup
     /**
      * Remove all test entities
@@ -5,6 +5,7 @@ package com.dragonegg.lightning.pilaf;
  *
  * Supports creating different backend implementations based on configuration:
  * - MockBukkit: Fast, in-memory testing
+ * - mockbukkit-ticks: The real plugin on MockBukkit, with time stepped in ticks
  * - real-server: Integration testing with actual servers
  */
 public class PilafBackendFactory {
@@ -21,12 +22,14 @@ public class PilafBackendFactory {
             case "mockbukkit":
             case "MockBukkit":
                 return new MockBukkitBackend();
+            case "mockbukkit-ticks":
+                return new TickSteppingMockBukkitBackend();
             case "real-server":
             case "realserver":
                 return new RealServerBackend();
             default:
                 throw new IllegalArgumentException("Unsupported backend type: " + backendType +
-                    ". Supported types: mockbukkit, real-server");
+                    ". Supported types: mockbukkit, mockbukkit-ticks, real-server");
         }
     }
 
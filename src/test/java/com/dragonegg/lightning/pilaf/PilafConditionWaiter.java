@@ -0,0 +1,86 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for a condition on backend state instead of sleeping a fixed time
+ *
+ * The condition is checked straight away, then again after pauses that start
+ * at 10 ms and double up to half a second, until it holds or the timeout runs
+ * out. A backend that changes its own state (an in-memory world, a client that
+ * receives server events) calls signal() on each change, which wakes waiters
+ * to check again immediately instead of at the end of their pause.
+ */
+public class PilafConditionWaiter {
+
+    static final Duration INITIAL_INTERVAL = Duration.ofMillis(10);
+    static final Duration MAX_INTERVAL = Duration.ofMillis(500);
+
+    private final Object lock = new Object();
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    private long changes;
+
+    public PilafConditionWaiter() {
+        this(INITIAL_INTERVAL, MAX_INTERVAL);
+    }
+
+    /**
+     * Waiter with its own backoff, e.g. a long one so only signal() wakes it
+     */
+    public PilafConditionWaiter(Duration initialInterval, Duration maxInterval) {
+        this.initialIntervalMillis = Math.max(1, initialInterval.toMillis());
+        this.maxIntervalMillis = Math.max(initialIntervalMillis, maxInterval.toMillis());
+    }
+
+    /**
+     * Poll a condition with backoff, with nothing to wake the waiter early
+     *
+     * @return true if the condition held before the timeout
+     */
+    public static boolean poll(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        return new PilafConditionWaiter().await(condition, timeout);
+    }
+
+    /**
+     * Wake every waiter to check its condition again
+     */
+    public void signal() {
+        synchronized (lock) {
+            changes++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until the condition holds
+     *
+     * @return true if the condition held before the timeout
+     */
+    public boolean await(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long interval = initialIntervalMillis;
+
+        while (true) {
+            long seen;
+            synchronized (lock) {
+                seen = changes;
+            }
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            long remaining = (deadline - System.nanoTime()) / 1_000_000;
+            if (remaining <= 0) {
+                return false;
+            }
+            synchronized (lock) {
+                // A change since the check above means checking again right away
+                if (changes == seen) {
+                    lock.wait(Math.min(interval, remaining));
+                }
+            }
+            interval = Math.min(interval * 2, maxIntervalMillis);
+        }
+    }
+}
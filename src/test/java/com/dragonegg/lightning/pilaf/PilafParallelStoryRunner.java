@@ -0,0 +1,209 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs PILAF stories across a pool of workers
+ *
+ * Each worker creates and initializes its own backend once, then pulls the
+ * next story off a shared index. Every story gets a fresh PilafTestContext and
+ * the worker's test entities and players are removed between stories, so no
+ * state leaks from one story to the next. Results come back in input order
+ * regardless of which worker ran each story or when it finished.
+ *
+ * The worker count defaults to the pilaf.workers system property, then the
+ * number of processors, and is never more than the number of stories.
+ * Backends that share external state, like a real server, do not support
+ * parallel workers and always run on one.
+ */
+public class PilafParallelStoryRunner {
+
+    /**
+     * A story to run
+     *
+     * @param source Where the story came from, for reporting
+     * @param story The story's YAML tree
+     */
+    public record Story(String source, Map<String, Object> story) {
+    }
+
+    private final int workers;
+    private final Supplier<PilafBackend> backendFactory;
+    private final StoryCompiler compiler;
+
+    public PilafParallelStoryRunner(int workers, Supplier<PilafBackend> backendFactory) {
+        this(workers, backendFactory, StoryCompiler.shared());
+    }
+
+    public PilafParallelStoryRunner(int workers, Supplier<PilafBackend> backendFactory, StoryCompiler compiler) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1, got " + workers);
+        }
+        this.workers = workers;
+        this.backendFactory = backendFactory;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Runner sized from the pilaf.workers property, using the default backend
+     */
+    public PilafParallelStoryRunner() {
+        this(defaultWorkers(), PilafBackendFactory::createDefaultBackend);
+    }
+
+    public static int defaultWorkers() {
+        return Math.max(1, Integer.getInteger("pilaf.workers", Runtime.getRuntime().availableProcessors()));
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Compile and run story files
+     *
+     * Files are compiled up front through the shared compiler, so invalid
+     * stories are reported without starting any backend and unchanged files
+     * are not parsed again.
+     */
+    public List<PilafStoryResult> runFiles(List<Path> files) throws InterruptedException {
+        List<StoryPlan> plans = new ArrayList<>();
+        List<PilafStoryResult> failures = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                plans.add(compiler.compile(file));
+                failures.add(null);
+            } catch (IOException e) {
+                plans.add(null);
+                failures.add(PilafStoryRunner.failed(file.toString(), file.getFileName().toString(),
+                    List.of("Could not read story: " + e.getMessage())));
+            } catch (StoryValidationException e) {
+                plans.add(null);
+                failures.add(PilafStoryRunner.failed(file.toString(), file.getFileName().toString(), e.getErrors()));
+            }
+        }
+        return merge(plans, failures);
+    }
+
+    /**
+     * Compile and run parsed stories, returning results in the same order as the input
+     */
+    public List<PilafStoryResult> run(List<Story> stories) throws InterruptedException {
+        List<StoryPlan> plans = new ArrayList<>();
+        List<PilafStoryResult> failures = new ArrayList<>();
+        for (Story story : stories) {
+            try {
+                plans.add(compiler.compile(story.source(), story.story()));
+                failures.add(null);
+            } catch (StoryValidationException e) {
+                plans.add(null);
+                failures.add(PilafStoryRunner.failed(story.source(), story.source(), e.getErrors()));
+            }
+        }
+        return merge(plans, failures);
+    }
+
+    /**
+     * Run the compiled plans and slot their results between the compile failures
+     */
+    private List<PilafStoryResult> merge(List<StoryPlan> plans, List<PilafStoryResult> failures)
+        throws InterruptedException {
+        List<StoryPlan> compiled = new ArrayList<>();
+        for (StoryPlan plan : plans) {
+            if (plan != null) {
+                compiled.add(plan);
+            }
+        }
+        Iterator<PilafStoryResult> ran = runPlans(compiled).iterator();
+
+        List<PilafStoryResult> results = new ArrayList<>();
+        for (PilafStoryResult failure : failures) {
+            results.add(failure != null ? failure : ran.next());
+        }
+        return results;
+    }
+
+    /**
+     * Run compiled stories and return their results in the same order as the input
+     */
+    public List<PilafStoryResult> runPlans(List<StoryPlan> plans) throws InterruptedException {
+        if (plans.isEmpty()) {
+            return List.of();
+        }
+        // The first backend is created up front to ask whether it can run in parallel
+        PilafBackend first = backendFactory.get();
+        int poolSize = Math.min(workers, plans.size());
+        if (poolSize > 1 && !first.supportsParallelWorkers()) {
+            System.out.println("🔒 " + first.getType() + " shares server state, running stories on one worker");
+            poolSize = 1;
+        }
+        PilafStoryResult[] results = new PilafStoryResult[plans.size()];
+        AtomicInteger next = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "pilaf-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                boolean useFirst = i == 0;
+                futures.add(pool.submit(() -> {
+                    runWorker(useFirst ? first : backendFactory.get(), plans, results, next);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // A worker that failed to start leaves its stories to the others
+                    System.err.println("❌ PILAF worker failed: " + e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Anything left over means every worker failed to start
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                StoryPlan plan = plans.get(i);
+                results[i] = PilafStoryRunner.failed(plan.source(), plan.name(),
+                    List.of("No worker could run this story"));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void runWorker(PilafBackend backend, List<StoryPlan> plans, PilafStoryResult[] results,
+                           AtomicInteger next) throws Exception {
+        backend.initialize();
+        try {
+            int index;
+            while ((index = next.getAndIncrement()) < plans.size()) {
+                PilafTestContext context = new PilafTestContext();
+                try {
+                    results[index] = new PilafStoryRunner(backend, context, compiler).run(plans.get(index));
+                } finally {
+                    backend.removeAllTestEntities();
+                    backend.removeAllTestPlayers();
+                    context.cleanup();
+                }
+            }
+        } finally {
+            backend.cleanup();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.dragonegg.lightning.pilaf;
+
+/**
+ * Plugin performance over part of a story, read from the plugin's own metrics
+ *
+ * Covers everything since the backend's last markPerformance(), which the
+ * runner calls as each story starts.
+ *
+ * @param ticks Server ticks that ended in the window
+ * @param worstTickNanos Most main-thread time the plugin used in one of those ticks
+ * @param casts Casts that started
+ * @param effectPackets Bolt, particle and sound packets, counted once for each player that receives them
+ * @param tracedCasts Casts that finished and left a cast trace record
+ * @param maxPacketsPerCast Most effect packets one finished cast sent, counted per recipient
+ * @param maxEntitiesScanned Most entities one finished cast examined while targeting
+ * @param maxCastLatencyTicks Most ticks a finished cast took from activation to its first strike,
+ *     including any wait for an admission slot
+ */
+public record PilafPerformance(long ticks, long worstTickNanos, long casts, long effectPackets,
+                               long tracedCasts, long maxPacketsPerCast, long maxEntitiesScanned,
+                               long maxCastLatencyTicks) {
+
+    /**
+     * Limits a story can assert, by their name in the story file
+     */
+    public enum Limit {
+        MAX_PLUGIN_TICK_MS("max_plugin_tick_ms", "plugin time in one tick", "ms"),
+        MAX_PACKETS_PER_CAST("max_packets_per_cast", "effect packets sent by one cast", "packets"),
+        MAX_ENTITIES_SCANNED("max_entities_scanned", "entities scanned by one cast", "entities"),
+        MAX_CAST_LATENCY_TICKS("max_cast_latency_ticks", "ticks from activation to first strike", "ticks");
+
+        private final String key;
+        private final String description;
+        private final String unit;
+
+        Limit(String key, String description, String unit) {
+            this.key = key;
+            this.description = description;
+            this.unit = unit;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String description() {
+            return description;
+        }
+
+        public String unit() {
+            return unit;
+        }
+
+        /**
+         * The limit with this story name, or null
+         */
+        public static Limit fromKey(String key) {
+            for (Limit limit : values()) {
+                if (limit.key.equals(key)) {
+                    return limit;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The measured value for a limit; per-cast values are the worst finished cast
+     */
+    public double value(Limit limit) {
+        return switch (limit) {
+            case MAX_PLUGIN_TICK_MS -> worstTickNanos / 1_000_000.0;
+            case MAX_PACKETS_PER_CAST -> maxPacketsPerCast;
+            case MAX_ENTITIES_SCANNED -> maxEntitiesScanned;
+            case MAX_CAST_LATENCY_TICKS -> maxCastLatencyTicks;
+        };
+    }
+
+    /**
+     * Whether there is anything to measure a limit against
+     */
+    public boolean measured(Limit limit) {
+        return switch (limit) {
+            case MAX_PLUGIN_TICK_MS -> ticks > 0;
+            case MAX_PACKETS_PER_CAST, MAX_ENTITIES_SCANNED, MAX_CAST_LATENCY_TICKS -> tracedCasts > 0;
+        };
+    }
+}
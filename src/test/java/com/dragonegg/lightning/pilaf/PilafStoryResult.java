@@ -0,0 +1,74 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of running one PILAF YAML story
+ */
+public class PilafStoryResult {
+
+    private final String source;
+    private final String storyName;
+    private final List<String> failures;
+    private final List<String> logs;
+    private final int stepsRun;
+    private final int stepsSkipped;
+    private final long durationMillis;
+
+    public PilafStoryResult(String source, String storyName, List<String> failures, List<String> logs,
+                            int stepsRun, int stepsSkipped, long durationMillis) {
+        this.source = source;
+        this.storyName = storyName;
+        this.failures = new ArrayList<>(failures);
+        this.logs = new ArrayList<>(logs);
+        this.stepsRun = stepsRun;
+        this.stepsSkipped = stepsSkipped;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Where the story came from, usually its file path
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public String getStoryName() {
+        return storyName;
+    }
+
+    public boolean isPassed() {
+        return failures.isEmpty();
+    }
+
+    public List<String> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    public List<String> getLogs() {
+        return new ArrayList<>(logs);
+    }
+
+    public int getStepsRun() {
+        return stepsRun;
+    }
+
+    /**
+     * Steps the backend has no equivalent for, such as start_server on MockBukkit
+     */
+    public int getStepsSkipped() {
+        return stepsSkipped;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (%s): %d steps, %d skipped, %d ms%s",
+            isPassed() ? "✅" : "❌", storyName, source, stepsRun, stepsSkipped, durationMillis,
+            isPassed() ? "" : " - " + String.join("; ", failures));
+    }
+}
@@ -0,0 +1,141 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs PILAF stories against one backend and test context
+ *
+ * Stories are compiled into a StoryPlan first, so a malformed story fails
+ * with every problem listed before the backend is touched. Setup steps run
+ * first, then the story steps, and cleanup always runs. Assertion failures
+ * are collected and the story keeps going; an exception from the backend
+ * stops the remaining steps. Steps the backend has no equivalent for
+ * (start_server, check_plugin, ...) are logged and skipped.
+ */
+public class PilafStoryRunner {
+
+    private final PilafBackend backend;
+    private final PilafTestContext context;
+    private final StoryCompiler compiler;
+
+    public PilafStoryRunner(PilafBackend backend, PilafTestContext context) {
+        this(backend, context, StoryCompiler.shared());
+    }
+
+    public PilafStoryRunner(PilafBackend backend, PilafTestContext context, StoryCompiler compiler) {
+        this.backend = backend;
+        this.context = context;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Compile and run a story file
+     */
+    public PilafStoryResult run(Path file) {
+        try {
+            return run(compiler.compile(file));
+        } catch (IOException e) {
+            return failed(file.toString(), file.getFileName().toString(),
+                List.of("Could not read story: " + e.getMessage()));
+        } catch (StoryValidationException e) {
+            return failed(file.toString(), file.getFileName().toString(), e.getErrors());
+        }
+    }
+
+    /**
+     * Compile and run a parsed story
+     *
+     * @param source Where the story came from, for reporting
+     * @param story The story's YAML tree
+     */
+    public PilafStoryResult run(String source, Map<String, Object> story) {
+        try {
+            return run(compiler.compile(source, story));
+        } catch (StoryValidationException e) {
+            return failed(source, source, e.getErrors());
+        }
+    }
+
+    /**
+     * Run a compiled story
+     */
+    public PilafStoryResult run(StoryPlan plan) {
+        Execution execution = new Execution();
+        long start = System.currentTimeMillis();
+        context.addLog("Story: " + plan.name());
+        backend.markPerformance();
+
+        try {
+            execution.runAll(plan.setup());
+            execution.runAll(plan.steps());
+        } catch (Exception e) {
+            execution.failures.add("Story aborted at " + execution.current + ": " + e.getMessage());
+        } finally {
+            try {
+                execution.runAll(plan.cleanup());
+            } catch (Exception e) {
+                execution.failures.add("Cleanup failed at " + execution.current + ": " + e.getMessage());
+            }
+        }
+
+        return new PilafStoryResult(plan.source(), plan.name(), execution.failures, context.getLogs(),
+            execution.stepsRun, execution.stepsSkipped, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Result for a story that never reached the backend
+     */
+    static PilafStoryResult failed(String source, String storyName, List<String> errors) {
+        return new PilafStoryResult(source, storyName, errors, List.of(), 0, 0, 0L);
+    }
+
+    /**
+     * Per-run state handed to each step
+     */
+    private final class Execution implements StoryStep.Execution {
+
+        final List<String> failures = new ArrayList<>();
+        int stepsRun;
+        int stepsSkipped;
+        String current = "setup";
+
+        void runAll(List<StoryStep> steps) throws Exception {
+            for (StoryStep step : steps) {
+                current = step.label();
+                int skipped = stepsSkipped;
+                step.run(this);
+                if (stepsSkipped == skipped) {
+                    stepsRun++;
+                }
+            }
+        }
+
+        @Override
+        public PilafBackend backend() {
+            return backend;
+        }
+
+        @Override
+        public PilafTestContext context() {
+            return context;
+        }
+
+        @Override
+        public void check(boolean condition, String message) {
+            if (condition) {
+                context.addLog("PASS: " + message);
+            } else {
+                context.addLog("FAIL: " + current + ": " + message);
+                failures.add(current + ": " + message);
+            }
+        }
+
+        @Override
+        public void skip(String reason) {
+            stepsSkipped++;
+            context.addLog("SKIP: " + current + " (" + reason + ")");
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small pool of logged-in RCON connections
+ *
+ * Backends borrow a connection per command instead of holding one socket for
+ * the whole run. A connection that has been idle for a while is probed before
+ * use, and one that turns out to be closed is replaced. New connections are
+ * opened and logged in with exponential backoff, so a server restart in the
+ * middle of a story costs a short pause instead of failing the run.
+ *
+ * A command whose connection drops before the reply arrives may or may not
+ * have run, so execute fails it rather than sending it again: running summon,
+ * give or effect twice would change the world the story checks. Queries can
+ * go through executeIdempotent, which sends the command once more on a fresh
+ * connection.
+ */
+public class RconConnectionPool implements AutoCloseable {
+
+    /** Cheap command used to check an idle connection */
+    static final String PROBE_COMMAND = "list";
+
+    /**
+     * Pool tuning
+     *
+     * @param size Most connections open at once
+     * @param timeout Wait for a free connection, for a login and for each command
+     * @param initialBackoff Pause after the first failed connection attempt, doubled after each further one
+     * @param maxBackoff Longest pause between connection attempts
+     * @param maxAttempts Connection attempts before giving up
+     * @param probeAfter Probe connections that have been idle at least this long
+     */
+    public record Settings(int size, Duration timeout, Duration initialBackoff, Duration maxBackoff,
+                           int maxAttempts, Duration probeAfter) {
+
+        public static Settings defaults() {
+            return new Settings(4, Duration.ofSeconds(10), Duration.ofMillis(100), Duration.ofSeconds(5),
+                8, Duration.ofSeconds(30));
+        }
+    }
+
+    /**
+     * A pooled connection and when it was last returned
+     */
+    private static final class Slot {
+        final AsyncRconClient client;
+        long idleSinceNanos;
+
+        Slot(AsyncRconClient client) {
+            this.client = client;
+            this.idleSinceNanos = System.nanoTime();
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final Settings settings;
+
+    private final BlockingDeque<Slot> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger connectCount = new AtomicInteger();
+    private final AtomicInteger reconnectCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    public RconConnectionPool(String host, int port, String password) {
+        this(host, port, password, Settings.defaults());
+    }
+
+    public RconConnectionPool(String host, int port, String password, Settings settings) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.size(), true);
+    }
+
+    /**
+     * Open one connection now so a wrong address or password fails early
+     */
+    public void warmUp() throws IOException {
+        release(borrow(), false);
+    }
+
+    /**
+     * Run a command and wait for its output
+     *
+     * The command is not sent again if its connection drops, since it may
+     * already have run.
+     *
+     * @throws IOException If no connection could be made or the command failed
+     */
+    public String execute(String command) throws IOException {
+        return execute(command, 1);
+    }
+
+    /**
+     * Run a command that is safe to run twice, such as a query, and wait for its output
+     *
+     * If the connection drops before the reply arrives the command is sent once
+     * more on a fresh connection.
+     *
+     * @throws IOException If no connection could be made or the command failed twice
+     */
+    public String executeIdempotent(String command) throws IOException {
+        return execute(command, 2);
+    }
+
+    /**
+     * Run a command, logging failures the way RconClient.executeCommand does
+     *
+     * @return The output, or null if the command failed
+     */
+    public String executeCommand(String command) {
+        try {
+            return execute(command);
+        } catch (IOException e) {
+            System.out.println("❌ Command execution failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Run a command that is safe to run twice, logging failures like executeCommand
+     *
+     * @return The output, or null if the command failed
+     */
+    public String executeIdempotentCommand(String command) {
+        try {
+            return executeIdempotent(command);
+        } catch (IOException e) {
+            System.out.println("❌ Command execution failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Connections opened so far, the first ones included
+     */
+    public int getConnectCount() {
+        return connectCount.get();
+    }
+
+    /**
+     * Connections thrown away because they dropped or failed a probe
+     */
+    public int getReconnectCount() {
+        return reconnectCount.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Slot slot;
+        while ((slot = idle.poll()) != null) {
+            slot.client.close();
+        }
+    }
+
+    private String execute(String command, int attempts) throws IOException {
+        IOException failure = null;
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            Slot slot = borrow();
+            try {
+                String output = slot.client.execute(command)
+                    .get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+                release(slot, false);
+                return output;
+            } catch (ExecutionException e) {
+                release(slot, true);
+                if (!(e.getCause() instanceof IOException cause)) {
+                    throw new IOException("RCON command failed: " + command, e.getCause());
+                }
+                failure = cause;
+            } catch (TimeoutException e) {
+                release(slot, true);
+                throw new IOException("RCON command timed out: " + command, e);
+            } catch (InterruptedException e) {
+                release(slot, true);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while running RCON command: " + command, e);
+            } catch (RuntimeException e) {
+                // Logged out between borrow and send, or a command too long to send
+                release(slot, true);
+                throw e;
+            }
+        }
+        throw new IOException("RCON connection dropped while running " + command
+            + (attempts > 1 ? ", also on a fresh connection" : "; it may or may not have run"), failure);
+    }
+
+    private Slot borrow() throws IOException {
+        if (closed) {
+            throw new IOException("RCON pool closed");
+        }
+        try {
+            if (!permits.tryAcquire(settings.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("No RCON connection free after " + settings.timeout().toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an RCON connection", e);
+        }
+
+        try {
+            // Most recently used first, it is the least likely to have gone stale
+            Slot slot = idle.pollFirst();
+            if (slot != null && healthy(slot)) {
+                return slot;
+            }
+            if (slot != null) {
+                discard(slot);
+            }
+            return new Slot(connectWithBackoff());
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(Slot slot, boolean broken) {
+        if (closed) {
+            slot.client.close();
+        } else if (broken || !slot.client.isConnected()) {
+            discard(slot);
+        } else {
+            slot.idleSinceNanos = System.nanoTime();
+            idle.offerFirst(slot);
+        }
+        permits.release();
+    }
+
+    private void discard(Slot slot) {
+        slot.client.close();
+        reconnectCount.incrementAndGet();
+    }
+
+    private boolean healthy(Slot slot) {
+        if (!slot.client.isConnected()) {
+            return false;
+        }
+        if (System.nanoTime() - slot.idleSinceNanos < settings.probeAfter().toNanos()) {
+            return true;
+        }
+        try {
+            slot.client.execute(PROBE_COMMAND).get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private AsyncRconClient connectWithBackoff() throws IOException {
+        IOException failure = null;
+        long backoff = settings.initialBackoff().toMillis();
+        for (int attempt = 0; attempt < settings.maxAttempts(); attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reconnecting to RCON", e);
+                }
+                backoff = Math.min(backoff * 2, settings.maxBackoff().toMillis());
+            }
+            AsyncRconClient client = new AsyncRconClient(host, port, password, settings.timeout());
+            try {
+                client.connect();
+                connectCount.incrementAndGet();
+                return client;
+            } catch (AsyncRconClient.AuthenticationException e) {
+                // Retrying will not fix a wrong password
+                throw e;
+            } catch (IOException e) {
+                failure = e;
+                System.out.println("⚠️ RCON connection attempt " + (attempt + 1) + "/" + settings.maxAttempts()
+                    + " to " + host + ":" + port + " failed: " + e.getMessage());
+            }
+        }
+        throw new IOException("Could not connect to RCON at " + host + ":" + port
+            + " after " + settings.maxAttempts() + " attempts", failure);
+    }
+}
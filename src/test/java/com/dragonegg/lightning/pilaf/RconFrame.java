@@ -0,0 +1,110 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One Source RCON packet
+ *
+ * Wire layout, all integers little-endian:
+ * length (int), request id (int), type (int), body bytes, two null bytes.
+ * The length counts everything after itself, so an empty body is 10.
+ *
+ * @param requestId Request id chosen by the client and echoed by the server
+ * @param type Packet type, see the TYPE_ constants
+ * @param body Body bytes without the null terminators
+ */
+public record RconFrame(int requestId, int type, byte[] body) {
+
+    /** Server to client: command output */
+    public static final int TYPE_RESPONSE_VALUE = 0;
+    /** Client to server: run a command */
+    public static final int TYPE_EXEC_COMMAND = 2;
+    /** Server to client: login result, request id -1 on failure */
+    public static final int TYPE_AUTH_RESPONSE = 2;
+    /** Client to server: log in with the RCON password */
+    public static final int TYPE_AUTH = 3;
+
+    /** Largest request body a vanilla server accepts */
+    public static final int MAX_REQUEST_BODY = 1446;
+    /** Vanilla servers split command output into bodies of at most this many bytes */
+    public static final int MAX_RESPONSE_BODY = 4096;
+    /** Length field of a packet with an empty body */
+    public static final int MIN_LENGTH = 10;
+    /** Refuse frames larger than this so a corrupt stream cannot exhaust memory */
+    public static final int MAX_LENGTH = 1 << 20;
+
+    public RconFrame(int requestId, int type, String body) {
+        this(requestId, type, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String bodyText() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes this frame takes on the wire, including the length field
+     */
+    public int encodedSize() {
+        return 4 + MIN_LENGTH + body.length;
+    }
+
+    /**
+     * Write this frame at the buffer's position
+     *
+     * @param buffer Buffer with at least encodedSize() bytes remaining
+     */
+    public void encode(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MIN_LENGTH + body.length);
+        buffer.putInt(requestId);
+        buffer.putInt(type);
+        buffer.put(body);
+        buffer.put((byte) 0);
+        buffer.put((byte) 0);
+        buffer.order(order);
+    }
+
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize());
+        encode(buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Read one frame from a buffer in read mode
+     *
+     * Leaves the position untouched and returns null when the buffer does not
+     * yet hold a complete frame.
+     *
+     * @throws IllegalStateException If the length field is out of range
+     */
+    public static RconFrame decode(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length < MIN_LENGTH || length > MAX_LENGTH) {
+                throw new IllegalStateException("Bad RCON packet length " + length);
+            }
+            if (buffer.remaining() < 4 + length) {
+                return null;
+            }
+            buffer.position(start + 4);
+            int requestId = buffer.getInt();
+            int type = buffer.getInt();
+            byte[] body = new byte[length - MIN_LENGTH];
+            buffer.get(body);
+            buffer.position(buffer.position() + 2);
+            return new RconFrame(requestId, type, body);
+        } finally {
+            buffer.order(order);
+        }
+    }
+}
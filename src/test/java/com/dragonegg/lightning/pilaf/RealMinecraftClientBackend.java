@@ -3,11 +3,15 @@ package com.dragonegg.lightning.pilaf;
 import com.dragonegg.lightning.pilaf.entities.*;
 import java.io.IOException;
 import java.net.Socket;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 /**
  * Real Minecraft Client Backend using WOLF_WATCH clients
  * Coordinates both MineflayerClient (real player) and ServerConnector (server management)
+ * State updates wake waiters in awaitCondition instead of callers sleeping
  */
 public class RealMinecraftClientBackend implements PilafBackend {
 
@@ -20,9 +24,10 @@ public class RealMinecraftClientBackend implements PilafBackend {
     private String currentPlayer = "test_player";
 
     // Server state tracking
-    private Map<String, Entity> spawnedEntities = new HashMap<>();
-    private Map<String, Double> entityHealths = new HashMap<>();
-    private Map<String, List<Item>> playerInventories = new HashMap<>();
+    private Map<String, Entity> spawnedEntities = new ConcurrentHashMap<>();
+    private Map<String, Double> entityHealths = new ConcurrentHashMap<>();
+    private Map<String, List<Item>> playerInventories = new ConcurrentHashMap<>();
+    private final PilafConditionWaiter changes = new PilafConditionWaiter();
 
     // Real client connections (these would be the actual WOLF_WATCH clients)
     private Socket mineflayerSocket;    // Real Minecraft player client
@@ -124,6 +129,7 @@ public class RealMinecraftClientBackend implements PilafBackend {
 
             // Simulate entity health (would come from real server)
             entityHealths.put(name, 20.0); // Full health
+            changes.signal();
 
             System.out.println("🌟 Real Client: Spawning entity " + name + " (" + type + ") at " + location);
 
@@ -136,12 +142,14 @@ public class RealMinecraftClientBackend implements PilafBackend {
     public void giveItem(String playerName, String item, Integer count) {
         Item dragonEgg = new Item("dragon_egg", count);
         playerInventories.computeIfAbsent(playerName, k -> new ArrayList<>()).add(dragonEgg);
+        changes.signal();
         System.out.println("🎁 Real Client: Giving " + count + " " + item + " to " + playerName);
     }
 
     @Override
     public void setEntityHealth(String entityName, Double health) {
         entityHealths.put(entityName, health);
+        changes.signal();
         System.out.println("📊 Real Client: Setting " + entityName + " health to " + health);
     }
 
@@ -183,15 +191,22 @@ public class RealMinecraftClientBackend implements PilafBackend {
     public void removeAllTestEntities() {
         spawnedEntities.clear();
         entityHealths.clear();
+        changes.signal();
         System.out.println("🧹 Real Client: Removed all test entities");
     }
 
     @Override
     public void removeAllTestPlayers() {
         playerInventories.clear();
+        changes.signal();
         System.out.println("🧹 Real Client: Removed all test players");
     }
 
+    @Override
+    public boolean awaitCondition(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        return changes.await(condition, timeout);
+    }
+
     // Private helper methods
 
     private Entity createEntity(String name, String type, List<Double> location, Map<String, String> equipment) {
@@ -214,14 +229,8 @@ public class RealMinecraftClientBackend implements PilafBackend {
     private void sendCommandToMineflayer(String command) throws IOException {
         // In real implementation, this would send the command to MineflayerClient
         // MineflayerClient would then execute it in the real Minecraft server
+        // Callers that need the outcome wait for it with awaitCondition
         System.out.println("📡 Real Client: Sending to MineflayerClient: " + command);
-
-        // Simulate successful command execution
-        try {
-            Thread.sleep(100); // Simulate network delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
     }
 
     private void simulateLightningAbility(String player) {
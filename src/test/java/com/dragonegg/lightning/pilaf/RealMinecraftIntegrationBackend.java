@@ -8,7 +8,7 @@ import java.util.*;
 /**
  * Real Minecraft Integration Backend using:
  * 1. Node.js Mineflayer client for real player actions
- * 2. Java RconClient for server management
+ * 2. Pooled RCON connections for server management
  */
 public class RealMinecraftIntegrationBackend implements PilafBackend {
 
@@ -18,7 +18,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
     private static final String RCON_PASSWORD = "dragon123";
 
     private boolean initialized = false;
-    private RconClient rconClient;
+    private RconConnectionPool rconPool;
     private Process mineflayerProcess;
     private String mineflayerPort;
 
@@ -32,14 +32,10 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
         System.out.println("🔧 Initializing Real Minecraft Integration Backend...");
 
         try {
-            // Initialize RCON client for server management
-            rconClient = new RconClient(DEFAULT_HOST, RCON_PORT, RCON_PASSWORD);
-
-            if (rconClient.connect()) {
-                System.out.println("✅ RCON client connected successfully");
-            } else {
-                throw new Exception("Failed to connect to RCON server");
-            }
+            // Initialize RCON connections for server management
+            rconPool = new RconConnectionPool(DEFAULT_HOST, RCON_PORT, RCON_PASSWORD);
+            rconPool.warmUp();
+            System.out.println("✅ RCON client connected successfully");
 
             // Start Mineflayer client process
             startMineflayerClient();
@@ -62,8 +58,8 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
         }
 
         // Disconnect RCON client
-        if (rconClient != null) {
-            rconClient.disconnect();
+        if (rconPool != null) {
+            rconPool.close();
         }
 
         System.out.println("🧹 Real Minecraft Integration Backend cleaned up");
@@ -121,7 +117,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
 
             // Also execute via RCON for server-side verification
             if (fullCommand.contains("ability 1")) {
-                String rconResponse = rconClient.executeCommand("say Lightning ability executed by " + playerName);
+                String rconResponse = rconPool.executeCommand("say Lightning ability executed by " + playerName);
                 System.out.println("📡 RCON: " + rconResponse);
 
                 simulateLightningAbility(playerName);
@@ -153,7 +149,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
             String spawnCommand = String.format("summon %s %.1f %.1f %.1f",
                 type.toLowerCase(), location.get(0), location.get(1), location.get(2));
 
-            String response = rconClient.executeCommand(spawnCommand);
+            String response = rconPool.executeCommand(spawnCommand);
             System.out.println("📡 RCON: " + response);
 
             // Track entity locally
@@ -177,7 +173,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
         try {
             // Use RCON to give item
             String giveCommand = String.format("give %s %s %d", playerName, item.toLowerCase(), count);
-            String response = rconClient.executeCommand(giveCommand);
+            String response = rconPool.executeCommand(giveCommand);
             System.out.println("📡 RCON: " + response);
 
             // Also use Mineflayer for player-side verification
@@ -208,7 +204,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
 
         try {
             String fullCommand = command + " " + String.join(" ", arguments);
-            String response = rconClient.executeCommand(fullCommand);
+            String response = rconPool.executeCommand(fullCommand);
             System.out.println("📡 Real Client: Executing server command: " + fullCommand);
             System.out.println("📡 RCON Response: " + response);
         } catch (Exception e) {
@@ -244,7 +240,7 @@ public class RealMinecraftIntegrationBackend implements PilafBackend {
         System.out.println("🔌 Real Client: Plugin " + pluginName + " received command from " + playerName);
 
         // Verify via RCON
-        String response = rconClient.executeCommand("say Plugin " + pluginName + " processed command: " + command);
+        String response = rconPool.executeCommand("say Plugin " + pluginName + " processed command: " + command);
         System.out.println("📡 RCON: " + response);
 
         return true;
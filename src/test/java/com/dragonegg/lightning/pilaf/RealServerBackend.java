@@ -1,5 +1,6 @@
 package com.dragonegg.lightning.pilaf;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -10,11 +11,10 @@ import java.util.*;
 public class RealServerBackend implements PilafBackend {
 
     private boolean initialized;
-    private RconClient rconClient;
+    private RconConnectionPool rconPool;
 
     public RealServerBackend() {
         this.initialized = false;
-        this.rconClient = new RconClient("localhost", 25575, "dragon123");
     }
 
     @Override
@@ -28,9 +28,12 @@ public class RealServerBackend implements PilafBackend {
             System.out.println("🖥️ Initializing Real Server backend...");
 
             // Connect to RCON server
-            boolean connected = rconClient.connect();
-            if (!connected) {
-                throw new Exception("Failed to connect to RCON server");
+            rconPool = new RconConnectionPool("localhost", 25575, "dragon123");
+            try {
+                rconPool.warmUp();
+            } catch (IOException e) {
+                rconPool.close();
+                throw new Exception("Failed to connect to RCON server", e);
             }
 
             initialized = true;
@@ -42,7 +45,7 @@ public class RealServerBackend implements PilafBackend {
     public void cleanup() throws Exception {
         if (initialized) {
             System.out.println("🧹 Cleaning up Real Server backend...");
-            rconClient.disconnect();
+            rconPool.close();
             initialized = false;
             System.out.println("✅ Real Server backend cleaned up");
         }
@@ -57,7 +60,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🎮 RealServer: Moving player " + playerName + " to " + destinationType + " " + destination);
         String command = String.format("tp %s %s", playerName, destination);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -70,7 +73,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🎮 RealServer: Equipping " + item + " to " + slot + " for " + playerName);
         String command = String.format("give %s %s 1", playerName, item);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -84,7 +87,7 @@ public class RealServerBackend implements PilafBackend {
         System.out.println("🎮 RealServer: Using " + item + " by " + playerName + " on " + target);
         // This would typically be handled by the plugin itself
         String command = String.format("say %s used %s on %s", playerName, item, target);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -100,7 +103,7 @@ public class RealServerBackend implements PilafBackend {
 
         // Simulate player command execution
         String rconCommand = String.format("say %s ran command: %s", playerName, fullCommand);
-        String result = rconClient.executeCommand(rconCommand);
+        String result = rconPool.executeCommand(rconCommand);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -113,7 +116,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("💬 RealServer: " + playerName + " sends chat: " + message);
         String command = String.format("say <%s> %s", playerName, message);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -126,7 +129,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🌟 RealServer: Spawning entity " + name + " (" + entityType + ") at " + location);
         String command = String.format("summon %s %.1f %.1f %.1f", entityType, location.get(0), location.get(1), location.get(2));
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -139,7 +142,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🎁 RealServer: Giving " + count + " " + item + " to " + playerName);
         String command = String.format("give %s %s %d", playerName, item, count);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -153,7 +156,7 @@ public class RealServerBackend implements PilafBackend {
         System.out.println("❤️ RealServer: Setting health of " + entityName + " to " + health);
         // This would require more complex entity targeting logic
         String command = String.format("effect give @e[name=%s] minecraft:health_boost %d 1", entityName, (int)(health/2));
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -166,7 +169,7 @@ public class RealServerBackend implements PilafBackend {
 
         String fullCommand = command + " " + String.join(" ", arguments);
         System.out.println("🖥️ RealServer: Server executes command: " + fullCommand);
-        String result = rconClient.executeCommand(fullCommand);
+        String result = rconPool.executeCommand(fullCommand);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -179,7 +182,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🔍 RealServer: Checking if entity " + entityName + " exists");
         String command = String.format("execute if entity @e[name=%s]", entityName);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeIdempotentCommand(command);
         boolean exists = result != null && !result.contains("No entities found");
         System.out.println("  Entity exists: " + exists);
         return exists;
@@ -195,7 +198,7 @@ public class RealServerBackend implements PilafBackend {
         System.out.println("❤️ RealServer: Getting health of " + entityName);
         // This would require data query commands or NBT inspection
         String command = String.format("data get entity @e[name=%s,limit=1] Health", entityName);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeIdempotentCommand(command);
 
         // Parse health from result (this is simplified)
         double health = 20.0; // Default health
@@ -223,7 +226,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🎒 RealServer: Checking if " + playerName + " has " + item + " in " + slot);
         String command = String.format("execute if data block ~ ~ ~ Items[{Slot:%s,id:\"minecraft:%s\"}]", slot, item);
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeIdempotentCommand(command);
         boolean contains = result != null && !result.contains("No targetblock found");
         System.out.println("  Inventory contains: " + contains);
         return contains;
@@ -239,7 +242,7 @@ public class RealServerBackend implements PilafBackend {
         System.out.println("🔌 RealServer: Checking if plugin " + pluginName + " received command from " + playerName);
         // This would require plugin-specific logging or command tracking
         String commandStr = String.format("say Checking if %s received command '%s' from %s", pluginName, command, playerName);
-        String result = rconClient.executeCommand(commandStr);
+        String result = rconPool.executeCommand(commandStr);
         System.out.println("  Plugin command check: " + result);
 
         // Return true for now as this requires plugin-specific implementation
@@ -255,7 +258,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🧹 RealServer: Removing all test entities");
         String command = "kill @e[tag=test_entity]";
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 
@@ -268,7 +271,7 @@ public class RealServerBackend implements PilafBackend {
 
         System.out.println("🧹 RealServer: Removing all test players");
         String command = "say Cleaning up test players";
-        String result = rconClient.executeCommand(command);
+        String result = rconPool.executeCommand(command);
         System.out.println("  RCON Response: " + result);
     }
 }
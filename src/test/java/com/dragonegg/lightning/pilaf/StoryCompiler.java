@@ -0,0 +1,538 @@
+package com.dragonegg.lightning.pilaf;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles PILAF YAML stories into typed, immutable StoryPlans
+ *
+ * Understands both story layouts in the repository:
+ * - Typed steps (integration-stories): each step has a "type" of action,
+ *   server_action, assertion, wait or cleanup
+ * - Action steps (test-stories): each step has an "action" such as
+ *   spawn_entity, execute_command or verify_health
+ *
+ * Every problem in a file is collected and reported together before any
+ * backend is touched: unknown step types, missing or mistyped fields, and
+ * references to players or entities that no earlier step declares. Entity
+ * locations given as a player name are resolved to that player's position.
+ *
+ * Assertions take an optional "timeout" in seconds to wait for the asserted
+ * state, which replaces a fixed "wait" step before the check. Health checks
+ * also take "stable_ticks": the health must then stay at the expected value
+ * for that many ticks, so a cast still in progress cannot pass early. Performance
+ * assertions (max_plugin_tick_ms, max_packets_per_cast, max_entities_scanned,
+ * max_cast_latency_ticks) take a "max" and are checked against the plugin's
+ * metrics and cast trace since the story started; per-cast limits are the
+ * worst finished cast.
+ *
+ * Compiled plans are cached by the SHA-256 of the file contents, so a suite
+ * that runs the same files repeatedly or from several workers parses each one
+ * once per JVM.
+ */
+public class StoryCompiler {
+
+    private static final StoryCompiler SHARED = new StoryCompiler();
+
+    private static final Set<String> SERVER_LIFECYCLE_ACTIONS = Set.of(
+        "start_server", "stop_server", "check_plugin", "check_command"
+    );
+
+    private final Map<String, StoryPlan> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger compileCount = new AtomicInteger();
+
+    /**
+     * Compiler whose cache is shared by every runner in the JVM
+     */
+    public static StoryCompiler shared() {
+        return SHARED;
+    }
+
+    /**
+     * Compile a story file, reusing the cached plan if the contents have not changed
+     *
+     * @throws IOException If the file cannot be read
+     * @throws StoryValidationException If the story is invalid
+     */
+    public StoryPlan compile(Path file) throws IOException, StoryValidationException {
+        byte[] contents = Files.readAllBytes(file);
+        String source = file.toString();
+        String hash = sha256(contents);
+        StoryPlan cached = cache.get(hash);
+        if (cached != null) {
+            return cached.source().equals(source) ? cached : cached.withSource(source);
+        }
+
+        Object root;
+        try {
+            root = new Yaml(new LoaderOptions()).load(new String(contents, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new StoryValidationException(source, List.of("Not valid YAML: " + e.getMessage()));
+        }
+        if (!(root instanceof Map)) {
+            throw new StoryValidationException(source, List.of("A story must be a YAML mapping"));
+        }
+        @SuppressWarnings("unchecked")
+        StoryPlan plan = compile(source, hash, (Map<String, Object>) root);
+        cache.putIfAbsent(hash, plan);
+        return plan;
+    }
+
+    /**
+     * Compile an already parsed story; the result is not cached
+     *
+     * @throws StoryValidationException If the story is invalid
+     */
+    public StoryPlan compile(String source, Map<String, Object> story) throws StoryValidationException {
+        return compile(source, null, story);
+    }
+
+    /**
+     * Stories actually compiled, as opposed to served from the cache
+     */
+    public int getCompileCount() {
+        return compileCount.get();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private StoryPlan compile(String source, String hash, Map<String, Object> story)
+        throws StoryValidationException {
+        compileCount.incrementAndGet();
+        Session session = new Session();
+        List<StoryStep> setup = session.setup(story.get("setup"));
+        List<StoryStep> steps = session.section("steps", story.get("steps"));
+        List<StoryStep> cleanup = session.section("cleanup", story.get("cleanup"));
+        if (steps.isEmpty() && session.errors.isEmpty()) {
+            session.errors.add("steps: a story needs at least one step");
+        }
+        if (!session.errors.isEmpty()) {
+            throw new StoryValidationException(source, session.errors);
+        }
+        return new StoryPlan(source, storyName(source, story), hash, setup, steps, cleanup,
+            session.players.keySet(), session.entities);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String storyName(String source, Map<String, Object> story) {
+        Object nested = story.get("story");
+        if (nested instanceof Map && ((Map<String, Object>) nested).get("name") != null) {
+            return String.valueOf(((Map<String, Object>) nested).get("name"));
+        }
+        Object name = story.get("name");
+        return name != null ? String.valueOf(name) : source;
+    }
+
+    private static String sha256(byte[] contents) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contents));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * State for compiling one story: errors so far and the names declared so far
+     */
+    private static final class Session {
+
+        final List<String> errors = new ArrayList<>();
+        final Map<String, List<Double>> players = new LinkedHashMap<>();
+        final Set<String> entities = new LinkedHashSet<>();
+
+        @SuppressWarnings("unchecked")
+        List<StoryStep> setup(Object setup) {
+            if (setup == null || setup instanceof List) {
+                return section("setup", setup);
+            }
+            if (!(setup instanceof Map)) {
+                errors.add("setup: expected a list of steps or a mapping with players");
+                return List.of();
+            }
+            // Action-step stories declare players under setup.players
+            List<StoryStep> steps = new ArrayList<>();
+            Object declared = ((Map<String, Object>) setup).get("players");
+            List<Map<String, Object>> entries = maps("setup.players", declared);
+            for (int i = 0; i < entries.size(); i++) {
+                Map<String, Object> entry = entries.get(i);
+                if (entry == null) {
+                    continue;
+                }
+                String where = "setup.players[" + i + "]";
+                String player = string(where, entry, "name");
+                List<Double> location = location(where, entry, "position");
+                Map<String, Integer> items = new LinkedHashMap<>();
+                for (Object item : list(entry.get("items"))) {
+                    String[] parts = String.valueOf(item).trim().split("\\s+");
+                    try {
+                        items.merge(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1, Integer::sum);
+                    } catch (NumberFormatException e) {
+                        errors.add(where + ": item '" + item + "' should be '<item> <count>'");
+                    }
+                }
+                if (player != null) {
+                    players.put(player, location);
+                    steps.add(new StoryStep.AddPlayer(where, player, location, items));
+                }
+            }
+            return steps;
+        }
+
+        List<StoryStep> section(String section, Object steps) {
+            List<StoryStep> compiled = new ArrayList<>();
+            List<Map<String, Object>> entries = maps(section, steps);
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i) == null) {
+                    continue;
+                }
+                StoryStep step = step(section + "[" + i + "]", entries.get(i));
+                if (step != null) {
+                    compiled.add(step);
+                }
+            }
+            return compiled;
+        }
+
+        StoryStep step(String where, Map<String, Object> step) {
+            Object type = step.get("type");
+            if (type == null) {
+                return actionStep(where, step);
+            }
+            return switch (String.valueOf(type)) {
+                case "action" -> playerAction(where, step);
+                case "server_action" -> serverAction(where, step);
+                case "assertion" -> assertion(where, step);
+                case "wait" -> new StoryStep.Wait(where + " wait", seconds(where, step, "wait"));
+                case "cleanup" -> cleanup(where, step);
+                default -> error(where + ": unknown step type '" + type + "'");
+            };
+        }
+
+        StoryStep playerAction(String where, Map<String, Object> step) {
+            String action = string(where, step, "action");
+            if (action == null) {
+                return null;
+            }
+            String label = where + " " + action;
+            String player = player(label, step, "subject");
+            return switch (action) {
+                case "player_move" -> {
+                    String destinationType = string(label, step, "destination_type");
+                    String destination = string(label, step, "destination");
+                    if ("entity".equals(destinationType)) {
+                        entity(label, destination);
+                    }
+                    yield new StoryStep.MovePlayer(label, player, destinationType, destination);
+                }
+                case "player_equip_item" -> new StoryStep.EquipItem(label, player,
+                    string(label, step, "item"), string(label, step, "slot"));
+                case "player_use_item" -> new StoryStep.UseItem(label, player,
+                    string(label, step, "item"), optionalString(step, "target"));
+                case "player_execute_command" -> new StoryStep.PlayerCommand(label, player,
+                    string(label, step, "command"), strings(step.get("arguments")));
+                case "player_chat" -> new StoryStep.Chat(label, player, string(label, step, "message"));
+                default -> error(where + ": unknown action '" + action + "'");
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        StoryStep serverAction(String where, Map<String, Object> step) {
+            String action = string(where, step, "server_action");
+            if (action == null) {
+                return null;
+            }
+            String label = where + " " + action;
+            return switch (action) {
+                case "spawn_entity" -> {
+                    Object equipment = step.get("equipment");
+                    Map<String, String> slots = new LinkedHashMap<>();
+                    if (equipment instanceof Map) {
+                        ((Map<Object, Object>) equipment).forEach((slot, item) ->
+                            slots.put(String.valueOf(slot), String.valueOf(item)));
+                    } else if (equipment != null) {
+                        errors.add(label + ": equipment should map slots to items");
+                    }
+                    yield spawn(label, string(label, step, "name"), string(label, step, "entity_type"),
+                        location(label, step, "location"), slots);
+                }
+                case "spawn_player" -> {
+                    String player = string(label, step, "name");
+                    List<Double> location = location(label, step, "location");
+                    if (player != null) {
+                        players.put(player, location);
+                    }
+                    yield new StoryStep.AddPlayer(label, player, location, Map.of());
+                }
+                case "give_item" -> new StoryStep.GiveItem(label, player(label, step, "player"),
+                    string(label, step, "item"), (int) number(label, step, "count", 1.0));
+                case "set_entity_health" -> new StoryStep.SetEntityHealth(label,
+                    entity(label, string(label, step, "subject")), number(label, step, "health", null));
+                case "server_execute_command" -> new StoryStep.ServerCommand(label,
+                    string(label, step, "command"), strings(step.get("arguments")));
+                case "get_entity_health" -> new StoryStep.RecordEntityHealth(label,
+                    entity(label, string(label, step, "subject")));
+                case "advance_ticks" -> new StoryStep.AdvanceTicks(label, ticks(label, step));
+                default -> error(where + ": unknown server action '" + action + "'");
+            };
+        }
+
+        StoryStep assertion(String where, Map<String, Object> step) {
+            String assertion = string(where, step, "assertion");
+            if (assertion == null) {
+                return null;
+            }
+            String label = where + " " + assertion;
+            return switch (assertion) {
+                case "entity_exists" -> new StoryStep.AssertEntityExists(label,
+                    entity(label, string(label, step, "subject")), timeout(label, step));
+                case "entity_health_equals" -> new StoryStep.AssertHealth(label,
+                    entity(label, string(label, step, "subject")),
+                    number(label, step, "expected_health", null), number(label, step, "tolerance", 0.0),
+                    timeout(label, step), stableTicks(label, step));
+                case "entity_health_below" -> new StoryStep.AssertHealthBelow(label,
+                    entity(label, string(label, step, "subject")), number(label, step, "health", null),
+                    timeout(label, step));
+                case "player_inventory_contains" -> new StoryStep.AssertInventory(label,
+                    player(label, step, "subject"), string(label, step, "item"), string(label, step, "slot"));
+                case "plugin_receives_command" -> new StoryStep.AssertPluginCommand(label,
+                    string(label, step, "plugin"), string(label, step, "command"), player(label, step, "subject"),
+                    timeout(label, step));
+                default -> performance(where, label, assertion, step);
+            };
+        }
+
+        /**
+         * Performance limits, e.g. assertion: max_plugin_tick_ms with max: 2.5
+         */
+        StoryStep performance(String where, String label, String assertion, Map<String, Object> step) {
+            PilafPerformance.Limit limit = PilafPerformance.Limit.fromKey(assertion);
+            if (limit == null) {
+                return error(where + ": unknown assertion '" + assertion + "'");
+            }
+            double max = number(label, step, "max", null);
+            if (max < 0) {
+                errors.add(label + ": 'max' cannot be negative");
+            }
+            return new StoryStep.AssertPerformance(label, limit, max);
+        }
+
+        StoryStep cleanup(String where, Map<String, Object> step) {
+            String cleanup = string(where, step, "cleanup");
+            if (cleanup == null) {
+                return null;
+            }
+            String label = where + " " + cleanup;
+            return switch (cleanup) {
+                case "remove_all_test_entities" -> new StoryStep.RemoveTestEntities(label);
+                case "remove_all_test_players" -> new StoryStep.RemoveTestPlayers(label);
+                default -> error(where + ": unknown cleanup '" + cleanup + "'");
+            };
+        }
+
+        /**
+         * Steps from the action-step layout
+         */
+        StoryStep actionStep(String where, Map<String, Object> step) {
+            String action = optionalString(step, "action");
+            if (action == null) {
+                return error(where + ": a step needs a 'type' or an 'action'");
+            }
+            String label = where + " " + action;
+            if (SERVER_LIFECYCLE_ACTIONS.contains(action)) {
+                return new StoryStep.Skip(label, "no backend equivalent for " + action);
+            }
+            return switch (action) {
+                case "spawn_entity" -> {
+                    List<Double> location;
+                    if (step.containsKey("location")) {
+                        location = location(label, step, "location");
+                    } else {
+                        // Spawn at the named player
+                        String player = player(label, step, "player");
+                        location = players.getOrDefault(player, List.of(0.0, 0.0, 0.0));
+                    }
+                    yield spawn(label, string(label, step, "name"), string(label, step, "entity_type"),
+                        location, Map.of());
+                }
+                case "execute_command" -> {
+                    String line = string(label, step, "command");
+                    List<String> words = line == null
+                        ? new ArrayList<>() : new ArrayList<>(Arrays.asList(line.trim().split("\\s+")));
+                    String command = words.isEmpty() ? null : words.remove(0);
+                    yield step.get("player") != null
+                        ? new StoryStep.PlayerCommand(label, player(label, step, "player"), command, words)
+                        : new StoryStep.ServerCommand(label, command, words);
+                }
+                case "verify_health" -> new StoryStep.AssertHealth(label,
+                    entity(label, string(label, step, "name")),
+                    number(label, step, "expected_health", null), number(label, step, "tolerance", 0.0),
+                    timeout(label, step), stableTicks(label, step));
+                case "wait" -> new StoryStep.Wait(label, seconds(label, step, "duration"));
+                case "advance_ticks" -> new StoryStep.AdvanceTicks(label, ticks(label, step));
+                default -> error(where + ": unknown action '" + action + "'");
+            };
+        }
+
+        StoryStep spawn(String label, String entity, String entityType, List<Double> location,
+                        Map<String, String> equipment) {
+            if (entity != null) {
+                entities.add(entity);
+            }
+            return new StoryStep.SpawnEntity(label, entity, entityType, location, equipment);
+        }
+
+        String player(String label, Map<String, Object> step, String key) {
+            String player = string(label, step, key);
+            if (player != null && !players.containsKey(player)) {
+                errors.add(label + ": unknown player '" + player + "', declare it in setup first");
+            }
+            return player;
+        }
+
+        String entity(String label, String entity) {
+            if (entity != null && !entities.contains(entity)) {
+                errors.add(label + ": unknown entity '" + entity + "', spawn it in an earlier step");
+            }
+            return entity;
+        }
+
+        StoryStep error(String message) {
+            errors.add(message);
+            return null;
+        }
+
+        String string(String label, Map<String, Object> step, String key) {
+            String value = optionalString(step, key);
+            if (value == null || value.isBlank()) {
+                errors.add(label + ": missing '" + key + "'");
+                return null;
+            }
+            return value;
+        }
+
+        static String optionalString(Map<String, Object> step, String key) {
+            Object value = step.get(key);
+            return value != null ? String.valueOf(value) : null;
+        }
+
+        double number(String label, Map<String, Object> step, String key, Double defaultValue) {
+            Object value = step.get(key);
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            }
+            if (value == null && defaultValue != null) {
+                return defaultValue;
+            }
+            errors.add(label + ": '" + key + "' should be a number" + (value == null ? "" : ", got '" + value + "'"));
+            return 0.0;
+        }
+
+        double seconds(String label, Map<String, Object> step, String key) {
+            double seconds = number(label, step, key, null);
+            if (seconds < 0) {
+                errors.add(label + ": '" + key + "' cannot be negative");
+            }
+            return seconds;
+        }
+
+        int ticks(String label, Map<String, Object> step) {
+            return ticks(label, step, "ticks");
+        }
+
+        int ticks(String label, Map<String, Object> step, String key) {
+            if (step.get(key) instanceof Number ticks
+                && ticks.doubleValue() >= 1 && ticks.doubleValue() == Math.rint(ticks.doubleValue())) {
+                return ticks.intValue();
+            }
+            errors.add(label + ": '" + key + "' should be a whole number of at least 1");
+            return 0;
+        }
+
+        /**
+         * Ticks a health assertion's value must hold for, from an optional "stable_ticks"
+         */
+        int stableTicks(String label, Map<String, Object> step) {
+            return step.containsKey("stable_ticks") ? ticks(label, step, "stable_ticks") : 0;
+        }
+
+        /**
+         * How long an assertion may wait for its condition, from an optional "timeout" in seconds
+         */
+        Duration timeout(String label, Map<String, Object> step) {
+            if (!step.containsKey("timeout")) {
+                return Duration.ZERO;
+            }
+            return Duration.ofMillis((long) (seconds(label, step, "timeout") * 1000));
+        }
+
+        List<Double> location(String label, Map<String, Object> step, String key) {
+            List<?> values = list(step.get(key));
+            List<Double> location = new ArrayList<>(3);
+            for (Object value : values) {
+                if (value instanceof Number number) {
+                    location.add(number.doubleValue());
+                }
+            }
+            if (location.size() != 3 || values.size() != 3) {
+                errors.add(label + ": '" + key + "' should be [x, y, z]");
+                return List.of(0.0, 0.0, 0.0);
+            }
+            return List.copyOf(location);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> maps(String section, Object value) {
+            if (value == null) {
+                return List.of();
+            }
+            if (value instanceof Map) {
+                return List.of((Map<String, Object>) value);
+            }
+            if (!(value instanceof List)) {
+                errors.add(section + ": expected a list of steps");
+                return List.of();
+            }
+            // Entries that are not mappings stay as nulls so indices in errors match the file
+            List<Map<String, Object>> maps = new ArrayList<>();
+            List<Object> entries = (List<Object>) value;
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i) instanceof Map) {
+                    maps.add((Map<String, Object>) entries.get(i));
+                } else {
+                    errors.add(section + "[" + i + "]: expected a mapping, got '" + entries.get(i) + "'");
+                    maps.add(null);
+                }
+            }
+            return maps;
+        }
+
+        static List<?> list(Object value) {
+            return value instanceof List ? (List<?>) value : List.of();
+        }
+
+        static List<String> strings(Object value) {
+            List<String> strings = new ArrayList<>();
+            for (Object item : list(value)) {
+                strings.add(String.valueOf(item));
+            }
+            return List.copyOf(strings);
+        }
+    }
+}
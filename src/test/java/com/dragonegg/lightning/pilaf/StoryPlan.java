@@ -0,0 +1,35 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A validated story, ready to run on any backend
+ *
+ * @param source Where the story came from, usually its file path
+ * @param name Story name from the YAML
+ * @param hash SHA-256 of the file contents, or null when compiled from an already parsed tree
+ * @param setup Steps run first
+ * @param steps The story itself
+ * @param cleanup Steps always run last, even after a failure
+ * @param players Every player the story declares
+ * @param entities Every entity the story spawns
+ */
+public record StoryPlan(String source, String name, String hash, List<StoryStep> setup, List<StoryStep> steps,
+                        List<StoryStep> cleanup, Set<String> players, Set<String> entities) {
+
+    public StoryPlan {
+        setup = List.copyOf(setup);
+        steps = List.copyOf(steps);
+        cleanup = List.copyOf(cleanup);
+        players = Set.copyOf(players);
+        entities = Set.copyOf(entities);
+    }
+
+    /**
+     * The same plan reported under another source, for identical files at different paths
+     */
+    public StoryPlan withSource(String otherSource) {
+        return new StoryPlan(otherSource, name, hash, setup, steps, cleanup, players, entities);
+    }
+}
@@ -0,0 +1,316 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One compiled, immutable story step
+ *
+ * Produced by StoryCompiler from either YAML layout, with player and entity
+ * names already checked and locations resolved. Each step knows how to run
+ * itself against an Execution.
+ *
+ * Assertions with a non-zero timeout wait for their condition to hold, so a
+ * story asserts the state it expects instead of sleeping before checking.
+ */
+public sealed interface StoryStep {
+
+    /**
+     * What a step can use while it runs
+     */
+    interface Execution {
+        PilafBackend backend();
+
+        PilafTestContext context();
+
+        /**
+         * Record an assertion; a false condition fails the story but later steps still run
+         */
+        void check(boolean condition, String message);
+
+        void skip(String reason);
+
+        /**
+         * Whether a condition holds, waiting up to the timeout for it to
+         */
+        default boolean await(BooleanSupplier condition, Duration timeout)
+            throws InterruptedException {
+            if (timeout.isZero()) {
+                return condition.getAsBoolean();
+            }
+            return backend().awaitCondition(condition, timeout);
+        }
+    }
+
+    /**
+     * Label for logs and errors, e.g. "steps[3] spawn_entity"
+     */
+    String label();
+
+    void run(Execution execution) throws Exception;
+
+    record AddPlayer(String label, String player, List<Double> location, Map<String, Integer> items)
+        implements StoryStep {
+
+        public AddPlayer {
+            location = List.copyOf(location);
+            items = Collections.unmodifiableMap(new LinkedHashMap<>(items));
+        }
+
+        @Override
+        public void run(Execution execution) {
+            PilafTestPlayer testPlayer = new PilafTestPlayer(player, location);
+            execution.backend().addPlayer(player, location);
+            execution.context().addPlayer(player, testPlayer);
+            for (Map.Entry<String, Integer> item : items.entrySet()) {
+                execution.backend().giveItem(player, item.getKey(), item.getValue());
+                testPlayer.addItem(item.getKey(), item.getValue());
+            }
+        }
+    }
+
+    record SpawnEntity(String label, String entity, String entityType, List<Double> location,
+                       Map<String, String> equipment) implements StoryStep {
+
+        public SpawnEntity {
+            location = List.copyOf(location);
+            equipment = Collections.unmodifiableMap(new LinkedHashMap<>(equipment));
+        }
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().spawnEntity(entity, entityType, location, equipment.isEmpty() ? null : equipment);
+            PilafTestEntity testEntity = new PilafTestEntity(entity, entityType, location);
+            if (!equipment.isEmpty()) {
+                testEntity.setEquipment(equipment);
+            }
+            execution.context().addEntity(entity, testEntity);
+        }
+    }
+
+    record GiveItem(String label, String player, String item, int count) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().giveItem(player, item, count);
+        }
+    }
+
+    record SetEntityHealth(String label, String entity, double health) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().setEntityHealth(entity, health);
+        }
+    }
+
+    record RecordEntityHealth(String label, String entity) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.context().setWorldState("health." + entity, execution.backend().getEntityHealth(entity));
+        }
+    }
+
+    record ServerCommand(String label, String command, List<String> arguments) implements StoryStep {
+
+        public ServerCommand {
+            arguments = List.copyOf(arguments);
+        }
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().executeServerCommand(command, arguments);
+        }
+    }
+
+    record PlayerCommand(String label, String player, String command, List<String> arguments)
+        implements StoryStep {
+
+        public PlayerCommand {
+            arguments = List.copyOf(arguments);
+        }
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().executePlayerCommand(player, command, arguments);
+            execution.context().recordPluginCommand(command, player);
+        }
+    }
+
+    record MovePlayer(String label, String player, String destinationType, String destination)
+        implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().movePlayer(player, destinationType, destination);
+        }
+    }
+
+    record EquipItem(String label, String player, String item, String slot) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().equipItem(player, item, slot);
+        }
+    }
+
+    record UseItem(String label, String player, String item, String target) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().useItem(player, item, target);
+        }
+    }
+
+    record Chat(String label, String player, String message) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().sendChat(player, message);
+        }
+    }
+
+    record AssertEntityExists(String label, String entity, Duration timeout) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            execution.check(execution.await(() -> execution.backend().entityExists(entity), timeout),
+                entity + " should exist");
+        }
+    }
+
+    /**
+     * Health reaches the expected value and, with stableTicks, stays there that
+     * many ticks, so a value passed on the way down to a lower one does not count
+     */
+    record AssertHealth(String label, String entity, double expected, double tolerance, Duration timeout,
+                        int stableTicks) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            PilafBackend backend = execution.backend();
+            boolean reached = execution.await(
+                () -> Math.abs(backend.getEntityHealth(entity) - expected) <= tolerance, timeout);
+            if (!reached || stableTicks == 0) {
+                execution.check(reached, entity + " health should be " + expected
+                    + " but was " + backend.getEntityHealth(entity));
+                return;
+            }
+            backend.advanceTicks(stableTicks);
+            double settled = backend.getEntityHealth(entity);
+            execution.check(Math.abs(settled - expected) <= tolerance, entity + " health should stay "
+                + expected + " for " + stableTicks + " ticks but changed to " + settled);
+        }
+    }
+
+    record AssertHealthBelow(String label, String entity, double threshold, Duration timeout)
+        implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            PilafBackend backend = execution.backend();
+            boolean reached = timeout.isZero()
+                ? backend.getEntityHealth(entity) < threshold
+                : backend.awaitEntityHealthBelow(entity, threshold, timeout);
+            execution.check(reached, entity + " health should be below " + threshold
+                + " but was " + backend.getEntityHealth(entity));
+        }
+    }
+
+    record AssertInventory(String label, String player, String item, String slot) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.check(execution.backend().playerInventoryContains(player, item, slot),
+                player + " should have " + item + " in " + slot);
+        }
+    }
+
+    record AssertPluginCommand(String label, String plugin, String command, String player, Duration timeout)
+        implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            PilafBackend backend = execution.backend();
+            boolean received = timeout.isZero()
+                ? backend.pluginReceivedCommand(plugin, command, player)
+                : backend.awaitPluginCommand(plugin, command, player, timeout);
+            execution.check(received, plugin + " should receive " + command + " from " + player);
+        }
+    }
+
+    /**
+     * Check a performance limit against the plugin's metrics since the story started
+     */
+    record AssertPerformance(String label, PilafPerformance.Limit limit, double max) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            PilafPerformance performance = execution.backend().readPerformance();
+            if (performance == null) {
+                execution.skip(execution.backend().getType() + " has no plugin metrics");
+                return;
+            }
+            if (!performance.measured(limit)) {
+                execution.check(false, "nothing happened to measure " + limit.description() + " against");
+                return;
+            }
+            double value = performance.value(limit);
+            execution.check(value <= max, String.format("%s should be at most %s %s but was %.2f",
+                limit.description(), max, limit.unit(), value));
+        }
+    }
+
+    record Wait(String label, double seconds) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            if (seconds > 0) {
+                execution.backend().waitFor(Duration.ofMillis((long) (seconds * 1000)));
+            }
+        }
+    }
+
+    /**
+     * Let server ticks pass; stepped instantly on backends that control time
+     */
+    record AdvanceTicks(String label, int ticks) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) throws InterruptedException {
+            execution.backend().advanceTicks(ticks);
+        }
+    }
+
+    record RemoveTestEntities(String label) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().removeAllTestEntities();
+        }
+    }
+
+    record RemoveTestPlayers(String label) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.backend().removeAllTestPlayers();
+        }
+    }
+
+    /**
+     * A step no backend has an equivalent for, such as start_server
+     */
+    record Skip(String label, String reason) implements StoryStep {
+
+        @Override
+        public void run(Execution execution) {
+            execution.skip(reason);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dragonegg.lightning.pilaf;
+
+import java.util.List;
+
+/**
+ * A story file that cannot be compiled, with every problem found in it
+ */
+public class StoryValidationException extends Exception {
+
+    private final String source;
+    private final List<String> errors;
+
+    public StoryValidationException(String source, List<String> errors) {
+        super(source + ": " + errors.size() + " error(s)\n  - " + String.join("\n  - ", errors));
+        this.source = source;
+        this.errors = List.copyOf(errors);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,420 @@
+package com.dragonegg.lightning.pilaf;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.metrics.Counter;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.trace.CastTraceBuffer;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * MockBukkit backend that runs the real plugin with time stepped in ticks
+ *
+ * The plugin is loaded on a MockBukkit server and every action goes through
+ * it: casts hit real mock entities, strikes are scheduled on MockBukkit's
+ * scheduler, and cooldowns are read from a clock that moves 50 ms per tick.
+ * advanceTicks(1200) therefore runs a full 60 second cooldown in
+ * milliseconds, and the result is the same on every run.
+ *
+ * Waits are counted in ticks too: awaitCondition steps the server one tick
+ * at a time until the condition holds or the timeout's worth of ticks has
+ * passed, so no story sleeps on this backend.
+ *
+ * MockBukkit is a JVM-wide singleton, so only one of these backends can be
+ * initialized at a time. Others block in initialize() until it is cleaned
+ * up, and the backend keeps PilafBackend's single-worker default.
+ *
+ * It shares no state with MockBukkitBackend, whose in-memory stand-ins and
+ * change signalling have no use when the real plugin runs on MockBukkit.
+ *
+ * Performance is read from the plugin's own metrics: the tick profiler for
+ * plugin time per tick, the cast and effect packet counters, and the cast
+ * trace for entities scanned and ticks to the first strike.
+ */
+public class TickSteppingMockBukkitBackend implements PilafBackend {
+
+    static final long MILLIS_PER_TICK = 50L;
+
+    private static final Semaphore MOCK_SERVER = new Semaphore(1);
+    private static final double MOVE_DISTANCE = 3.0;
+
+    private final Map<String, Entity> entities = new HashMap<>();
+    private final Map<String, PlayerMock> players = new HashMap<>();
+    private final List<String> receivedCommands = new ArrayList<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    private ServerMock server;
+    private WorldMock world;
+    private DragonEggLightningPlugin plugin;
+
+    // Performance window since markPerformance()
+    private long ticksSinceMark;
+    private long worstTickNanos;
+    private long castsAtMark;
+    private long packetsAtMark;
+    private long traceAtMark;
+
+    @Override
+    public String getType() {
+        return "MockBukkit-ticks";
+    }
+
+    @Override
+    public void initialize() throws Exception {
+        if (server != null) {
+            return;
+        }
+        MOCK_SERVER.acquire();
+        try {
+            System.out.println("🔧 Loading DragonEggLightning on MockBukkit...");
+            server = MockBukkit.mock();
+            plugin = MockBukkit.load(DragonEggLightningPlugin.class);
+            world = server.addSimpleWorld("pilaf");
+            clock.set(System.currentTimeMillis());
+            plugin.getAbilityManager().setClock(clock::get);
+            System.out.println("✅ Tick-stepping MockBukkit backend initialized");
+        } catch (RuntimeException e) {
+            unmock();
+            throw new Exception("Failed to load the plugin on MockBukkit", e);
+        }
+    }
+
+    @Override
+    public void cleanup() throws Exception {
+        if (server != null) {
+            System.out.println("🧹 Unloading DragonEggLightning from MockBukkit...");
+            unmock();
+        }
+    }
+
+    private void unmock() {
+        try {
+            if (MockBukkit.isMocked()) {
+                MockBukkit.unmock();
+            }
+        } finally {
+            entities.clear();
+            players.clear();
+            receivedCommands.clear();
+            server = null;
+            world = null;
+            plugin = null;
+            MOCK_SERVER.release();
+        }
+    }
+
+    /**
+     * The loaded plugin, for assertions on its own state
+     */
+    public DragonEggLightningPlugin getPlugin() {
+        return requireServer(plugin);
+    }
+
+    /**
+     * Current tick of the mock scheduler
+     */
+    public long getCurrentTick() {
+        return requireServer(server).getScheduler().getCurrentTick();
+    }
+
+    @Override
+    public void advanceTicks(int ticks) {
+        ServerMock server = requireServer(this.server);
+        for (int i = 0; i < ticks; i++) {
+            tick(server);
+        }
+    }
+
+    /**
+     * Step a wait in ticks, rounded up, so a story's wait step moves the cooldown clock too
+     */
+    @Override
+    public void waitFor(Duration duration) {
+        advanceTicks((int) Math.ceilDiv(duration.toMillis(), MILLIS_PER_TICK));
+    }
+
+    private void tick(ServerMock server) {
+        clock.addAndGet(MILLIS_PER_TICK);
+        server.getScheduler().performOneTick();
+        // MockBukkit fires no tick-end event, so close the profiler's tick here
+        plugin.getMetrics().getTickProfiler().endTick(System.nanoTime());
+        worstTickNanos = Math.max(worstTickNanos, plugin.getMetrics().getTickProfiler().getLastTickNanos());
+        ticksSinceMark++;
+    }
+
+    @Override
+    public boolean awaitCondition(BooleanSupplier condition, Duration timeout) {
+        ServerMock server = requireServer(this.server);
+        long ticks = Math.max(1L, timeout.toMillis() / MILLIS_PER_TICK);
+        for (long i = 0; i < ticks; i++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            tick(server);
+        }
+        return condition.getAsBoolean();
+    }
+
+    // Performance
+
+    @Override
+    public void markPerformance() {
+        DragonEggLightningPlugin plugin = requireServer(this.plugin);
+        ticksSinceMark = 0;
+        worstTickNanos = 0;
+        castsAtMark = counter(plugin.getMetrics(), "dragonegg_casts_total");
+        packetsAtMark = counter(plugin.getMetrics(), "dragonegg_effect_packets_total");
+        traceAtMark = plugin.getCastTrace().getRecordCount();
+    }
+
+    @Override
+    public PilafPerformance readPerformance() {
+        DragonEggLightningPlugin plugin = requireServer(this.plugin);
+        long traced = 0;
+        long maxPackets = 0;
+        long maxScanned = 0;
+        long maxLatency = 0;
+        long[] records = plugin.getCastTrace().snapshot();
+        for (int base = 0; base < records.length; base += CastTraceBuffer.RECORD_LONGS) {
+            // Published records carry sequence 2n + 2 for the n-th record written
+            if ((records[base + CastTraceBuffer.SEQUENCE] - 2) / 2 < traceAtMark) {
+                continue;
+            }
+            long counts = records[base + CastTraceBuffer.COUNTS];
+            traced++;
+            maxPackets = Math.max(maxPackets, records[base + CastTraceBuffer.PACKETS]);
+            maxScanned = Math.max(maxScanned, counts >>> 32);
+            if ((counts & 0xFF) > 0) {
+                maxLatency = Math.max(maxLatency, records[base + CastTraceBuffer.STRIKE_TICKS_0] & 0xFFFF);
+            }
+        }
+        return new PilafPerformance(ticksSinceMark, worstTickNanos,
+            counter(plugin.getMetrics(), "dragonegg_casts_total") - castsAtMark,
+            counter(plugin.getMetrics(), "dragonegg_effect_packets_total") - packetsAtMark,
+            traced, maxPackets, maxScanned, maxLatency);
+    }
+
+    private static long counter(MetricsRegistry metrics, String name) {
+        return metrics.get(name) instanceof Counter counter ? counter.get() : 0L;
+    }
+
+    // Players
+
+    @Override
+    public void addPlayer(String playerName, List<Double> location) {
+        PlayerMock previous = players.remove(playerName);
+        if (previous != null) {
+            previous.disconnect();
+        }
+        PlayerMock player = requireServer(server).addPlayer(playerName);
+        player.teleport(location(location));
+        players.put(playerName, player);
+        System.out.println("👤 MockBukkit: Added " + playerName + " at " + location);
+    }
+
+    @Override
+    public void movePlayer(String playerName, String destinationType, String destination) {
+        PlayerMock player = player(playerName);
+        Location target;
+        if ("entity".equals(destinationType)) {
+            // Stand a few blocks off and face the entity so casts pick it as the target
+            Location at = entity(destination).getLocation();
+            target = at.clone().add(-MOVE_DISTANCE, 0, 0);
+            target.setDirection(at.toVector().subtract(target.toVector()));
+        } else {
+            String[] parts = destination.trim().split("[\\s,]+");
+            target = new Location(world, Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                Double.parseDouble(parts[2]));
+        }
+        player.teleport(target);
+        System.out.println("🎮 MockBukkit: Moved " + playerName + " to " + target.toVector());
+    }
+
+    @Override
+    public void equipItem(String playerName, String item, String slot) {
+        PlayerMock player = player(playerName);
+        ItemStack stack = new ItemStack(material(item));
+        if ("offhand".equalsIgnoreCase(slot)) {
+            player.getInventory().setItemInOffHand(stack);
+        } else {
+            player.getInventory().setItemInMainHand(stack);
+        }
+    }
+
+    @Override
+    public void useItem(String playerName, String item, String target) {
+        PlayerMock player = player(playerName);
+        if (target != null && entities.containsKey(target)) {
+            movePlayer(playerName, "entity", target);
+        }
+        ItemStack offhand = player.getInventory().getItemInOffHand();
+        boolean inOffhand = offhand.getType() == material(item);
+        ItemStack used = inOffhand ? offhand : player.getInventory().getItemInMainHand();
+        server.getPluginManager().callEvent(new PlayerInteractEvent(
+            player, Action.RIGHT_CLICK_AIR, used, null, BlockFace.SELF,
+            inOffhand ? EquipmentSlot.OFF_HAND : EquipmentSlot.HAND
+        ));
+    }
+
+    @Override
+    public void executePlayerCommand(String playerName, String command, List<String> arguments) {
+        PlayerMock player = player(playerName);
+        receivedCommands.add(command + " " + playerName);
+        // /ability is a Brigadier command that MockBukkit cannot dispatch
+        if ("ability".equals(command) && !arguments.isEmpty() && arguments.get(0).matches("\\d+")) {
+            AbilityManager abilities = plugin.getAbilityManager();
+            Ability ability = abilities.getAbility(Integer.parseInt(arguments.get(0)));
+            if (ability != null && !abilities.isOnCooldown(player)) {
+                abilities.useAbility(player, ability);
+            }
+            return;
+        }
+        player.performCommand(command + (arguments.isEmpty() ? "" : " " + String.join(" ", arguments)));
+    }
+
+    @Override
+    public void sendChat(String playerName, String message) {
+        player(playerName).chat(message);
+    }
+
+    @Override
+    public void giveItem(String playerName, String item, Integer count) {
+        player(playerName).getInventory().addItem(new ItemStack(material(item), count));
+    }
+
+    @Override
+    public boolean playerInventoryContains(String playerName, String item, String slot) {
+        PlayerMock player = player(playerName);
+        Material material = material(item);
+        return switch (slot.toLowerCase(Locale.ROOT)) {
+            case "offhand" -> player.getInventory().getItemInOffHand().getType() == material;
+            case "hand", "mainhand" -> player.getInventory().getItemInMainHand().getType() == material;
+            default -> player.getInventory().contains(material);
+        };
+    }
+
+    @Override
+    public boolean pluginReceivedCommand(String pluginName, String command, String playerName) {
+        return receivedCommands.contains(command + " " + playerName);
+    }
+
+    @Override
+    public void removeAllTestPlayers() {
+        for (PlayerMock player : players.values()) {
+            plugin.getAbilityManager().clearCooldown(player);
+            player.disconnect();
+        }
+        players.clear();
+        receivedCommands.clear();
+    }
+
+    // Entities
+
+    @Override
+    public void spawnEntity(String name, String entityType, List<Double> location, Map<String, String> equipment) {
+        EntityType type = EntityType.valueOf(entityType.toUpperCase(Locale.ROOT));
+        Entity entity = requireServer(world).spawnEntity(location(location), type);
+        entity.customName(Component.text(name));
+        if (equipment != null && entity instanceof LivingEntity living && living.getEquipment() != null) {
+            EntityEquipment slots = living.getEquipment();
+            equipment.forEach((slot, item) ->
+                slots.setItem(EquipmentSlot.valueOf(slot.toUpperCase(Locale.ROOT)), new ItemStack(material(item))));
+        }
+        Entity previous = entities.put(name, entity);
+        if (previous != null) {
+            previous.remove();
+        }
+        System.out.println("🌟 MockBukkit: Spawned " + name + " (" + type + ") at " + location);
+    }
+
+    @Override
+    public void setEntityHealth(String entityName, Double health) {
+        if (entity(entityName) instanceof LivingEntity living) {
+            living.setHealth(health);
+        }
+    }
+
+    @Override
+    public boolean entityExists(String entityName) {
+        Entity entity = entities.get(entityName);
+        return entity != null && !entity.isDead();
+    }
+
+    @Override
+    public double getEntityHealth(String entityName) {
+        Entity entity = entities.get(entityName);
+        return entity instanceof LivingEntity living ? living.getHealth() : 0.0;
+    }
+
+    @Override
+    public void executeServerCommand(String command, List<String> arguments) {
+        ServerMock server = requireServer(this.server);
+        String line = command + (arguments.isEmpty() ? "" : " " + String.join(" ", arguments));
+        server.dispatchCommand(server.getConsoleSender(), line);
+    }
+
+    @Override
+    public void removeAllTestEntities() {
+        entities.values().forEach(Entity::remove);
+        entities.clear();
+    }
+
+    // Lookups
+
+    private PlayerMock player(String playerName) {
+        PlayerMock player = players.get(playerName);
+        if (player == null) {
+            throw new IllegalArgumentException("Unknown player: " + playerName);
+        }
+        return player;
+    }
+
+    private Entity entity(String entityName) {
+        Entity entity = entities.get(entityName);
+        if (entity == null) {
+            throw new IllegalArgumentException("Unknown entity: " + entityName);
+        }
+        return entity;
+    }
+
+    private Location location(List<Double> location) {
+        return new Location(requireServer(world), location.get(0), location.get(1), location.get(2));
+    }
+
+    private static Material material(String item) {
+        Material material = Material.matchMaterial(item);
+        if (material == null) {
+            throw new IllegalArgumentException("Unknown item: " + item);
+        }
+        return material;
+    }
+
+    private static <T> T requireServer(T value) {
+        if (value == null) {
+            throw new IllegalStateException("Backend not initialized");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,140 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.listener.AbilityActivationListener;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the right-click activation path.
+ */
+class AbilityActivationListenerTest {
+
+  private AbilityManager abilityManager;
+  private Ability ability;
+  private AbilityActivationListener listener;
+  private Player player;
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+
+  @BeforeEach
+  void setUp() {
+    abilityManager = mock(AbilityManager.class);
+    ability = mock(Ability.class);
+    when(abilityManager.getAbility(1)).thenReturn(ability);
+    when(abilityManager.currentTimeMillis()).thenAnswer(invocation -> now.get());
+    listener = new AbilityActivationListener(null, abilityManager);
+
+    player = mock(Player.class);
+    when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+    when(player.hasPermission("dragonegg.ability")).thenReturn(true);
+  }
+
+  @Test
+  @DisplayName("Offhand right-click with a Dragon Egg casts the ability")
+  void testOffhandRightClickCasts() {
+    PlayerInteractEvent event = interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG);
+
+    listener.onPlayerInteract(event);
+
+    verify(abilityManager).useAbility(player, ability);
+    verify(event).setUseItemInHand(Event.Result.DENY);
+  }
+
+  @Test
+  @DisplayName("Rapid repeated clicks are debounced")
+  void testDebounce() {
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    PlayerInteractEvent debounced = interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_BLOCK, Material.DRAGON_EGG);
+    listener.onPlayerInteract(debounced);
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+
+    verify(abilityManager, times(1)).useAbility(player, ability);
+    verify(debounced, never()).setUseItemInHand(any());
+  }
+
+  @Test
+  @DisplayName("The debounce window runs on the ability manager's clock")
+  void testDebounceUsesManagerClock() {
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    now.addAndGet(249);
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    verify(abilityManager, times(1)).useAbility(player, ability);
+
+    now.addAndGet(1);
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    verify(abilityManager, times(2)).useAbility(player, ability);
+  }
+
+  @Test
+  @DisplayName("Quitting resets the debounce window")
+  void testQuitClearsDebounce() {
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+
+    PlayerQuitEvent quit = mock(PlayerQuitEvent.class);
+    when(quit.getPlayer()).thenReturn(player);
+    listener.onPlayerQuit(quit);
+
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    verify(abilityManager, times(2)).useAbility(player, ability);
+  }
+
+  @Test
+  @DisplayName("Main hand clicks, left clicks and other items are ignored")
+  void testIgnoredInteractions() {
+    listener.onPlayerInteract(interact(EquipmentSlot.HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.LEFT_CLICK_AIR, Material.DRAGON_EGG));
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.SHIELD));
+
+    verify(abilityManager, never()).useAbility(any(), any());
+  }
+
+  @Test
+  @DisplayName("Players on cooldown are not cast for")
+  void testCooldownSkipsCast() {
+    when(abilityManager.isOnCooldown(player)).thenReturn(true);
+
+    listener.onPlayerInteract(interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_AIR, Material.DRAGON_EGG));
+
+    verify(abilityManager, never()).useAbility(any(), any());
+  }
+
+  @Test
+  @DisplayName("Players without permission cannot cast")
+  void testPermissionRequired() {
+    when(player.hasPermission("dragonegg.ability")).thenReturn(false);
+    PlayerInteractEvent event = interact(EquipmentSlot.OFF_HAND, Action.RIGHT_CLICK_BLOCK, Material.DRAGON_EGG);
+
+    listener.onPlayerInteract(event);
+
+    verify(abilityManager, never()).useAbility(any(), any());
+    // Without the ability the egg places as usual
+    verify(event, never()).setUseItemInHand(any());
+  }
+
+  private PlayerInteractEvent interact(EquipmentSlot hand, Action action, Material material) {
+    ItemStack item = mock(ItemStack.class);
+    when(item.getType()).thenReturn(material);
+
+    PlayerInteractEvent event = mock(PlayerInteractEvent.class);
+    when(event.getHand()).thenReturn(hand);
+    when(event.getAction()).thenReturn(action);
+    when(event.getItem()).thenReturn(item);
+    when(event.getPlayer()).thenReturn(player);
+    return event;
+  }
+}
@@ -0,0 +1,147 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.command.AbilityCommand;
+import com.dragonegg.lightning.command.CommandRateLimiter;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.suggestion.Suggestion;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the /ability Brigadier tree, dispatched without a server.
+ */
+class AbilityCommandTest {
+
+  private AbilityManager abilityManager;
+  private Ability ability;
+  private Player player;
+  private CommandSourceStack source;
+
+  @BeforeEach
+  void setUp() {
+    abilityManager = mock(AbilityManager.class);
+    ability = mock(Ability.class);
+    when(abilityManager.getAbilityIds()).thenReturn(new int[] {1});
+    when(abilityManager.getAbility(1)).thenReturn(ability);
+    when(abilityManager.useAbility(any(), any())).thenReturn(AbilityManager.UseResult.STARTED);
+    when(ability.hasRequiredItem(any())).thenReturn(true);
+
+    player = mock(Player.class);
+    when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+    when(player.hasPermission("dragonegg.ability")).thenReturn(true);
+    source = mock(CommandSourceStack.class);
+    when(source.getSender()).thenReturn(player);
+  }
+
+  private CommandDispatcher<CommandSourceStack> dispatcher(CommandRateLimiter rateLimiter) {
+    DragonEggLightningPlugin plugin = mock(DragonEggLightningPlugin.class);
+    when(plugin.getMetrics()).thenReturn(new MetricsRegistry());
+    CommandDispatcher<CommandSourceStack> dispatcher = new CommandDispatcher<>();
+    dispatcher.getRoot().addChild(new AbilityCommand(plugin, abilityManager, rateLimiter).createNode());
+    return dispatcher;
+  }
+
+  private CommandDispatcher<CommandSourceStack> dispatcher() {
+    return dispatcher(new CommandRateLimiter(10, 10.0));
+  }
+
+  @Test
+  @DisplayName("/ability 1 casts the ability")
+  void testCast() throws CommandSyntaxException {
+    dispatcher().execute("ability 1", source);
+
+    verify(abilityManager).useAbility(player, ability);
+  }
+
+  @Test
+  @DisplayName("Re-issuing a queued cast is not reported as a failure")
+  void testAlreadyQueued() throws CommandSyntaxException {
+    when(abilityManager.useAbility(any(), any())).thenReturn(AbilityManager.UseResult.ALREADY_QUEUED);
+
+    dispatcher().execute("ability 1", source);
+
+    verify(abilityManager).useAbility(player, ability);
+    // The manager already told the player the cast is queued
+    verify(player, never()).sendMessage(any(Component.class));
+  }
+
+  @Test
+  @DisplayName("Casts that fail to start report the failure")
+  void testFailed() throws CommandSyntaxException {
+    when(abilityManager.useAbility(any(), any())).thenReturn(AbilityManager.UseResult.FAILED);
+
+    dispatcher().execute("ability 1", source);
+
+    verify(player).sendMessage(any(Component.class));
+  }
+
+  @Test
+  @DisplayName("Ability numbers below 1 are rejected by the argument")
+  void testZeroRejected() {
+    assertThrows(CommandSyntaxException.class, () -> dispatcher().execute("ability 0", source));
+
+    verify(abilityManager, never()).useAbility(any(), any());
+  }
+
+  @Test
+  @DisplayName("Admin subcommands are hidden from players without the admin permission")
+  void testAdminSubcommandsNeedPermission() {
+    CommandDispatcher<CommandSourceStack> dispatcher = dispatcher();
+
+    List<String> usage = List.of(dispatcher.getAllUsage(dispatcher.getRoot(), source, true));
+    assertTrue(usage.contains("ability version"), usage.toString());
+    for (String admin : List.of("ability reload", "ability profile", "ability trace dump")) {
+      assertFalse(usage.contains(admin), admin + " should need dragonegg.admin");
+    }
+    assertThrows(CommandSyntaxException.class, () -> dispatcher.execute("ability reload", source));
+
+    when(player.hasPermission("dragonegg.admin")).thenReturn(true);
+    usage = List.of(dispatcher.getAllUsage(dispatcher.getRoot(), source, true));
+    assertTrue(usage.containsAll(List.of("ability reload", "ability profile", "ability trace dump")),
+      usage.toString());
+  }
+
+  @Test
+  @DisplayName("Suggestions list ability numbers and permitted subcommands")
+  void testSuggestions() {
+    CommandDispatcher<CommandSourceStack> dispatcher = dispatcher();
+
+    List<String> all = dispatcher.getCompletionSuggestions(dispatcher.parse("ability ", source)).join()
+      .getList().stream().map(Suggestion::getText).toList();
+    assertTrue(all.containsAll(List.of("1", "about", "help", "version")), all.toString());
+    assertFalse(all.contains("reload"), all.toString());
+
+    List<String> numbers = dispatcher.getCompletionSuggestions(dispatcher.parse("ability 1", source)).join()
+      .getList().stream().map(Suggestion::getText).toList();
+    assertEquals(List.of("1"), numbers);
+  }
+
+  @Test
+  @DisplayName("Throttled attempts do not reach the ability")
+  void testThrottled() throws CommandSyntaxException {
+    CommandDispatcher<CommandSourceStack> dispatcher = dispatcher(new CommandRateLimiter(1, 0.0));
+
+    dispatcher.execute("ability 1", source);
+    dispatcher.execute("ability 1", source);
+    dispatcher.execute("ability 1", source);
+
+    verify(abilityManager, times(1)).useAbility(player, ability);
+    // One slow-down notice, no cooldown or failure messages
+    verify(player, times(1)).sendMessage(any(Component.class));
+  }
+}
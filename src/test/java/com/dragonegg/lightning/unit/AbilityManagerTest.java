@@ -1,11 +1,17 @@
 package com.dragonegg.lightning.unit;
 
+import com.dragonegg.lightning.ability.Ability;
 import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.ability.CastAdmissionController;
 import com.dragonegg.lightning.ability.LightningAbility;
+import com.dragonegg.lightning.metrics.Gauge;
+import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +19,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -115,6 +123,37 @@ class AbilityManagerTest {
       "Cooldown should persist across logout/login");
   }
 
+  @Test
+  void testCooldownPersistsThroughQuitAndRejoin() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+
+    abilityManager.setCooldown(mockPlayer, 60);
+
+    // Quitting parks the cooldown in the offline tier
+    PlayerQuitEvent quitEvent = mock(PlayerQuitEvent.class);
+    when(quitEvent.getPlayer()).thenReturn(mockPlayer);
+    abilityManager.onPlayerQuit(quitEvent);
+    assertEquals(1, abilityManager.getCooldownEntryCount(),
+      "Cooldown should be kept while the player is offline");
+
+    PlayerJoinEvent joinEvent = mock(PlayerJoinEvent.class);
+    when(joinEvent.getPlayer()).thenReturn(mockPlayer);
+    abilityManager.onPlayerJoin(joinEvent);
+
+    assertTrue(abilityManager.isOnCooldown(mockPlayer),
+      "Cooldown should persist across quit and rejoin");
+  }
+
+  @Test
+  void testSweepDropsExpiredCooldowns() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+
+    abilityManager.setCooldown(mockPlayer, 0);
+    assertEquals(1, abilityManager.sweepExpiredCooldowns(),
+      "Expired cooldown should be swept");
+    assertEquals(0, abilityManager.getCooldownEntryCount());
+  }
+
   @Test
   void testCooldownExpiration() throws InterruptedException {
     var mockPlayer = createMockPlayerWithDragonEgg();
@@ -133,6 +172,78 @@ class AbilityManagerTest {
       "Should be able to use ability after cooldown expires");
   }
 
+  @Test
+  void testCooldownFollowsInjectedClock() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    AtomicLong now = new AtomicLong(1_000_000L);
+    abilityManager.setClock(now::get);
+
+    abilityManager.setCooldown(mockPlayer, 60);
+    now.addAndGet(59_000L);
+    assertEquals(1, abilityManager.getRemainingCooldown(mockPlayer));
+
+    // A full minute passes on the clock without any real waiting
+    now.addAndGet(1_000L);
+    assertFalse(abilityManager.isOnCooldown(mockPlayer),
+      "Cooldown should expire when the clock reaches its end");
+  }
+
+  @Test
+  void testCooldownStartsBeforeCastRuns() {
+    var mockPlayer = createMockPlayerInWorld();
+    Ability ability = mock(Ability.class);
+    when(ability.hasRequiredItem(mockPlayer)).thenReturn(true);
+    when(ability.getCooldownMillis()).thenReturn(60_000L);
+    AtomicBoolean onCooldownDuringCast = new AtomicBoolean();
+    when(ability.execute(eq(mockPlayer), anyInt())).thenAnswer(invocation -> {
+      // A cast that ends on its first strike frees its slot right here
+      onCooldownDuringCast.set(abilityManager.isOnCooldown(mockPlayer));
+      return true;
+    });
+
+    assertEquals(AbilityManager.UseResult.STARTED, abilityManager.useAbility(mockPlayer, ability));
+
+    assertTrue(onCooldownDuringCast.get(), "Cooldown should be set before the first strike");
+    assertTrue(abilityManager.isOnCooldown(mockPlayer));
+  }
+
+  @Test
+  void testFailedCastKeepsNoCooldown() {
+    var mockPlayer = createMockPlayerInWorld();
+    Ability ability = mock(Ability.class);
+    when(ability.hasRequiredItem(mockPlayer)).thenReturn(true);
+    when(ability.getCooldownMillis()).thenReturn(60_000L);
+    when(ability.execute(eq(mockPlayer), anyInt())).thenReturn(false);
+
+    assertEquals(AbilityManager.UseResult.FAILED, abilityManager.useAbility(mockPlayer, ability));
+
+    assertFalse(abilityManager.isOnCooldown(mockPlayer),
+      "A cast that found no target should not start a cooldown");
+    assertEquals(0, abilityManager.getCooldownEntryCount());
+  }
+
+  @Test
+  void testReissueWhileQueued() {
+    var mockPlayer = createMockPlayerInWorld();
+    Ability ability = mock(Ability.class);
+    when(ability.hasRequiredItem(mockPlayer)).thenReturn(true);
+    // One slot, already held by another caster in the same region
+    CastAdmissionController admission = abilityManager.getCastAdmission();
+    admission.setLimits(1, 1, 8, 2_000L);
+    admission.admit(
+      UUID.randomUUID(),
+      CastAdmissionController.Region.of(mockPlayer.getWorld().getUID(), 0, 0, 8),
+      () -> { },
+      () -> { }
+    );
+
+    assertEquals(AbilityManager.UseResult.QUEUED, abilityManager.useAbility(mockPlayer, ability));
+    assertEquals(AbilityManager.UseResult.ALREADY_QUEUED, abilityManager.useAbility(mockPlayer, ability),
+      "A second attempt while queued should say so rather than fail");
+    assertEquals(1, abilityManager.getCastQueueLength());
+    verify(ability, never()).execute(any(), anyInt());
+  }
+
   // === HELPER TESTS ===
 
   @Test
@@ -193,6 +304,26 @@ class AbilityManagerTest {
       "Should not be able to use ability when on cooldown, even with required item");
   }
 
+  @Test
+  void testCooldownGaugeTracksStore() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Gauge entries = (Gauge) abilityManager.getMetrics().get("dragonegg_cooldown_entries");
+
+    assertNotNull(entries, "Cooldown size should be exported as a gauge");
+    assertEquals(0, entries.get());
+    abilityManager.setCooldown(mockPlayer, 60);
+    assertEquals(1, entries.get());
+  }
+
+  @Test
+  void testAbilityRegistryLookup() {
+    assertNotNull(abilityManager.getAbility(1), "Lightning ability should be registered as 1");
+    assertNull(abilityManager.getAbility(0), "Ability IDs start at 1");
+    assertNull(abilityManager.getAbility(99), "Unknown ability IDs should return null");
+    assertArrayEquals(new int[] {1}, abilityManager.getAbilityIds(),
+      "Registered IDs should be listed for command suggestions");
+  }
+
   // === EDGE CASES ===
 
   @Test
@@ -234,6 +365,18 @@ class AbilityManagerTest {
     return mockPlayer;
   }
 
+  /**
+   * Create a mock player with a dragon egg, standing in a world.
+   */
+  private Player createMockPlayerInWorld() {
+    Player mockPlayer = createMockPlayerWithDragonEgg();
+    World world = mock(World.class);
+    when(world.getUID()).thenReturn(UUID.randomUUID());
+    when(mockPlayer.getWorld()).thenReturn(world);
+    when(mockPlayer.getLocation()).thenReturn(new Location(world, 0, 64, 0));
+    return mockPlayer;
+  }
+
   /**
    * Create a mock player without a dragon egg.
    */
@@ -0,0 +1,106 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.ActiveCast;
+import com.dragonegg.lightning.ability.ActiveCastRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-flight cast registry used to cancel casts on quit,
+ * world change and plugin disable.
+ */
+class ActiveCastRegistryTest {
+
+  private ActiveCastRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new ActiveCastRegistry();
+  }
+
+  @Test
+  @DisplayName("Cancelling a caster stops their cast and frees the slot")
+  void testCancelStopsCast() {
+    UUID caster = UUID.randomUUID();
+    CountingCast cast = new CountingCast(registry, caster);
+    registry.register(caster, cast);
+
+    assertEquals(1, registry.size());
+    assertTrue(registry.cancel(caster), "Cast should be cancelled");
+    assertEquals(1, cast.stops, "Cast should be stopped exactly once");
+    assertEquals(0, registry.size(), "Registry should not leak cancelled casts");
+    assertFalse(registry.cancel(caster), "Nothing left to cancel");
+  }
+
+  @Test
+  @DisplayName("Finished casts unregister themselves")
+  void testFinishedCastUnregisters() {
+    UUID caster = UUID.randomUUID();
+    CountingCast cast = new CountingCast(registry, caster);
+    registry.register(caster, cast);
+
+    cast.stop();
+
+    assertFalse(registry.isCasting(caster));
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  @DisplayName("A new cast by the same caster replaces and stops the old one")
+  void testReplacePreviousCast() {
+    UUID caster = UUID.randomUUID();
+    CountingCast first = new CountingCast(registry, caster);
+    CountingCast second = new CountingCast(registry, caster);
+
+    registry.register(caster, first);
+    registry.register(caster, second);
+
+    assertEquals(1, first.stops, "Previous cast should be stopped");
+    assertEquals(0, second.stops);
+    assertEquals(1, registry.size());
+    assertTrue(registry.isCasting(caster), "Replacement cast must stay registered");
+  }
+
+  @Test
+  @DisplayName("cancelAll stops every in-flight cast")
+  void testCancelAll() {
+    CountingCast[] casts = new CountingCast[5];
+    for (int i = 0; i < casts.length; i++) {
+      UUID caster = UUID.randomUUID();
+      casts[i] = new CountingCast(registry, caster);
+      registry.register(caster, casts[i]);
+    }
+
+    assertEquals(5, registry.cancelAll());
+    assertEquals(0, registry.size());
+    for (CountingCast cast : casts) {
+      assertEquals(1, cast.stops);
+    }
+  }
+
+  /**
+   * Cast stub that unregisters itself when stopped, like LightningAbility's casts.
+   */
+  private static final class CountingCast implements ActiveCast {
+    private final ActiveCastRegistry registry;
+    private final UUID caster;
+    private int stops;
+
+    CountingCast(ActiveCastRegistry registry, UUID caster) {
+      this.registry = registry;
+      this.caster = caster;
+    }
+
+    @Override
+    public void stop() {
+      if (stops++ == 0) {
+        registry.unregister(caster, this);
+      }
+    }
+  }
+}
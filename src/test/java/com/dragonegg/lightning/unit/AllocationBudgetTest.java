@@ -0,0 +1,112 @@
+package com.dragonegg.lightning.unit;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.ability.Ability;
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.hud.HudManager;
+import com.dragonegg.lightning.perf.AllocationMeter;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Heap allocation budgets for the hot paths that run every tick or every cast.
+ *
+ * Budgets are ceilings well above the expected steady state, including
+ * MockBukkit's own overhead, so they catch a change that adds per-call
+ * garbage rather than ordinary noise. Raise one only with a reason. The
+ * strike budget is in StrikeAllocationBudgetTest, next to the package-private
+ * strike method.
+ */
+class AllocationBudgetTest {
+
+  /** One HUD pass, per player holding a Dragon Egg (builds one action bar). */
+  private static final double HUD_BYTES_PER_HOLDER = 4096;
+
+  /** Cooldown checks should not allocate at all once warmed up. */
+  private static final double CAN_USE_BYTES_PER_CALL = 64;
+  private static final double REMAINING_COOLDOWN_BYTES_PER_CALL = 64;
+
+  private static final int HUD_HOLDERS = 100;
+
+  private ServerMock server;
+
+  @BeforeEach
+  void setUp() {
+    assumeTrue(AllocationMeter.isSupported(), "JVM does not report per-thread allocation");
+    server = MockBukkit.mock();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  private PlayerMock playerWithEgg() {
+    PlayerMock player = server.addPlayer();
+    player.getInventory().setItemInOffHand(new ItemStack(Material.DRAGON_EGG));
+    return player;
+  }
+
+  @Test
+  @DisplayName("HUD pass stays within its per-holder budget")
+  void testHudPassBudget() {
+    AbilityManager abilityManager = new AbilityManager(null);
+    HudManager hudManager = new HudManager(null, abilityManager);
+    for (int i = 0; i < HUD_HOLDERS; i++) {
+      PlayerMock player = playerWithEgg();
+      if (i % 2 == 0) {
+        abilityManager.setCooldown(player, 3600);
+      }
+    }
+
+    double perPass = AllocationMeter.bytesPerRun(200, 200, hudManager::updateAllPlayerHuds);
+    double perHolder = perPass / HUD_HOLDERS;
+
+    assertTrue(perHolder <= HUD_BYTES_PER_HOLDER,
+      "HUD pass allocated " + perHolder + " bytes per holder, budget " + HUD_BYTES_PER_HOLDER);
+  }
+
+  @Test
+  @DisplayName("canUseAbility stays within its budget")
+  void testCanUseAbilityBudget() {
+    AbilityManager abilityManager = new AbilityManager(null);
+    Ability ability = abilityManager.getAbility(1);
+    PlayerMock ready = playerWithEgg();
+    PlayerMock cooling = playerWithEgg();
+    abilityManager.setCooldown(cooling, 3600);
+
+    double bytes = AllocationMeter.bytesPerCall(20_000, 100_000, () ->
+      (abilityManager.canUseAbility(ready, ability) ? 1 : 0)
+        + (abilityManager.canUseAbility(cooling, ability) ? 2 : 0)
+    ) / 2;
+
+    assertTrue(bytes <= CAN_USE_BYTES_PER_CALL,
+      "canUseAbility allocated " + bytes + " bytes per call, budget " + CAN_USE_BYTES_PER_CALL);
+  }
+
+  @Test
+  @DisplayName("getRemainingCooldown stays within its budget")
+  void testRemainingCooldownBudget() {
+    AbilityManager abilityManager = new AbilityManager(null);
+    PlayerMock ready = playerWithEgg();
+    PlayerMock cooling = playerWithEgg();
+    abilityManager.setCooldown(cooling, 3600);
+
+    double bytes = AllocationMeter.bytesPerCall(20_000, 100_000, () ->
+      abilityManager.getRemainingCooldown(ready) + abilityManager.getRemainingCooldown(cooling)
+    ) / 2;
+
+    assertTrue(bytes <= REMAINING_COOLDOWN_BYTES_PER_CALL,
+      "getRemainingCooldown allocated " + bytes + " bytes per call, budget "
+        + REMAINING_COOLDOWN_BYTES_PER_CALL);
+  }
+}
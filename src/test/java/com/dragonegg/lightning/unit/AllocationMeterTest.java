@@ -0,0 +1,44 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.perf.AllocationMeter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Sanity checks for the per-thread allocation meter.
+ */
+class AllocationMeterTest {
+
+  @Test
+  @DisplayName("Escaping arrays are counted at roughly their size")
+  void testCountsAllocations() {
+    assumeTrue(AllocationMeter.isSupported());
+    Object[] keep = new Object[1];
+
+    double bytes = AllocationMeter.bytesPerCall(1_000, 1_000, () -> {
+      byte[] array = new byte[1024];
+      keep[0] = array;
+      return array.length;
+    });
+
+    assertTrue(bytes >= 1024, "Expected at least 1 KiB per call, got " + bytes);
+    assertTrue(bytes < 2048, "Expected about 1 KiB per call, got " + bytes);
+  }
+
+  @Test
+  @DisplayName("Arithmetic-only actions report close to zero")
+  void testAllocationFreeAction() {
+    assumeTrue(AllocationMeter.isSupported());
+    long[] state = {1L};
+
+    double bytes = AllocationMeter.bytesPerCall(10_000, 100_000, () -> {
+      state[0] = state[0] * 31 + 7;
+      return state[0];
+    });
+
+    assertTrue(bytes < 1.0, "Expected no allocation, got " + bytes + " bytes per call");
+  }
+}
@@ -0,0 +1,191 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.pilaf.AsyncRconClient;
+import com.dragonegg.lightning.pilaf.FakeRconServer;
+import com.dragonegg.lightning.pilaf.PilafConditionWaiter;
+import com.dragonegg.lightning.pilaf.RconFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pipelined RCON client against the fake RCON server.
+ */
+class AsyncRconClientTest {
+
+  private static final String PASSWORD = "secret";
+
+  private FakeRconServer server;
+  private AsyncRconClient client;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new FakeRconServer(PASSWORD);
+    server.respond(Pattern.compile("echo (.*)"), match -> match.group(1));
+    server.respond(Pattern.compile("repeat (\\d+)"), match -> "x".repeat(Integer.parseInt(match.group(1))));
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (client != null) {
+      client.close();
+    }
+    server.close();
+  }
+
+  private AsyncRconClient connect(String password) throws IOException {
+    client = new AsyncRconClient("127.0.0.1", server.getPort(), password, Duration.ofSeconds(5));
+    client.connect();
+    return client;
+  }
+
+  @Test
+  @DisplayName("Frames round-trip and partial frames decode as null")
+  void testFrameCodec() {
+    ByteBuffer encoded = new RconFrame(7, RconFrame.TYPE_EXEC_COMMAND, "list").encode();
+    assertEquals(4 + 10 + 4, encoded.remaining());
+
+    ByteBuffer partial = encoded.duplicate().limit(encoded.limit() - 1);
+    assertNull(RconFrame.decode(partial));
+    assertEquals(0, partial.position());
+
+    RconFrame decoded = RconFrame.decode(encoded);
+    assertEquals(7, decoded.requestId());
+    assertEquals(RconFrame.TYPE_EXEC_COMMAND, decoded.type());
+    assertEquals("list", decoded.bodyText());
+    assertFalse(encoded.hasRemaining());
+  }
+
+  @Test
+  @DisplayName("Pipelined commands each get their own output")
+  void testPipelinedCommands() throws Exception {
+    connect(PASSWORD);
+    List<String> commands = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      commands.add("echo " + i);
+    }
+
+    List<CompletableFuture<String>> futures = client.executeAll(commands);
+
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals(String.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(0, client.getPendingCount());
+    assertEquals(commands, server.getCommands());
+  }
+
+  @Test
+  @DisplayName("Output split over several packets is reassembled")
+  void testFragmentedResponse() throws Exception {
+    connect(PASSWORD);
+
+    CompletableFuture<String> longOutput = client.execute("repeat 10000");
+    CompletableFuture<String> exactOutput = client.execute("repeat 4096");
+    CompletableFuture<String> after = client.execute("echo done");
+
+    assertEquals(10000, longOutput.get(5, TimeUnit.SECONDS).length());
+    assertEquals(4096, exactOutput.get(5, TimeUnit.SECONDS).length());
+    assertEquals("done", after.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("Small packets arriving a few bytes at a time are reassembled")
+  void testChunkedWrites() throws Exception {
+    server.setFragmentSize(7);
+    server.setWriteChunkSize(3);
+    connect(PASSWORD);
+
+    CompletableFuture<String> output = client.execute("echo the quick brown fox jumps over the lazy dog");
+
+    assertEquals("the quick brown fox jumps over the lazy dog", output.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("Pipelining sends every command before the first reply")
+  void testLatencyIsOverlapped() throws Exception {
+    server.setLatency(Duration.ofSeconds(2));
+    connect(PASSWORD);
+    List<String> commands = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      commands.add("echo " + i);
+    }
+
+    List<CompletableFuture<String>> futures = client.executeAll(commands);
+
+    // One at a time the second command would wait for the first reply
+    assertTrue(PilafConditionWaiter.poll(() -> server.getCommandCount() == 20, Duration.ofSeconds(30)),
+      "Server received " + server.getCommandCount() + " commands");
+    assertTrue(futures.stream().noneMatch(CompletableFuture::isDone), "A reply arrived before the last command");
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(String.valueOf(i), futures.get(i).get());
+    }
+  }
+
+  @Test
+  @DisplayName("Unscripted commands fall back to the responder")
+  void testFallbackResponder() throws Exception {
+    server.respond("list", "There are 0 of a max of 20 players online");
+    server.setResponder(command -> "Unknown or incomplete command");
+    connect(PASSWORD);
+
+    assertEquals("There are 0 of a max of 20 players online", client.execute("list").get(5, TimeUnit.SECONDS));
+    assertEquals("Unknown or incomplete command", client.execute("fly").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("A wrong password fails connect")
+  void testWrongPassword() {
+    assertThrows(AsyncRconClient.AuthenticationException.class, () -> connect("wrong"));
+    assertFalse(client.isConnected());
+  }
+
+  @Test
+  @DisplayName("A batch with an oversized command registers nothing")
+  void testOversizedBatchLeavesNothingPending() throws Exception {
+    connect(PASSWORD);
+
+    assertThrows(IllegalArgumentException.class, () -> client.executeAll(
+      List.of("echo first", "echo " + "x".repeat(RconFrame.MAX_REQUEST_BODY))));
+
+    assertEquals(0, client.getPendingCount());
+    assertEquals("still usable", client.execute("echo still usable").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("A client reconnected after close is not failed by its old reader")
+  void testReconnectAfterClose() throws Exception {
+    connect(PASSWORD);
+    for (int i = 0; i < 20; i++) {
+      client.close();
+      client.connect();
+      assertEquals("round " + i, client.execute("echo round " + i).get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  @DisplayName("Closing fails commands that are still waiting")
+  void testCloseFailsPending() throws Exception {
+    connect(PASSWORD);
+    server.setLatency(Duration.ofSeconds(30));
+    CompletableFuture<String> output = client.execute("echo late");
+    client.close();
+
+    ExecutionException error = assertThrows(ExecutionException.class, () -> output.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IOException.class, error.getCause());
+  }
+}
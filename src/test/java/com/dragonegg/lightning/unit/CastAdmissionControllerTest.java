@@ -0,0 +1,155 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.CastAdmissionController;
+import com.dragonegg.lightning.ability.CastAdmissionController.Region;
+import com.dragonegg.lightning.ability.CastAdmissionController.Result;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the global and per-region cast concurrency limiter.
+ */
+class CastAdmissionControllerTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+  private static final Region SPAWN = Region.of(WORLD, 0, 0, 8);
+  private static final Region FAR_AWAY = Region.of(WORLD, 5000, 5000, 8);
+
+  private static final Runnable NOTHING = () -> { };
+
+  @Test
+  @DisplayName("Region covers 8x8 chunks and handles negative coordinates")
+  void testRegionOf() {
+    assertEquals(Region.of(WORLD, 0, 0, 8), Region.of(WORLD, 127, 127, 8));
+    assertNotEquals(Region.of(WORLD, 0, 0, 8), Region.of(WORLD, 128, 0, 8));
+    assertEquals(-1, Region.of(WORLD, -1, -1, 8).x(), "Negative blocks belong to region -1");
+  }
+
+  @Test
+  @DisplayName("Per-region cap queues casts while other regions still get slots")
+  void testPerRegionCap() {
+    CastAdmissionController controller = new CastAdmissionController(10, 2, 10, 2000);
+
+    assertEquals(Result.ADMITTED, controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING));
+    assertEquals(Result.ADMITTED, controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING));
+    assertEquals(Result.QUEUED, controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING));
+    assertEquals(Result.ADMITTED, controller.admit(UUID.randomUUID(), FAR_AWAY, NOTHING, NOTHING),
+      "A full region must not block casts elsewhere");
+
+    assertEquals(3, controller.getActiveCount());
+    assertEquals(1, controller.getQueueLength());
+  }
+
+  @Test
+  @DisplayName("Queued casts are admitted in arrival order when slots free up")
+  void testFifoAdmission() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 10, 2000);
+    List<String> admitted = new ArrayList<>();
+
+    UUID first = UUID.randomUUID();
+    assertEquals(Result.ADMITTED, controller.admit(first, SPAWN, NOTHING, NOTHING));
+
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    controller.admit(second, SPAWN, () -> admitted.add("second"), NOTHING);
+    controller.admit(third, SPAWN, () -> admitted.add("third"), NOTHING);
+
+    controller.release(first);
+    assertEquals(List.of("second"), admitted);
+    assertTrue(controller.isHolding(second));
+
+    controller.release(second);
+    assertEquals(List.of("second", "third"), admitted);
+    assertEquals(0, controller.getQueueLength());
+    assertEquals(2, controller.getAdmittedFromQueueCount());
+  }
+
+  @Test
+  @DisplayName("A caster cannot hold or queue more than one cast")
+  void testDuplicateCasterRejected() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 10, 2000);
+    UUID caster = UUID.randomUUID();
+
+    assertEquals(Result.ADMITTED, controller.admit(caster, SPAWN, NOTHING, NOTHING));
+    assertEquals(Result.REJECTED, controller.admit(caster, SPAWN, NOTHING, NOTHING));
+  }
+
+  @Test
+  @DisplayName("Queue length is bounded")
+  void testQueueBound() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 1, 2000);
+
+    controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING);
+    assertEquals(Result.QUEUED, controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING));
+    assertEquals(Result.REJECTED, controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING));
+    assertEquals(1, controller.getRejectedCount());
+  }
+
+  @Test
+  @DisplayName("Queued casts time out and run their timeout callback")
+  void testQueueTimeout() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 10, 100);
+    List<String> timedOut = new ArrayList<>();
+
+    controller.admit(UUID.randomUUID(), SPAWN, NOTHING, NOTHING);
+    UUID waiting = UUID.randomUUID();
+    controller.admit(waiting, SPAWN, NOTHING, () -> timedOut.add("waiting"));
+
+    assertEquals(0, controller.expire(System.nanoTime()), "Nothing should expire yet");
+    assertEquals(1, controller.expire(System.nanoTime() + 200_000_000L));
+    assertEquals(List.of("waiting"), timedOut);
+    assertFalse(controller.isQueued(waiting));
+    assertEquals(1, controller.getTimedOutCount());
+  }
+
+  @Test
+  @DisplayName("Queue waits and timeouts follow the injected clock")
+  void testInjectedClock() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 10, 100);
+    AtomicLong now = new AtomicLong(1_000_000_000L);
+    controller.setClock(now::get);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+
+    controller.admit(first, SPAWN, NOTHING, NOTHING);
+    controller.admit(second, SPAWN, NOTHING, NOTHING);
+    now.addAndGet(40_000_000L);
+    controller.release(first);
+    assertEquals(40_000_000L, controller.getMaxWaitNanos());
+
+    controller.admit(third, SPAWN, NOTHING, NOTHING);
+    now.addAndGet(99_000_000L);
+    assertEquals(0, controller.expire(), "Nothing should expire yet");
+    now.addAndGet(1_000_000L);
+    assertEquals(1, controller.expire());
+    assertFalse(controller.isQueued(third));
+  }
+
+  @Test
+  @DisplayName("Admission callback may release its slot again without breaking the queue")
+  void testReentrantRelease() {
+    CastAdmissionController controller = new CastAdmissionController(1, 1, 10, 2000);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+
+    controller.admit(first, SPAWN, NOTHING, NOTHING);
+    // Simulates a queued cast that fails to find a target and gives its slot straight back
+    controller.admit(second, SPAWN, () -> controller.release(second), NOTHING);
+    controller.admit(third, SPAWN, NOTHING, NOTHING);
+
+    controller.release(first);
+
+    assertFalse(controller.isHolding(second));
+    assertTrue(controller.isHolding(third), "Slot freed by the failing cast should go to the next in line");
+    assertEquals(0, controller.getQueueLength());
+  }
+}
@@ -0,0 +1,128 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.trace.CastTraceBuffer;
+import com.dragonegg.lightning.trace.CastTraceFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cast trace ring buffer and its dump format.
+ */
+class CastTraceBufferTest {
+
+  private static void write(CastTraceBuffer buffer, long casterMsb) {
+    int base = buffer.claim();
+    buffer.set(base, CastTraceBuffer.CASTER_MSB, casterMsb);
+    buffer.set(base, CastTraceBuffer.SCAN_NANOS, casterMsb * 10);
+    buffer.publish(base);
+  }
+
+  @Test
+  @DisplayName("Snapshot returns published records oldest first")
+  void testSnapshotOrder() {
+    CastTraceBuffer buffer = new CastTraceBuffer(4);
+    write(buffer, 1);
+    write(buffer, 2);
+
+    long[] records = buffer.snapshot();
+
+    assertEquals(2 * CastTraceBuffer.RECORD_LONGS, records.length);
+    assertEquals(1, records[CastTraceBuffer.CASTER_MSB]);
+    assertEquals(10, records[CastTraceBuffer.SCAN_NANOS]);
+    assertEquals(2, records[CastTraceBuffer.RECORD_LONGS + CastTraceBuffer.CASTER_MSB]);
+    assertEquals(2, records[CastTraceBuffer.SEQUENCE]);
+    assertEquals(4, records[CastTraceBuffer.RECORD_LONGS + CastTraceBuffer.SEQUENCE]);
+  }
+
+  @Test
+  @DisplayName("A full ring overwrites the oldest records")
+  void testWrapAround() {
+    CastTraceBuffer buffer = new CastTraceBuffer(3);
+    for (int i = 1; i <= 5; i++) {
+      write(buffer, i);
+    }
+
+    long[] records = buffer.snapshot();
+
+    assertEquals(5, buffer.getRecordCount());
+    assertEquals(3 * CastTraceBuffer.RECORD_LONGS, records.length);
+    assertEquals(3, records[CastTraceBuffer.CASTER_MSB]);
+    assertEquals(5, records[2 * CastTraceBuffer.RECORD_LONGS + CastTraceBuffer.CASTER_MSB]);
+  }
+
+  @Test
+  @DisplayName("Records still being written are left out of the snapshot")
+  void testUnpublishedRecordSkipped() {
+    CastTraceBuffer buffer = new CastTraceBuffer(4);
+    write(buffer, 1);
+    int base = buffer.claim();
+    buffer.set(base, CastTraceBuffer.CASTER_MSB, 99);
+
+    long[] records = buffer.snapshot();
+
+    assertEquals(CastTraceBuffer.RECORD_LONGS, records.length);
+    assertEquals(1, records[CastTraceBuffer.CASTER_MSB]);
+  }
+
+  @Test
+  @DisplayName("Packed counts and strike ticks keep their lanes separate")
+  void testPacking() {
+    long counts = CastTraceBuffer.packCounts(3, 1, 2, 70_000);
+    assertEquals(3, counts & 0xFF);
+    assertEquals(1, (counts >>> 8) & 0xFF);
+    assertEquals(2, (counts >>> 16) & 0xFF);
+    assertEquals(70_000, counts >>> 32);
+
+    long ticks = CastTraceBuffer.withLane(0L, 0, 0);
+    ticks = CastTraceBuffer.withLane(ticks, 1, 10);
+    ticks = CastTraceBuffer.withLane(ticks, 3, 100_000);
+    assertEquals(0, ticks & 0xFFFF);
+    assertEquals(10, (ticks >>> 16) & 0xFFFF);
+    assertEquals(0xFFFF, ticks >>> 48);
+  }
+
+  @Test
+  @DisplayName("Dump file has a header followed by the records")
+  void testDumpFormat(@TempDir Path dir) throws IOException {
+    CastTraceBuffer buffer = new CastTraceBuffer(4);
+    write(buffer, 7);
+    Path file = dir.resolve("traces").resolve("casts.bin");
+
+    CastTraceFile.write(file, buffer.snapshot());
+
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      assertEquals(CastTraceFile.MAGIC, in.readInt());
+      assertEquals(CastTraceFile.VERSION, in.readInt());
+      assertEquals(CastTraceBuffer.RECORD_LONGS, in.readInt());
+      assertEquals(1, in.readInt());
+      assertEquals(2, in.readLong());
+      assertEquals(7, in.readLong());
+    }
+    assertEquals(16 + 8L * CastTraceBuffer.RECORD_LONGS, Files.size(file));
+  }
+
+  @Test
+  @DisplayName("Dumps with the same name are numbered instead of overwritten")
+  void testDumpNeverOverwrites(@TempDir Path dir) throws IOException {
+    CastTraceBuffer buffer = new CastTraceBuffer(4);
+    write(buffer, 7);
+    Path traces = dir.resolve("traces");
+
+    Path first = CastTraceFile.writeNew(traces, "casts-20260101-120000-000", buffer.snapshot());
+    write(buffer, 8);
+    Path second = CastTraceFile.writeNew(traces, "casts-20260101-120000-000", buffer.snapshot());
+
+    assertEquals("casts-20260101-120000-000.bin", first.getFileName().toString());
+    assertEquals("casts-20260101-120000-000-1.bin", second.getFileName().toString());
+    assertEquals(16 + 8L * CastTraceBuffer.RECORD_LONGS, Files.size(first));
+    assertEquals(16 + 16L * CastTraceBuffer.RECORD_LONGS, Files.size(second));
+  }
+}
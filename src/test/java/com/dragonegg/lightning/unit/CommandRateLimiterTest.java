@@ -0,0 +1,80 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.command.CommandRateLimiter;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the per-player /ability token bucket.
+ */
+class CommandRateLimiterTest {
+
+  private static final long NOW = 1_000_000L;
+
+  @Test
+  @DisplayName("Burst is allowed, then commands are throttled")
+  void testBurstThenThrottle() {
+    CommandRateLimiter limiter = new CommandRateLimiter(3, 2.0);
+    UUID player = UUID.randomUUID();
+
+    assertTrue(limiter.tryAcquire(player, NOW));
+    assertTrue(limiter.tryAcquire(player, NOW));
+    assertTrue(limiter.tryAcquire(player, NOW));
+    assertFalse(limiter.tryAcquire(player, NOW), "Fourth command in the same instant should be throttled");
+    assertFalse(limiter.tryAcquire(player, NOW + 100));
+
+    assertEquals(2, limiter.getThrottledCount(player));
+    assertEquals(2, limiter.getTotalThrottled());
+  }
+
+  @Test
+  @DisplayName("Tokens refill at the configured rate")
+  void testRefill() {
+    CommandRateLimiter limiter = new CommandRateLimiter(1, 2.0);
+    UUID player = UUID.randomUUID();
+
+    assertTrue(limiter.tryAcquire(player, NOW));
+    assertFalse(limiter.tryAcquire(player, NOW + 400), "Only 0.8 tokens after 400ms");
+    assertTrue(limiter.tryAcquire(player, NOW + 500), "One token after 500ms at 2/s");
+  }
+
+  @Test
+  @DisplayName("Players have independent buckets")
+  void testIndependentBuckets() {
+    CommandRateLimiter limiter = new CommandRateLimiter(1, 0.0);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    assertTrue(limiter.tryAcquire(first, NOW));
+    assertFalse(limiter.tryAcquire(first, NOW));
+    assertTrue(limiter.tryAcquire(second, NOW), "Another player's spam must not throttle this one");
+    assertEquals(0, limiter.getThrottledCount(second));
+    assertEquals(Map.of(first, 1L), limiter.getThrottledCounts(), "Only throttled players are listed");
+  }
+
+  @Test
+  @DisplayName("Throttled players get at most one message per second")
+  void testNoticeOncePerSecond() {
+    CommandRateLimiter limiter = new CommandRateLimiter(1, 0.0);
+    Player player = mock(Player.class);
+    UUID id = UUID.randomUUID();
+    when(player.getUniqueId()).thenReturn(id);
+
+    limiter.tryAcquire(id, NOW);
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire(id, NOW + i * 50L);
+      limiter.notifyThrottled(player, NOW + i * 50L);
+    }
+
+    verify(player, times(1)).sendMessage(any(Component.class));
+    assertEquals(20, limiter.getThrottledCount(id));
+  }
+}
@@ -0,0 +1,138 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.CooldownStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the two-tier cooldown store and its offline eviction policy.
+ */
+class CooldownStoreTest {
+
+  private static final long NOW = 1_000_000L;
+
+  @Test
+  @DisplayName("Cooldown survives moving to the offline tier and back")
+  void testOfflineRoundTrip() {
+    CooldownStore store = new CooldownStore(100);
+    UUID player = UUID.randomUUID();
+
+    store.setCooldownEnd(player, NOW + 60000);
+    store.markOffline(player, NOW);
+
+    assertEquals(0, store.onlineSize(), "Entry should leave the online tier");
+    assertEquals(1, store.offlineSize(), "Entry should be parked offline");
+    assertEquals(NOW + 60000, store.getCooldownEnd(player),
+      "Offline cooldown should still be visible");
+
+    store.markOnline(player);
+    assertEquals(1, store.onlineSize(), "Entry should return to the online tier");
+    assertEquals(0, store.offlineSize(), "Offline tier should be empty");
+    assertEquals(NOW + 60000, store.getCooldownEnd(player));
+  }
+
+  @Test
+  @DisplayName("Expired cooldowns are not parked offline")
+  void testExpiredCooldownDroppedOnQuit() {
+    CooldownStore store = new CooldownStore(100);
+    UUID player = UUID.randomUUID();
+
+    store.setCooldownEnd(player, NOW - 1);
+    store.markOffline(player, NOW);
+
+    assertEquals(0, store.size(), "Expired cooldown should be dropped on logout");
+  }
+
+  @Test
+  @DisplayName("Sweep removes expired entries from both tiers")
+  void testSweepRemovesExpired() {
+    CooldownStore store = new CooldownStore(1000);
+    List<UUID> offline = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      UUID id = UUID.randomUUID();
+      store.setCooldownEnd(id, NOW + 10 + (i % 2 == 0 ? 0 : 100000));
+      store.markOffline(id, NOW);
+      offline.add(id);
+    }
+    UUID online = UUID.randomUUID();
+    store.setCooldownEnd(online, NOW + 5);
+
+    int removed = store.sweep(NOW + 50);
+
+    assertEquals(251, removed, "Half of the offline entries and the online one should expire");
+    assertEquals(250, store.size());
+    for (int i = 0; i < offline.size(); i++) {
+      long expected = i % 2 == 0 ? 0L : NOW + 10 + 100000;
+      assertEquals(expected, store.getCooldownEnd(offline.get(i)),
+        "Lookup must stay consistent after sweeping entry " + i);
+    }
+  }
+
+  @Test
+  @DisplayName("Offline tier never grows past its cap and evicts soonest expiry first")
+  void testOfflineCapEvictsSoonestExpiring() {
+    CooldownStore store = new CooldownStore(10);
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      UUID id = UUID.randomUUID();
+      store.setCooldownEnd(id, NOW + 1000 + i);
+      store.markOffline(id, NOW);
+      ids.add(id);
+      assertTrue(store.offlineSize() <= 10, "Offline tier exceeded its cap");
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0L, store.getCooldownEnd(ids.get(i)),
+        "Earliest-expiring entries should be evicted first");
+    }
+    for (int i = 10; i < 20; i++) {
+      assertEquals(NOW + 1000 + i, store.getCooldownEnd(ids.get(i)),
+        "Latest-expiring entries should be kept");
+    }
+  }
+
+  @Test
+  @DisplayName("A full offline tier frees an eighth of its cap at once")
+  void testOfflineEvictionIsBatched() {
+    CooldownStore store = new CooldownStore(64);
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 65; i++) {
+      UUID id = UUID.randomUUID();
+      store.setCooldownEnd(id, NOW + 1000 + i);
+      store.markOffline(id, NOW);
+      ids.add(id);
+    }
+
+    // The 65th logout evicted the 8 soonest, leaving room for 7 more without a scan
+    assertEquals(57, store.offlineSize());
+    for (int i = 0; i < 8; i++) {
+      assertEquals(0L, store.getCooldownEnd(ids.get(i)));
+    }
+    assertEquals(NOW + 1008, store.getCooldownEnd(ids.get(8)));
+  }
+
+  @Test
+  @DisplayName("Estimated footprint tracks entry count")
+  void testEstimatedBytes() {
+    CooldownStore store = new CooldownStore(100000);
+    long empty = store.estimatedBytes();
+
+    for (int i = 0; i < 10000; i++) {
+      UUID id = UUID.randomUUID();
+      store.setCooldownEnd(id, NOW + 60000);
+      store.markOffline(id, NOW);
+    }
+    long full = store.estimatedBytes();
+    assertTrue(full > empty, "Footprint should grow with entries");
+
+    store.sweep(NOW + 120000);
+    assertEquals(0, store.size());
+    assertEquals(empty, store.estimatedBytes(), "Footprint should shrink back after sweeping");
+  }
+}
@@ -0,0 +1,109 @@
+package com.dragonegg.lightning.unit;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.ability.AbilityManager;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records a real cast on MockBukkit and checks the plugin's JFR events.
+ */
+class JfrEventsTest {
+
+  private static final String PREFIX = "com.dragonegg.lightning.";
+
+  private ServerMock server;
+  private DragonEggLightningPlugin plugin;
+
+  @BeforeEach
+  void setUp() {
+    server = MockBukkit.mock();
+    plugin = MockBukkit.load(DragonEggLightningPlugin.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Test
+  @DisplayName("A cast records ability, scan, strike and cast events with their fields")
+  void testCastEvents(@TempDir Path dir) throws IOException {
+    WorldMock world = server.addSimpleWorld("jfr");
+    world.spawnEntity(new Location(world, 3, 64, 0), EntityType.ZOMBIE);
+    PlayerMock player = server.addPlayer("caster");
+    // Yaw -90 faces +x, towards the zombie
+    player.teleport(new Location(world, 0, 64, 0, -90.0f, 0.0f));
+    player.getInventory().setItemInOffHand(new ItemStack(Material.DRAGON_EGG));
+
+    Path file = dir.resolve("cast.jfr");
+    try (Recording recording = new Recording()) {
+      for (String name : List.of("AbilityCast", "TargetScan", "StrikeEffect", "LightningCast")) {
+        recording.enable(PREFIX + name);
+      }
+      recording.start();
+      AbilityManager abilities = plugin.getAbilityManager();
+      assertEquals(AbilityManager.UseResult.STARTED, abilities.useAbility(player, abilities.getAbility(1)));
+      // Three strikes, ten ticks apart
+      server.getScheduler().performTicks(40);
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+    RecordedEvent abilityCast = single(events, "AbilityCast");
+    assertEquals("caster", abilityCast.getString("player"));
+    assertEquals("Lightning Strike", abilityCast.getString("ability"));
+    assertTrue(abilityCast.getBoolean("success"));
+
+    RecordedEvent scan = single(events, "TargetScan");
+    assertFalse(scan.getBoolean("retarget"));
+    assertTrue(scan.getBoolean("found"));
+    assertTrue(scan.getInt("candidates") >= 0);
+
+    List<RecordedEvent> strikes = named(events, "StrikeEffect");
+    assertEquals(3, strikes.size());
+    for (RecordedEvent strike : strikes) {
+      assertTrue(strike.getLong("particles") > 0);
+      assertEquals(2, strike.getInt("sounds"));
+    }
+
+    RecordedEvent cast = single(events, "LightningCast");
+    assertEquals("caster", cast.getString("player"));
+    assertEquals(3, cast.getInt("strikes"));
+    assertEquals(0, cast.getInt("retargets"));
+    assertEquals("completed", cast.getString("endReason"));
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+      .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+      .toList();
+  }
+
+  private static RecordedEvent single(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> matching = named(events, name);
+    assertEquals(1, matching.size(), name + " events");
+    return matching.get(0);
+  }
+}
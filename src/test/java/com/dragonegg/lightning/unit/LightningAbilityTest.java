@@ -1,10 +1,10 @@
 package com.dragonegg.lightning.ability;
 
+import com.dragonegg.lightning.config.PluginConfig;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
 /**
@@ -68,10 +68,8 @@ class LightningAbilityTest {
   @Test
   @DisplayName("Test damage value has been updated to 4.0 points (2 hearts)")
   void testDamageValueUpdated() throws Exception {
-    // Use reflection to access the private DAMAGE_PER_STRIKE constant
-    Field damageField = LightningAbility.class.getDeclaredField("DAMAGE_PER_STRIKE");
-    damageField.setAccessible(true);
-    double damagePerStrike = (double) damageField.get(null); // null for static field
+    // Damage now comes from the config snapshot; check the built-in default
+    double damagePerStrike = PluginConfig.DEFAULTS.defaultProfile().damagePerStrike();
 
     assertEquals(4.0, damagePerStrike, 0.001,
         "Damage per strike should be 4.0 points (2 hearts) to bypass armor");
@@ -97,9 +95,7 @@ class LightningAbilityTest {
     // Verify that the damage calculation doesn't use the Bukkit damage() method
     // by checking that the new method dealDirectDamage exists and the damage is higher
 
-    Field damageField = LightningAbility.class.getDeclaredField("DAMAGE_PER_STRIKE");
-    damageField.setAccessible(true);
-    double damagePerStrike = (double) damageField.get(null);
+    double damagePerStrike = PluginConfig.DEFAULTS.defaultProfile().damagePerStrike();
 
     // The damage should be 4.0 points (2 hearts) which is higher than the original 3.0
     // This ensures the new armor-bypassing system is in place
@@ -110,10 +106,8 @@ class LightningAbilityTest {
   @Test
   @DisplayName("Test strike count is still 3")
   void testStrikeCount() throws Exception {
-    // Use reflection to verify the strike count hasn't changed
-    Field strikeCountField = LightningAbility.class.getDeclaredField("STRIKE_COUNT");
-    strikeCountField.setAccessible(true);
-    int strikeCount = (int) strikeCountField.get(null); // null for static field
+    // Verify the default strike count hasn't changed
+    int strikeCount = PluginConfig.DEFAULTS.strikeCount();
 
     assertEquals(3, strikeCount, "Should still have 3 strikes per ability use");
   }
@@ -122,13 +116,9 @@ class LightningAbilityTest {
   @DisplayName("Test total damage is now 12.0 points (6 hearts)")
   void testTotalDamage() throws Exception {
     // Calculate expected total damage (3 strikes × 4.0 damage each)
-    Field damageField = LightningAbility.class.getDeclaredField("DAMAGE_PER_STRIKE");
-    damageField.setAccessible(true);
-    double damagePerStrike = (double) damageField.get(null);
+    double damagePerStrike = PluginConfig.DEFAULTS.defaultProfile().damagePerStrike();
 
-    Field strikeCountField = LightningAbility.class.getDeclaredField("STRIKE_COUNT");
-    strikeCountField.setAccessible(true);
-    int strikeCount = (int) strikeCountField.get(null);
+    int strikeCount = PluginConfig.DEFAULTS.strikeCount();
 
     double totalExpectedDamage = damagePerStrike * strikeCount; // 4.0 × 3 = 12.0
     assertEquals(12.0, totalExpectedDamage, 0.001,
@@ -138,10 +128,8 @@ class LightningAbilityTest {
   @Test
   @DisplayName("Test strike interval is still 0.5 seconds")
   void testStrikeInterval() throws Exception {
-    // Use reflection to verify the strike interval hasn't changed
-    Field strikeIntervalField = LightningAbility.class.getDeclaredField("STRIKE_INTERVAL_TICKS");
-    strikeIntervalField.setAccessible(true);
-    long strikeIntervalTicks = (long) strikeIntervalField.get(null);
+    // Verify the default strike interval hasn't changed
+    long strikeIntervalTicks = PluginConfig.DEFAULTS.strikeIntervalTicks();
 
     assertEquals(10L, strikeIntervalTicks, "Strike interval should still be 10 ticks (0.5 seconds)");
   }
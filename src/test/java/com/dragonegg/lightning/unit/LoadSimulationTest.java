@@ -0,0 +1,32 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.load.LoadSimulation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the MockBukkit load simulation and checks its per-tick plugin cost.
+ */
+class LoadSimulationTest {
+
+  @Test
+  @DisplayName("Hundreds of players and thousands of mobs run through scripted ticks")
+  void testLoadSimulation() {
+    LoadSimulation.Settings settings = new LoadSimulation.Settings(200, 2000, 200, 100, 60, 42L);
+
+    LoadSimulation.Report report = new LoadSimulation(settings).run();
+    String summary = report.format();
+
+    assertEquals(200, report.ticks(), summary);
+    assertTrue(report.castAttempts() > 0, "Script should attempt casts\n" + summary);
+    assertTrue(report.castsStarted() > 0, "Some casts should find a target\n" + summary);
+    assertTrue(report.strikes() >= report.castsStarted(), "Started casts land their first strike\n" + summary);
+    assertTrue(report.swaps() > 0, "Script should swap eggs\n" + summary);
+    assertTrue(report.averagePluginNanos() > 0, "Casts should show up as plugin time\n" + summary);
+    assertTrue(report.worstPluginNanos() >= report.averagePluginNanos(), summary);
+    assertTrue(report.averageWallNanos() >= report.averagePluginNanos(),
+      "Plugin time is part of the tick's wall time\n" + summary);
+  }
+}
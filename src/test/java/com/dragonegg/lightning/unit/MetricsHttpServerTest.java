@@ -0,0 +1,94 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.metrics.MetricsHttpServer;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.metrics.PrometheusFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Prometheus metrics endpoint, scraped over real HTTP.
+ */
+class MetricsHttpServerTest {
+
+  private MetricsRegistry registry;
+  private MetricsHttpServer server;
+  private HttpClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    registry = new MetricsRegistry();
+    server = new MetricsHttpServer(
+      registry,
+      new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)
+    );
+    server.start();
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("Scrape returns counters, gauges and histogram summaries")
+  void testScrape() throws Exception {
+    registry.counter("dragonegg_casts_total", "Casts").add(7);
+    registry.gauge("dragonegg_cooldown_entries", "Cooldowns", () -> 3);
+    registry.histogram("dragonegg_cast_latency_nanos", "Latency").record(1000);
+
+    HttpResponse<String> response = get(MetricsHttpServer.PATH);
+
+    assertEquals(200, response.statusCode());
+    assertEquals(PrometheusFormatter.CONTENT_TYPE,
+      response.headers().firstValue("Content-Type").orElse(null));
+    String body = response.body();
+    assertTrue(body.contains("# TYPE dragonegg_casts_total counter\n"));
+    assertTrue(body.contains("dragonegg_casts_total 7\n"));
+    assertTrue(body.contains("dragonegg_cooldown_entries 3\n"));
+    assertTrue(body.contains("# TYPE dragonegg_cast_latency_nanos summary\n"));
+    assertTrue(body.contains("dragonegg_cast_latency_nanos{quantile=\"0.99\"} 1000\n"));
+    assertTrue(body.contains("dragonegg_cast_latency_nanos_count 1\n"));
+    assertTrue(body.contains("dragonegg_cast_latency_nanos_max 1000\n"));
+  }
+
+  @Test
+  @DisplayName("Unknown paths and methods are refused")
+  void testUnknownRequestsRefused() throws Exception {
+    assertEquals(404, get("/metrics/extra").statusCode());
+
+    HttpRequest post = HttpRequest.newBuilder(uri(MetricsHttpServer.PATH))
+      .POST(HttpRequest.BodyPublishers.noBody())
+      .build();
+    assertEquals(405, client.send(post, HttpResponse.BodyHandlers.discarding()).statusCode());
+  }
+
+  @Test
+  @DisplayName("Stopping releases the port")
+  void testStop() {
+    assertTrue(server.getPort() > 0);
+    server.stop();
+    assertEquals(-1, server.getPort());
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(uri(path)).GET().build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + server.getPort() + path);
+  }
+}
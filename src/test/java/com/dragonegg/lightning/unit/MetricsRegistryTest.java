@@ -0,0 +1,108 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.metrics.Counter;
+import com.dragonegg.lightning.metrics.FunctionCounter;
+import com.dragonegg.lightning.metrics.Gauge;
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.MetricsRegistry;
+import com.dragonegg.lightning.metrics.PrometheusFormatter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the metrics registry and its counter, histogram and gauge types.
+ */
+class MetricsRegistryTest {
+
+  @Test
+  @DisplayName("Registering a name twice returns the same metric")
+  void testRegistrationIsIdempotent() {
+    MetricsRegistry registry = new MetricsRegistry();
+    Counter first = registry.counter("casts_total", "Casts");
+    Counter second = registry.counter("casts_total", "Casts");
+
+    assertSame(first, second);
+    first.increment();
+    second.add(2);
+    assertEquals(3, first.get());
+    assertEquals(1, registry.metrics().size());
+  }
+
+  @Test
+  @DisplayName("A name cannot be reused for a different metric type")
+  void testTypeConflictRejected() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("strikes", "Strikes");
+
+    assertThrows(IllegalArgumentException.class, () -> registry.histogram("strikes", "Strikes"));
+  }
+
+  @Test
+  @DisplayName("Gauges sample their supplier on every read")
+  void testGaugeSamplesSupplier() {
+    MetricsRegistry registry = new MetricsRegistry();
+    AtomicLong size = new AtomicLong(5);
+    Gauge gauge = registry.gauge("cooldown_entries", "Cooldowns", size::get);
+
+    assertEquals(5, gauge.get());
+    size.set(9);
+    assertEquals(9, gauge.get());
+  }
+
+  @Test
+  @DisplayName("Totals kept elsewhere are exported as counters")
+  void testFunctionCounter() {
+    MetricsRegistry registry = new MetricsRegistry();
+    AtomicLong rejected = new AtomicLong(4);
+    FunctionCounter counter = registry.counter("cast_rejections_total", "Rejections", rejected::get);
+    rejected.incrementAndGet();
+
+    assertEquals(5, counter.get());
+    String body = PrometheusFormatter.format(registry);
+    assertTrue(body.contains("# TYPE cast_rejections_total counter\n"), body);
+    assertTrue(body.contains("cast_rejections_total 5\n"), body);
+  }
+
+  @Test
+  @DisplayName("Histogram tracks count, sum, max and quantiles")
+  void testHistogramStatistics() {
+    Histogram histogram = new MetricsRegistry().histogram("latency", "Latency");
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    assertEquals(1000, histogram.count());
+    assertEquals(500500, histogram.sum());
+    assertEquals(1000, histogram.max());
+    assertEquals(500.5, histogram.mean(), 0.001);
+
+    long p50 = histogram.quantile(0.5);
+    long p99 = histogram.quantile(0.99);
+    assertTrue(p50 >= 500 && p50 <= 500 * 1.125, "p50 should be within bucket precision: " + p50);
+    assertTrue(p99 >= 990 && p99 <= 1000, "p99 should be within bucket precision: " + p99);
+  }
+
+  @Test
+  @DisplayName("Histogram buckets cover the whole long range")
+  void testHistogramBucketBounds() {
+    Histogram histogram = new MetricsRegistry().histogram("wide", "Wide");
+    histogram.record(-5);
+    histogram.record(0);
+    histogram.record(Long.MAX_VALUE);
+
+    assertEquals(3, histogram.count());
+    assertEquals(0, histogram.quantile(0.5), "Negative values are recorded as 0");
+    assertEquals(Long.MAX_VALUE, histogram.quantile(1.0));
+
+    long[] buckets = histogram.bucketCounts();
+    assertEquals(Long.MAX_VALUE, Histogram.bucketUpperBound(buckets.length - 1));
+    for (int i = 1; i < buckets.length; i++) {
+      assertTrue(Histogram.bucketUpperBound(i) > Histogram.bucketUpperBound(i - 1),
+        "Bucket bounds must increase at index " + i);
+    }
+  }
+}
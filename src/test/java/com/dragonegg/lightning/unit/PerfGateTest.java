@@ -0,0 +1,149 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.perf.PerfGate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the benchmark baseline comparison.
+ */
+class PerfGateTest {
+
+  private static String result(String benchmark, String mode, String params, double score, String unit) {
+    return "{\"benchmark\": \"com.dragonegg.lightning.benchmark." + benchmark + "\", "
+      + "\"mode\": \"" + mode + "\", "
+      + "\"params\": {" + params + "}, "
+      + "\"primaryMetric\": {\"score\": " + score + ", \"scoreUnit\": \"" + unit + "\"}}";
+  }
+
+  private static Map<String, PerfGate.Score> parse(String... results) {
+    return PerfGate.parse(new StringReader("[" + String.join(",", results) + "]"));
+  }
+
+  @Test
+  @DisplayName("JMH JSON is keyed by short benchmark name and sorted parameters")
+  void testParse() {
+    Map<String, PerfGate.Score> scores = parse(
+      result("HudBenchmark.hudPass", "avgt", "\"players\": \"1000\"", 420.5, "us/op")
+    );
+
+    PerfGate.Score score = scores.get("HudBenchmark.hudPass players=1000");
+    assertNotNull(score, "Keys were " + scores.keySet());
+    assertEquals(420.5, score.score());
+    assertEquals("us/op", score.unit());
+  }
+
+  @Test
+  @DisplayName("Slower average time past the threshold fails; within it passes")
+  void testAverageTimeRegression() {
+    Map<String, PerfGate.Score> baseline = parse(
+      result("A.fast", "avgt", "", 100.0, "ns/op"),
+      result("A.slow", "avgt", "", 100.0, "ns/op")
+    );
+    Map<String, PerfGate.Score> current = parse(
+      result("A.fast", "avgt", "", 115.0, "ns/op"),
+      result("A.slow", "avgt", "", 130.0, "ns/op")
+    );
+
+    List<PerfGate.Comparison> comparisons = PerfGate.compare(baseline, current, 0.2);
+
+    assertFalse(comparisons.get(0).failed());
+    assertTrue(comparisons.get(1).failed());
+    assertEquals(0.3, comparisons.get(1).change(), 1e-9);
+  }
+
+  @Test
+  @DisplayName("Lower throughput counts as a regression")
+  void testThroughputRegression() {
+    Map<String, PerfGate.Score> baseline = parse(result("A.ops", "thrpt", "", 1000.0, "ops/s"));
+    Map<String, PerfGate.Score> current = parse(result("A.ops", "thrpt", "", 700.0, "ops/s"));
+
+    List<PerfGate.Comparison> comparisons = PerfGate.compare(baseline, current, 0.2);
+
+    assertTrue(comparisons.get(0).failed());
+  }
+
+  @Test
+  @DisplayName("Baselines in another time unit are converted before comparing")
+  void testUnitConversion() {
+    Map<String, PerfGate.Score> baseline = parse(
+      result("A.avg", "avgt", "", 0.1, "us/op"),
+      result("A.ops", "thrpt", "", 1.0, "ops/ms")
+    );
+    Map<String, PerfGate.Score> current = parse(
+      result("A.avg", "avgt", "", 130.0, "ns/op"),
+      result("A.ops", "thrpt", "", 900.0, "ops/s")
+    );
+
+    List<PerfGate.Comparison> comparisons = PerfGate.compare(baseline, current, 0.2);
+
+    assertEquals(0.3, comparisons.get(0).change(), 1e-9);
+    assertTrue(comparisons.get(0).failed());
+    assertEquals(0.1, comparisons.get(1).change(), 1e-9);
+    assertFalse(comparisons.get(1).failed());
+  }
+
+  @Test
+  @DisplayName("Baselines in an incompatible unit fail instead of comparing raw numbers")
+  void testUnitMismatch() {
+    Map<String, PerfGate.Score> baseline = parse(result("A.mixed", "avgt", "", 100.0, "ns/op"));
+    Map<String, PerfGate.Score> current = parse(result("A.mixed", "thrpt", "", 100.0, "ops/s"));
+
+    List<PerfGate.Comparison> comparisons = PerfGate.compare(baseline, current, 0.2);
+    String report = PerfGate.format(comparisons, 0.2);
+
+    assertTrue(comparisons.get(0).failed());
+    assertTrue(report.contains("unit ns/op vs ops/s"), report);
+  }
+
+  @Test
+  @DisplayName("Benchmarks without a baseline are reported as new and pass")
+  void testNewBenchmark() {
+    Map<String, PerfGate.Score> current = parse(result("A.added", "avgt", "", 5.0, "ns/op"));
+
+    List<PerfGate.Comparison> comparisons = PerfGate.compare(Map.of(), current, 0.2);
+    String report = PerfGate.format(comparisons, 0.2);
+
+    assertFalse(comparisons.get(0).failed());
+    assertTrue(report.contains("NEW"), report);
+  }
+
+  @Test
+  @DisplayName("A missing baseline fails the gate unless explicitly allowed")
+  void testMissingBaseline(@TempDir Path dir) throws IOException {
+    Path baseline = dir.resolve("baseline.json");
+    Path results = dir.resolve("results.json");
+    Files.writeString(results, "[" + result("A.added", "avgt", "", 5.0, "ns/op") + "]");
+    String[] args = {baseline.toString(), results.toString(), "0.2", "false", "false"};
+
+    assertEquals(1, PerfGate.run(args));
+
+    args[4] = "true";
+    assertEquals(0, PerfGate.run(args));
+  }
+
+  @Test
+  @DisplayName("Updating records the baseline the next run compares against")
+  void testUpdateBaseline(@TempDir Path dir) throws IOException {
+    Path baseline = dir.resolve("perf/baseline.json");
+    Path results = dir.resolve("results.json");
+    Files.writeString(results, "[" + result("A.same", "avgt", "", 5.0, "ns/op") + "]");
+
+    assertEquals(0, PerfGate.run(new String[] {baseline.toString(), results.toString(), "0.2", "true"}));
+    assertTrue(Files.exists(baseline));
+    assertEquals(0, PerfGate.run(new String[] {baseline.toString(), results.toString(), "0.2"}));
+
+    Files.writeString(results, "[" + result("A.same", "avgt", "", 7.0, "ns/op") + "]");
+    assertEquals(1, PerfGate.run(new String[] {baseline.toString(), results.toString(), "0.2"}));
+  }
+}
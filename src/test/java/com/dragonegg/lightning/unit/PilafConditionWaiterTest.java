@@ -0,0 +1,197 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.pilaf.MockBukkitBackend;
+import com.dragonegg.lightning.pilaf.PilafConditionWaiter;
+import com.dragonegg.lightning.pilaf.PilafParallelStoryRunner;
+import com.dragonegg.lightning.pilaf.PilafStoryResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for waiting on backend state instead of sleeping.
+ */
+class PilafConditionWaiterTest {
+
+  @Test
+  @DisplayName("A condition that already holds returns without waiting")
+  void testImmediate() throws InterruptedException {
+    AtomicInteger checks = new AtomicInteger();
+
+    assertTrue(PilafConditionWaiter.poll(() -> checks.incrementAndGet() > 0, Duration.ofSeconds(5)));
+    assertEquals(1, checks.get());
+  }
+
+  @Test
+  @DisplayName("Polling backs off and gives up at the timeout")
+  void testTimeout() throws InterruptedException {
+    AtomicInteger checks = new AtomicInteger();
+    long start = System.nanoTime();
+
+    assertFalse(PilafConditionWaiter.poll(() -> checks.incrementAndGet() < 0, Duration.ofMillis(300)));
+
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(elapsed >= 300, "gave up after " + elapsed + " ms");
+    // About 6 checks with backoff (10 + 20 + 40 + 80 + 150 ms), against
+    // hundreds when checking every millisecond; a slow machine only checks less
+    assertTrue(checks.get() < 30, "checked " + checks.get() + " times");
+  }
+
+  @Test
+  @DisplayName("A signal wakes the waiter without waiting out its backoff")
+  void testSignalWakesWaiter() throws Exception {
+    // With an hour between checks only the signal can wake the waiter in time
+    PilafConditionWaiter waiter = new PilafConditionWaiter(Duration.ofHours(1), Duration.ofHours(1));
+    AtomicBoolean ready = new AtomicBoolean();
+    AtomicInteger checks = new AtomicInteger();
+    CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+      try {
+        return waiter.await(() -> {
+          checks.incrementAndGet();
+          return ready.get();
+        }, Duration.ofHours(2));
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    // Change the state only after the first check has failed
+    assertTrue(PilafConditionWaiter.poll(() -> checks.get() > 0, Duration.ofSeconds(30)));
+    ready.set(true);
+    waiter.signal();
+
+    assertTrue(waiting.get(30, TimeUnit.SECONDS));
+    assertEquals(2, checks.get());
+  }
+
+  @Test
+  @DisplayName("Health changes on the backend end a health wait")
+  void testAwaitEntityHealthBelow() throws Exception {
+    MockBukkitBackend backend = new MockBukkitBackend();
+    backend.spawnEntity("zombie", "ZOMBIE", List.of(0.0, 64.0, 0.0), null);
+    CompletableFuture.runAsync(() -> backend.setEntityHealth("zombie", 16.0),
+      CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+
+    assertTrue(backend.awaitEntityHealthBelow("zombie", 20.0, Duration.ofSeconds(5)));
+    assertFalse(backend.awaitEntityHealthBelow("zombie", 10.0, Duration.ofMillis(50)));
+  }
+
+  @Test
+  @DisplayName("Story assertions with a timeout wait for the state they expect")
+  void testStoryAssertionTimeout() throws InterruptedException {
+    MockBukkitBackend backend = new MockBukkitBackend() {
+      @Override
+      public void executePlayerCommand(String playerName, String command, List<String> arguments) {
+        super.executePlayerCommand(playerName, command, arguments);
+        // Damage lands a little after the command, like strikes on a real server
+        CompletableFuture.runAsync(() -> setEntityHealth("zombie", 16.0),
+          CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+      }
+    };
+    Map<String, Object> story = Map.of(
+      "name", "Delayed damage",
+      "setup", List.of(
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(0, 64, 0)),
+        Map.of("type", "server_action", "server_action", "spawn_player",
+          "name", "tester", "location", List.of(0, 64, 0))
+      ),
+      "steps", List.of(
+        Map.of("type", "action", "action", "player_execute_command",
+          "subject", "tester", "command", "ability", "arguments", List.of("1")),
+        Map.of("type", "assertion", "assertion", "entity_health_below",
+          "subject", "zombie", "health", 20, "timeout", 60),
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", 16.0, "timeout", 60)
+      )
+    );
+
+    PilafStoryResult result = new PilafParallelStoryRunner(1, () -> backend)
+      .run(List.of(new PilafParallelStoryRunner.Story("delayed", story))).get(0);
+
+    assertTrue(result.isPassed(), result.toString());
+    // Well short of the timeouts, so the assertions ended when the damage landed
+    assertTrue(result.getDurationMillis() < 30_000, "took " + result.getDurationMillis() + " ms");
+  }
+
+  @Test
+  @DisplayName("A health check with stable_ticks fails on a value the cast is still passing through")
+  void testStableHealth() throws InterruptedException {
+    assertFalse(runStrikeStory(16.0).isPassed(), "16 is only the health after the first strike");
+    PilafStoryResult settled = runStrikeStory(8.0);
+    assertTrue(settled.isPassed(), settled.toString());
+  }
+
+  /**
+   * One strike lands with the command and two more 10 and 20 ticks later;
+   * waits step ticks, like the tick-stepping backend.
+   */
+  private PilafStoryResult runStrikeStory(double expectedHealth) throws InterruptedException {
+    MockBukkitBackend backend = new MockBukkitBackend() {
+      private int strikes;
+      private int ticksSinceCast;
+
+      @Override
+      public void executePlayerCommand(String playerName, String command, List<String> arguments) {
+        super.executePlayerCommand(playerName, command, arguments);
+        ticksSinceCast = 0;
+        strike();
+      }
+
+      @Override
+      public void advanceTicks(int ticks) {
+        super.advanceTicks(ticks);
+        for (int i = 0; i < ticks; i++) {
+          ticksSinceCast++;
+          if (strikes < 3 && ticksSinceCast % 10 == 0) {
+            strike();
+          }
+        }
+      }
+
+      @Override
+      public boolean awaitCondition(BooleanSupplier condition, Duration timeout) {
+        for (long tick = 0; tick < timeout.toMillis() / 50; tick++) {
+          if (condition.getAsBoolean()) {
+            return true;
+          }
+          advanceTicks(1);
+        }
+        return condition.getAsBoolean();
+      }
+
+      private void strike() {
+        strikes++;
+        setEntityHealth("zombie", 20.0 - 4.0 * strikes);
+      }
+    };
+    Map<String, Object> story = Map.of(
+      "name", "Settled damage",
+      "setup", List.of(
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(0, 64, 0)),
+        Map.of("type", "server_action", "server_action", "spawn_player",
+          "name", "tester", "location", List.of(0, 64, 0))
+      ),
+      "steps", List.of(
+        Map.of("type", "action", "action", "player_execute_command",
+          "subject", "tester", "command", "ability", "arguments", List.of("1")),
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", expectedHealth, "timeout", 60, "stable_ticks", 20)
+      )
+    );
+
+    return new PilafParallelStoryRunner(1, () -> backend)
+      .run(List.of(new PilafParallelStoryRunner.Story("settled", story))).get(0);
+  }
+}
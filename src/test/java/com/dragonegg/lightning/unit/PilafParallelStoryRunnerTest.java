@@ -0,0 +1,201 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.pilaf.MockBukkitBackend;
+import com.dragonegg.lightning.pilaf.PilafParallelStoryRunner;
+import com.dragonegg.lightning.pilaf.PilafStoryResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running PILAF stories across worker backends.
+ */
+class PilafParallelStoryRunnerTest {
+
+  private static Map<String, Object> healthStory(String name, double health) {
+    return Map.of(
+      "name", name,
+      "setup", List.of(
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(0.0, 64.0, 0.0))
+      ),
+      "steps", List.of(
+        Map.of("type", "server_action", "server_action", "set_entity_health",
+          "subject", "zombie", "health", health),
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", health)
+      )
+    );
+  }
+
+  @Test
+  @DisplayName("Results come back in input order with one backend per worker")
+  void testOrderAndBackendsPerWorker() throws InterruptedException {
+    AtomicInteger backends = new AtomicInteger();
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(3, () -> {
+      backends.incrementAndGet();
+      return new MockBukkitBackend();
+    });
+    List<PilafParallelStoryRunner.Story> stories = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      stories.add(new PilafParallelStoryRunner.Story("story-" + i, healthStory("Story " + i, i + 1)));
+    }
+
+    List<PilafStoryResult> results = runner.run(stories);
+
+    assertEquals(12, results.size());
+    for (int i = 0; i < 12; i++) {
+      assertEquals("story-" + i, results.get(i).getSource());
+      assertTrue(results.get(i).isPassed(), results.get(i).toString());
+      assertEquals(3, results.get(i).getStepsRun());
+    }
+    assertEquals(3, backends.get());
+  }
+
+  @Test
+  @DisplayName("Backends that share server state run on a single worker")
+  void testSharedBackendRunsOnOneWorker() throws InterruptedException {
+    AtomicInteger backends = new AtomicInteger();
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(4, () -> {
+      backends.incrementAndGet();
+      return new MockBukkitBackend() {
+        @Override
+        public boolean supportsParallelWorkers() {
+          return false;
+        }
+      };
+    });
+    List<PilafParallelStoryRunner.Story> stories = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      stories.add(new PilafParallelStoryRunner.Story("story-" + i, healthStory("Story " + i, i + 1)));
+    }
+
+    List<PilafStoryResult> results = runner.run(stories);
+
+    assertEquals(1, backends.get());
+    assertTrue(results.stream().allMatch(PilafStoryResult::isPassed), results.toString());
+  }
+
+  @Test
+  @DisplayName("Worker count is capped at the number of stories")
+  void testWorkersCappedByStories() throws InterruptedException {
+    AtomicInteger backends = new AtomicInteger();
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(8, () -> {
+      backends.incrementAndGet();
+      return new MockBukkitBackend();
+    });
+
+    runner.run(List.of(
+      new PilafParallelStoryRunner.Story("a", healthStory("A", 5)),
+      new PilafParallelStoryRunner.Story("b", healthStory("B", 6))
+    ));
+
+    assertEquals(2, backends.get());
+  }
+
+  /**
+   * Notes whether an entity left over from an earlier story is still around
+   */
+  private static class LeakCheckingBackend extends MockBukkitBackend {
+    boolean sawLeftover;
+
+    @Override
+    public void spawnEntity(String name, String entityType, List<Double> location, Map<String, String> equipment) {
+      sawLeftover |= entityExists("leftover");
+      super.spawnEntity(name, entityType, location, equipment);
+    }
+  }
+
+  private static Map<String, Object> spawnStory(String entity) {
+    return Map.of(
+      "name", "Spawns " + entity,
+      "steps", List.of(Map.of("type", "server_action", "server_action", "spawn_entity",
+        "name", entity, "entity_type", "ZOMBIE", "location", List.of(0, 64, 0)))
+    );
+  }
+
+  @Test
+  @DisplayName("Entities from one story are gone before the next story on the same worker")
+  void testStoriesAreIsolated() throws InterruptedException {
+    LeakCheckingBackend backend = new LeakCheckingBackend();
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(1, () -> backend);
+
+    List<PilafStoryResult> results = runner.run(List.of(
+      new PilafParallelStoryRunner.Story("leaves", spawnStory("leftover")),
+      new PilafParallelStoryRunner.Story("next", spawnStory("probe"))
+    ));
+
+    assertTrue(results.get(0).isPassed(), results.get(0).toString());
+    assertTrue(results.get(1).isPassed(), results.get(1).toString());
+    assertFalse(backend.sawLeftover);
+  }
+
+  @Test
+  @DisplayName("Invalid stories fail with their errors and do not stop the others")
+  void testInvalidStory() throws InterruptedException {
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(2, MockBukkitBackend::new);
+    Map<String, Object> invalid = Map.of(
+      "name", "Invalid",
+      "steps", List.of(Map.of("type", "assertion", "assertion", "entity_exists", "subject", "ghost"))
+    );
+
+    List<PilafStoryResult> results = runner.run(List.of(
+      new PilafParallelStoryRunner.Story("invalid", invalid),
+      new PilafParallelStoryRunner.Story("valid", healthStory("Valid", 10))
+    ));
+
+    assertFalse(results.get(0).isPassed());
+    assertEquals(0, results.get(0).getStepsRun());
+    assertTrue(results.get(1).isPassed(), results.get(1).toString());
+  }
+
+  @Test
+  @DisplayName("Action-step stories skip server lifecycle steps")
+  void testActionStepStory() throws InterruptedException {
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(1, MockBukkitBackend::new);
+    Map<String, Object> story = Map.of(
+      "story", Map.of("name", "Legacy layout"),
+      "setup", Map.of("players", List.of(
+        Map.of("name", "tester", "position", List.of(0, 64, 0), "items", List.of("dragon_egg 5")))),
+      "steps", List.of(
+        Map.of("action", "start_server"),
+        Map.of("action", "spawn_entity", "name", "target", "entity_type", "ZOMBIE", "player", "tester"),
+        Map.of("action", "verify_health", "name", "target", "expected_health", 20.0)
+      ),
+      "cleanup", Map.of("action", "stop_server")
+    );
+
+    PilafStoryResult result = runner.run(List.of(new PilafParallelStoryRunner.Story("legacy", story))).get(0);
+
+    assertEquals("Legacy layout", result.getStoryName());
+    assertTrue(result.isPassed(), result.toString());
+    // Adding the player, the spawn and the health check
+    assertEquals(3, result.getStepsRun());
+    assertEquals(2, result.getStepsSkipped());
+  }
+
+  @Test
+  @DisplayName("Performance assertions are skipped on backends without plugin metrics")
+  void testPerformanceSkippedWithoutMetrics() throws InterruptedException {
+    PilafParallelStoryRunner runner = new PilafParallelStoryRunner(1, MockBukkitBackend::new);
+    Map<String, Object> story = Map.of(
+      "name", "Budget",
+      "steps", List.of(
+        Map.of("type", "assertion", "assertion", "max_plugin_tick_ms", "max", 2.5),
+        Map.of("type", "assertion", "assertion", "max_packets_per_cast", "max", 12)
+      )
+    );
+
+    PilafStoryResult result = runner.run(List.of(new PilafParallelStoryRunner.Story("budget", story))).get(0);
+
+    assertTrue(result.isPassed(), result.toString());
+    assertEquals(0, result.getStepsRun());
+    assertEquals(2, result.getStepsSkipped());
+  }
+}
@@ -0,0 +1,164 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.DragonEggLightningPlugin;
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.config.ConfigManager;
+import com.dragonegg.lightning.config.PluginConfig;
+import com.dragonegg.lightning.config.WorldProfiles;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for validating config.yml into an immutable settings snapshot.
+ */
+class PluginConfigTest {
+
+  @Test
+  @DisplayName("Missing keys fall back to the built-in defaults")
+  void testEmptyConfigUsesDefaults() {
+    List<String> problems = new ArrayList<>();
+    PluginConfig config = PluginConfig.fromConfig(new YamlConfiguration(), problems);
+
+    assertTrue(problems.isEmpty(), "An empty config is valid");
+    assertEquals(PluginConfig.DEFAULTS, config);
+  }
+
+  @Test
+  @DisplayName("Configured values are read into the snapshot")
+  void testValuesAreRead() {
+    YamlConfiguration yaml = new YamlConfiguration();
+    yaml.set("lightning.strike-count", 5);
+    yaml.set("lightning.strike-interval-ticks", 4);
+    yaml.set("lightning.damage-per-strike", 6.5);
+    yaml.set("lightning.cooldown-seconds", 30);
+    yaml.set("lightning.max-range", 24.0);
+
+    List<String> problems = new ArrayList<>();
+    PluginConfig config = PluginConfig.fromConfig(yaml, problems);
+
+    assertTrue(problems.isEmpty());
+    assertEquals(5, config.strikeCount());
+    assertEquals(4L, config.strikeIntervalTicks());
+    assertEquals(30000L, config.cooldownMillis());
+    assertEquals(new AbilityProfile(24.0, 6.5, 1.0), config.defaultProfile());
+  }
+
+  @Test
+  @DisplayName("World overrides inherit unset keys from the global profile")
+  void testWorldOverrides() {
+    YamlConfiguration yaml = new YamlConfiguration();
+    yaml.set("lightning.damage-per-strike", 6.0);
+    yaml.set("lightning.worlds.pvp_arena.max-range", 30.0);
+    yaml.set("lightning.worlds.hub.damage-per-strike", 0.0);
+    yaml.set("lightning.worlds.hub.particle-density", 0.25);
+
+    List<String> problems = new ArrayList<>();
+    WorldProfiles profiles = PluginConfig.fromConfig(yaml, problems).profiles();
+
+    assertTrue(problems.isEmpty());
+    assertEquals(3, profiles.size(), "Default plus one slot per configured world");
+    assertEquals(new AbilityProfile(30.0, 6.0, 1.0), profiles.forWorld("pvp_arena"));
+    assertEquals(new AbilityProfile(50.0, 0.0, 0.25), profiles.forWorld("hub"));
+    assertEquals(0, profiles.indexOf("world"), "Unlisted worlds use the default slot");
+    assertSame(profiles.defaultProfile(), profiles.get(profiles.indexOf("world")));
+  }
+
+  @Test
+  @DisplayName("Invalid world overrides are reported with their path")
+  void testInvalidWorldOverrideReported() {
+    YamlConfiguration yaml = new YamlConfiguration();
+    yaml.set("lightning.worlds.pvp_arena.particle-density", -1.0);
+
+    List<String> problems = new ArrayList<>();
+    PluginConfig.fromConfig(yaml, problems);
+
+    assertEquals(1, problems.size());
+    assertTrue(problems.get(0).startsWith("lightning.worlds.pvp_arena.particle-density"));
+  }
+
+  @Test
+  @DisplayName("Out-of-range values are reported and replaced by defaults")
+  void testInvalidValuesReported() {
+    YamlConfiguration yaml = new YamlConfiguration();
+    yaml.set("lightning.strike-count", 0);
+    yaml.set("lightning.max-range", 1000.0);
+
+    List<String> problems = new ArrayList<>();
+    PluginConfig config = PluginConfig.fromConfig(yaml, problems);
+
+    assertEquals(2, problems.size(), "Each invalid value should be reported");
+    assertEquals(PluginConfig.DEFAULTS.strikeCount(), config.strikeCount());
+    assertEquals(PluginConfig.DEFAULTS.defaultProfile().maxRange(), config.defaultProfile().maxRange());
+  }
+
+  @Test
+  @DisplayName("Manager without a plugin serves defaults and reloads as a no-op")
+  void testManagerWithoutPlugin() {
+    ConfigManager manager = new ConfigManager(null);
+    PluginConfig before = manager.get();
+
+    assertEquals(PluginConfig.DEFAULTS, before);
+    assertTrue(manager.reload().isEmpty());
+    assertSame(before, manager.get(), "Snapshot should not change without a config source");
+  }
+
+  @Test
+  @DisplayName("An invalid config.yml is rejected before the plugin config is reloaded")
+  void testInvalidReloadLeavesPluginConfig(@TempDir Path dataFolder) throws IOException {
+    DragonEggLightningPlugin plugin = pluginWithDataFolder(dataFolder);
+    ConfigManager manager = new ConfigManager(plugin);
+    PluginConfig before = manager.get();
+    Files.writeString(dataFolder.resolve("config.yml"), "lightning:\n  strike-count: 0\n");
+
+    List<String> problems = manager.reload();
+
+    assertEquals(1, problems.size());
+    assertSame(before, manager.get());
+    verify(plugin, never()).reloadConfig();
+  }
+
+  @Test
+  @DisplayName("A valid config.yml reloads the plugin config and publishes the snapshot")
+  void testValidReload(@TempDir Path dataFolder) throws IOException {
+    DragonEggLightningPlugin plugin = pluginWithDataFolder(dataFolder);
+    ConfigManager manager = new ConfigManager(plugin);
+    Files.writeString(dataFolder.resolve("config.yml"), "lightning:\n  strike-count: 5\n");
+
+    assertTrue(manager.reload().isEmpty());
+
+    assertEquals(5, manager.get().strikeCount());
+    verify(plugin).reloadConfig();
+  }
+
+  @Test
+  @DisplayName("A config.yml that is not valid YAML is reported instead of loading as empty")
+  void testMalformedReload(@TempDir Path dataFolder) throws IOException {
+    DragonEggLightningPlugin plugin = pluginWithDataFolder(dataFolder);
+    ConfigManager manager = new ConfigManager(plugin);
+    Files.writeString(dataFolder.resolve("config.yml"), "lightning: [unclosed\n");
+
+    List<String> problems = manager.reload();
+
+    assertEquals(1, problems.size());
+    assertTrue(problems.get(0).startsWith("config.yml could not be read"), problems.get(0));
+    verify(plugin, never()).reloadConfig();
+  }
+
+  private static DragonEggLightningPlugin pluginWithDataFolder(Path dataFolder) {
+    DragonEggLightningPlugin plugin = mock(DragonEggLightningPlugin.class);
+    when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+    when(plugin.getConfig()).thenReturn(new YamlConfiguration());
+    return plugin;
+  }
+}
@@ -0,0 +1,179 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.pilaf.AsyncRconClient;
+import com.dragonegg.lightning.pilaf.FakeRconServer;
+import com.dragonegg.lightning.pilaf.RconConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for pooled RCON connections against a fake server that injects faults.
+ */
+class RconConnectionPoolTest {
+
+  private static final String PASSWORD = "secret";
+
+  private FakeRconServer server;
+  private RconConnectionPool pool;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new FakeRconServer(PASSWORD);
+    server.setResponder(command -> "ran " + command);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (pool != null) {
+      pool.close();
+    }
+    server.close();
+  }
+
+  private RconConnectionPool pool(int size, String password, Duration probeAfter) {
+    pool = new RconConnectionPool("127.0.0.1", server.getPort(), password, new RconConnectionPool.Settings(
+      size, Duration.ofSeconds(5), Duration.ofMillis(10), Duration.ofMillis(80), 5, probeAfter));
+    return pool;
+  }
+
+  @Test
+  @DisplayName("Connections are reused between commands")
+  void testReuse() throws IOException {
+    pool(2, PASSWORD, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals("ran say " + i, pool.execute("say " + i));
+    }
+
+    assertEquals(1, pool.getConnectCount());
+    assertEquals(1, server.getConnectionCount());
+  }
+
+  @Test
+  @DisplayName("A dropped connection is replaced and an idempotent command still succeeds")
+  void testReconnectAfterDrop() throws IOException {
+    pool(2, PASSWORD, Duration.ofMinutes(1));
+    pool.execute("say before");
+
+    server.dropConnections();
+
+    assertEquals("ran list", pool.executeIdempotent("list"));
+    assertEquals(2, pool.getConnectCount());
+    assertEquals(1, pool.getReconnectCount());
+  }
+
+  @Test
+  @DisplayName("A command whose connection drops mid-flight is not sent again")
+  void testNoResendAfterDrop() throws IOException {
+    pool(2, PASSWORD, Duration.ofMinutes(1));
+    AtomicBoolean drop = new AtomicBoolean(true);
+    server.setResponder(command -> {
+      if (drop.getAndSet(false)) {
+        server.dropConnections();
+      }
+      return "ran " + command;
+    });
+
+    assertThrows(IOException.class, () -> pool.execute("summon zombie 0 64 0"));
+    assertEquals(1, server.getCommandCount());
+
+    // The pool recovers for the next command
+    assertEquals("ran say after", pool.execute("say after"));
+    assertEquals(2, server.getCommandCount());
+  }
+
+  @Test
+  @DisplayName("An idempotent command whose connection drops mid-flight is sent once more")
+  void testIdempotentResendAfterDrop() throws IOException {
+    pool(2, PASSWORD, Duration.ofMinutes(1));
+    AtomicBoolean drop = new AtomicBoolean(true);
+    server.setResponder(command -> {
+      if (drop.getAndSet(false)) {
+        server.dropConnections();
+      }
+      return "ran " + command;
+    });
+
+    assertEquals("ran list", pool.executeIdempotent("list"));
+    assertEquals(2, server.getCommandCount());
+    assertEquals(2, pool.getConnectCount());
+  }
+
+  @Test
+  @DisplayName("Refused connections are retried with backoff")
+  void testBackoffOnRefusal() throws IOException {
+    pool(1, PASSWORD, Duration.ofMinutes(1));
+    server.refuseConnections(3);
+
+    assertEquals("ran list", pool.execute("list"));
+    assertEquals(4, server.getConnectionCount());
+  }
+
+  @Test
+  @DisplayName("Giving up after the attempt limit reports the failure")
+  void testGivesUp() {
+    pool(1, PASSWORD, Duration.ofMinutes(1));
+    server.refuseConnections(100);
+
+    assertThrows(IOException.class, () -> pool.execute("list"));
+    assertNull(pool.executeCommand("list"));
+  }
+
+  @Test
+  @DisplayName("A wrong password fails at once without retrying")
+  void testWrongPassword() {
+    pool(1, "wrong", Duration.ofMinutes(1));
+
+    assertThrows(AsyncRconClient.AuthenticationException.class, () -> pool.warmUp());
+    assertEquals(1, server.getConnectionCount());
+  }
+
+  @Test
+  @DisplayName("Idle connections are probed before reuse")
+  void testProbeIdleConnection() throws IOException {
+    pool(1, PASSWORD, Duration.ZERO);
+    pool.execute("say one");
+    int commandsBefore = server.getCommandCount();
+
+    pool.execute("say two");
+
+    // The probe plus the command itself
+    assertEquals(commandsBefore + 2, server.getCommandCount());
+    assertEquals(1, pool.getConnectCount());
+  }
+
+  @Test
+  @DisplayName("Concurrent callers share at most the configured connections")
+  void testPoolSize() throws Exception {
+    pool(3, PASSWORD, Duration.ofMinutes(1));
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        String command = "say " + i;
+        results.add(callers.submit(() -> pool.execute(command)));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals("ran say " + i, results.get(i).get());
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    assertTrue(pool.getConnectCount() <= 3, "Opened " + pool.getConnectCount());
+  }
+}
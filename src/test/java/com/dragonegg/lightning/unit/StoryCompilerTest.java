@@ -0,0 +1,159 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.pilaf.PilafPerformance;
+import com.dragonegg.lightning.pilaf.StoryCompiler;
+import com.dragonegg.lightning.pilaf.StoryPlan;
+import com.dragonegg.lightning.pilaf.StoryStep;
+import com.dragonegg.lightning.pilaf.StoryValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiling PILAF stories into plans.
+ */
+class StoryCompilerTest {
+
+  private static final String STORY = """
+    name: "Cached story"
+    setup:
+      - type: "server_action"
+        server_action: "spawn_entity"
+        name: "zombie"
+        entity_type: "ZOMBIE"
+        location: [0, 64, 0]
+    steps:
+      - type: "assertion"
+        assertion: "entity_exists"
+        subject: "zombie"
+    """;
+
+  @Test
+  @DisplayName("Story files in the repository compile")
+  void testRepositoryStories() throws Exception {
+    StoryCompiler compiler = new StoryCompiler();
+    for (String file : List.of(
+      "src/test/resources/integration-stories/lightning-ability-test.yaml",
+      "src/test/resources/test-stories/lightning-ability-test.yaml",
+      "src/test/resources/test-stories/plugin-version-test.yaml")) {
+      StoryPlan plan = compiler.compile(Path.of(file));
+      assertFalse(plan.steps().isEmpty(), file);
+    }
+  }
+
+  @Test
+  @DisplayName("Unchanged files are served from the cache, even at another path")
+  void testCacheByContent(@TempDir Path dir) throws Exception {
+    StoryCompiler compiler = new StoryCompiler();
+    Path first = Files.writeString(dir.resolve("first.yaml"), STORY);
+    Path copy = Files.writeString(dir.resolve("copy.yaml"), STORY);
+
+    StoryPlan plan = compiler.compile(first);
+    assertSame(plan, compiler.compile(first));
+    StoryPlan copied = compiler.compile(copy);
+
+    assertEquals(1, compiler.getCompileCount());
+    assertEquals(1, compiler.getCacheSize());
+    assertEquals(copy.toString(), copied.source());
+    assertEquals(plan.steps(), copied.steps());
+
+    Files.writeString(first, STORY.replace("Cached story", "Changed story"));
+    assertEquals("Changed story", compiler.compile(first).name());
+    assertEquals(2, compiler.getCompileCount());
+  }
+
+  @Test
+  @DisplayName("Every problem in a story is reported at once")
+  void testAllErrorsReported() {
+    Map<String, Object> story = Map.of(
+      "name", "Broken",
+      "steps", List.of(
+        Map.of("type", "teleport"),
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(0, 64)),
+        Map.of("type", "assertion", "assertion", "entity_exists", "subject", "ghost")
+      )
+    );
+
+    StoryValidationException e = assertThrows(StoryValidationException.class,
+      () -> new StoryCompiler().compile("broken", story));
+
+    assertEquals(3, e.getErrors().size(), e.getMessage());
+    assertTrue(e.getErrors().get(0).startsWith("steps[0]"), e.getErrors().get(0));
+    assertTrue(e.getErrors().get(2).contains("ghost"), e.getErrors().get(2));
+  }
+
+  @Test
+  @DisplayName("advance_ticks needs a whole number of ticks")
+  void testAdvanceTicks() throws Exception {
+    StoryCompiler compiler = new StoryCompiler();
+    StoryPlan plan = compiler.compile("ticks", Map.of("steps", List.of(
+      Map.of("type", "server_action", "server_action", "advance_ticks", "ticks", 1200))));
+    assertEquals(new StoryStep.AdvanceTicks("steps[0] advance_ticks", 1200), plan.steps().get(0));
+
+    StoryValidationException e = assertThrows(StoryValidationException.class,
+      () -> compiler.compile("ticks", Map.of("steps", List.of(
+        Map.of("action", "advance_ticks", "ticks", 0.5)))));
+    assertEquals(1, e.getErrors().size(), e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Health checks can require the health to hold for some ticks")
+  void testStableHealth() throws Exception {
+    StoryCompiler compiler = new StoryCompiler();
+    List<Map<String, Object>> setup = List.of(Map.of("type", "server_action", "server_action", "spawn_entity",
+      "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(0, 64, 0)));
+    StoryPlan plan = compiler.compile("stable", Map.of("setup", setup, "steps", List.of(
+      Map.of("type", "assertion", "assertion", "entity_health_equals",
+        "subject", "zombie", "expected_health", 8.0, "stable_ticks", 20))));
+    assertEquals(20, ((StoryStep.AssertHealth) plan.steps().get(0)).stableTicks());
+
+    StoryValidationException e = assertThrows(StoryValidationException.class,
+      () -> compiler.compile("stable", Map.of("setup", setup, "steps", List.of(
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", 8.0, "stable_ticks", 0)))));
+    assertTrue(e.getErrors().get(0).contains("stable_ticks"), e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Performance assertions need a known limit and a maximum")
+  void testPerformanceAssertions() throws Exception {
+    StoryCompiler compiler = new StoryCompiler();
+    StoryPlan plan = compiler.compile("budget", Map.of("steps", List.of(
+      Map.of("type", "assertion", "assertion", "max_entities_scanned", "max", 64))));
+    assertEquals(new StoryStep.AssertPerformance("steps[0] max_entities_scanned",
+      PilafPerformance.Limit.MAX_ENTITIES_SCANNED, 64.0), plan.steps().get(0));
+
+    StoryValidationException e = assertThrows(StoryValidationException.class,
+      () -> compiler.compile("budget", Map.of("steps", List.of(
+        Map.of("type", "assertion", "assertion", "max_tick_ms", "max", 2),
+        Map.of("type", "assertion", "assertion", "max_plugin_tick_ms")))));
+    assertEquals(2, e.getErrors().size(), e.getMessage());
+    assertTrue(e.getErrors().get(0).contains("max_tick_ms"), e.getErrors().get(0));
+  }
+
+  @Test
+  @DisplayName("Legacy spawns next to a player use that player's position")
+  void testLegacyPlayerLocation() throws Exception {
+    Map<String, Object> story = Map.of(
+      "story", Map.of("name", "Legacy"),
+      "setup", Map.of("players", List.of(Map.of("name", "tester", "position", List.of(5, 70, -3)))),
+      "steps", List.of(
+        Map.of("action", "spawn_entity", "name", "target", "entity_type", "ZOMBIE", "player", "tester")
+      )
+    );
+
+    StoryPlan plan = new StoryCompiler().compile("legacy", story);
+
+    StoryStep.SpawnEntity spawn = (StoryStep.SpawnEntity) plan.steps().get(0);
+    assertEquals(List.of(5.0, 70.0, -3.0), spawn.location());
+    assertEquals("Legacy", plan.name());
+  }
+}
@@ -0,0 +1,58 @@
+package com.dragonegg.lightning.ability;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.perf.AllocationMeter;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Heap allocation budget for one lightning strike, measured through the
+ * package-private strike method so a signature change fails to compile.
+ */
+class StrikeAllocationBudgetTest {
+
+  /** One strike: bolt, particle beam, damage and sounds. */
+  private static final double STRIKE_BYTES = 32 * 1024;
+
+  private ServerMock server;
+
+  @BeforeEach
+  void setUp() {
+    assumeTrue(AllocationMeter.isSupported(), "JVM does not report per-thread allocation");
+    server = MockBukkit.mock();
+  }
+
+  @AfterEach
+  void tearDown() {
+    MockBukkit.unmock();
+  }
+
+  @Test
+  @DisplayName("One lightning strike stays within its budget")
+  void testStrikeBudget() {
+    WorldMock world = server.addSimpleWorld("budget");
+    LivingEntity target = (LivingEntity) world.spawnEntity(
+      new Location(world, 0, 64, 0),
+      EntityType.ZOMBIE
+    );
+    // No damage, so the same target survives every strike
+    AbilityProfile profile = new AbilityProfile(50.0, 0.0, 1.0);
+    LightningAbility ability = new LightningAbility(null);
+
+    double bytes = AllocationMeter.bytesPerRun(50, 200, () -> ability.strikeLightning(target, profile));
+
+    assertTrue(bytes <= STRIKE_BYTES,
+      "One strike allocated " + bytes + " bytes, budget " + STRIKE_BYTES);
+  }
+}
@@ -0,0 +1,80 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.TargetCone;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for cone target selection.
+ */
+class TargetConeTest {
+
+  private World world;
+  private Location eye;
+  private Vector direction;
+  private TargetCone cone;
+
+  @BeforeEach
+  void setUp() {
+    world = mock(World.class);
+    eye = new Location(world, 0, 64, 0);
+    direction = new Vector(1, 0, 0);
+    cone = new TargetCone();
+  }
+
+  private LivingEntity livingAt(double x, double y, double z) {
+    LivingEntity entity = mock(LivingEntity.class);
+    // Callers mutate the returned location, so hand out a fresh one each time
+    when(entity.getLocation()).thenAnswer(invocation -> new Location(world, x, y, z));
+    return entity;
+  }
+
+  @Test
+  @DisplayName("Nearest entity inside the cone wins; entities behind are ignored")
+  void testPicksNearestInCone() {
+    LivingEntity far = livingAt(20, 64, 0);
+    LivingEntity near = livingAt(10, 64, 0);
+    LivingEntity behind = livingAt(-5, 64, 0);
+
+    LivingEntity result = cone.nearest(eye, direction, List.of(far, behind, near), 50.0, null, null);
+
+    assertSame(near, result);
+    assertEquals(3, cone.getLastScanned());
+  }
+
+  @Test
+  @DisplayName("Caster, excluded, dead and non-living entities are skipped")
+  void testSkipsExcludedEntities() {
+    LivingEntity caster = livingAt(1, 64, 0);
+    LivingEntity excluded = livingAt(5, 64, 0);
+    LivingEntity dead = livingAt(6, 64, 0);
+    when(dead.isDead()).thenReturn(true);
+    Entity item = mock(Entity.class);
+    LivingEntity target = livingAt(30, 64, 0);
+
+    LivingEntity result = cone.nearest(
+      eye, direction, List.of(caster, excluded, dead, item, target), 50.0, caster, excluded
+    );
+
+    assertSame(target, result);
+  }
+
+  @Test
+  @DisplayName("Entities beyond the range are not selected")
+  void testRespectsRange() {
+    LivingEntity outOfRange = livingAt(60, 64, 0);
+
+    assertNull(cone.nearest(eye, direction, List.of(outOfRange), 50.0, null, null));
+  }
+}
@@ -0,0 +1,81 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.metrics.Histogram;
+import com.dragonegg.lightning.metrics.TickProfiler;
+import com.dragonegg.lightning.metrics.TickProfiler.Subsystem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-subsystem tick accounting and window rollover.
+ */
+class TickProfilerTest {
+
+  @Test
+  @DisplayName("Nested sections charge time to the innermost subsystem only")
+  void testNestedSectionsAreExclusive() {
+    TickProfiler profiler = new TickProfiler();
+    long start = System.nanoTime();
+
+    profiler.enter(Subsystem.COMMANDS, start);
+    profiler.enter(Subsystem.TARGETING, start + 100);
+    profiler.exit(start + 400);
+    profiler.enter(Subsystem.STRIKES, start + 450);
+    profiler.exit(start + 1450);
+    profiler.exit(start + 1500);
+    profiler.endTick(start + 2000);
+
+    assertEquals(200, profiler.getHistogram(Subsystem.COMMANDS).max());
+    assertEquals(300, profiler.getHistogram(Subsystem.TARGETING).max());
+    assertEquals(1000, profiler.getHistogram(Subsystem.STRIKES).max());
+    assertEquals(0, profiler.getHistogram(Subsystem.HUD).max());
+    assertEquals(1500, profiler.getLastTickNanos(), "Tick total covers every subsystem");
+
+    profiler.endTick(start + 3000);
+    assertEquals(0, profiler.getLastTickNanos(), "Idle tick totals nothing");
+  }
+
+  @Test
+  @DisplayName("Sections in one tick are summed into a single sample")
+  void testTickTotals() {
+    TickProfiler profiler = new TickProfiler();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < 3; i++) {
+      profiler.enter(Subsystem.HUD, start + i * 100);
+      profiler.exit(start + i * 100 + 50);
+    }
+    profiler.endTick(start + 1000);
+    profiler.endTick(start + 2000);
+
+    Histogram hud = profiler.getHistogram(Subsystem.HUD);
+    assertEquals(2, hud.count(), "One sample per tick, including idle ticks");
+    assertEquals(150, hud.max());
+    assertEquals(150, hud.sum());
+  }
+
+  @Test
+  @DisplayName("Windows roll over every minute and keep the last complete one")
+  void testWindowRollover() {
+    TickProfiler profiler = new TickProfiler();
+    long start = System.nanoTime();
+
+    profiler.enter(Subsystem.STRIKES, start);
+    profiler.exit(start + 5000);
+    profiler.endTick(start + 10);
+    assertFalse(profiler.hasCompleteWindow());
+
+    long later = start + TickProfiler.WINDOW_NANOS;
+    profiler.endTick(later);
+    assertTrue(profiler.hasCompleteWindow());
+    assertEquals(2, profiler.getHistogram(Subsystem.STRIKES).count());
+    assertEquals(5000, profiler.getHistogram(Subsystem.STRIKES).max());
+
+    // The next window starts empty and only becomes visible once it completes
+    profiler.endTick(later + TickProfiler.WINDOW_NANOS);
+    assertEquals(1, profiler.getHistogram(Subsystem.STRIKES).count());
+    assertEquals(0, profiler.getHistogram(Subsystem.STRIKES).max());
+  }
+}
@@ -0,0 +1,260 @@
+package com.dragonegg.lightning.unit;
+
+import com.dragonegg.lightning.ability.AbilityManager;
+import com.dragonegg.lightning.pilaf.PilafParallelStoryRunner;
+import com.dragonegg.lightning.pilaf.PilafPerformance;
+import com.dragonegg.lightning.pilaf.PilafStoryResult;
+import com.dragonegg.lightning.pilaf.TickSteppingMockBukkitBackend;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running the real plugin on MockBukkit with stepped ticks.
+ */
+class TickSteppingMockBukkitBackendTest {
+
+  private TickSteppingMockBukkitBackend backend;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    backend = new TickSteppingMockBukkitBackend();
+    backend.initialize();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    backend.cleanup();
+  }
+
+  /**
+   * A player three blocks from a zombie, facing it with an egg in the offhand.
+   */
+  private Player castReady() {
+    backend.spawnEntity("zombie", "ZOMBIE", List.of(3.0, 64.0, 0.0), null);
+    backend.addPlayer("caster", List.of(0.0, 64.0, 0.0));
+    backend.equipItem("caster", "dragon_egg", "offhand");
+    backend.movePlayer("caster", "entity", "zombie");
+    return backend.getPlugin().getServer().getPlayerExact("caster");
+  }
+
+  @Test
+  @DisplayName("Strikes land on their scheduled ticks")
+  void testStrikesFollowTicks() {
+    castReady();
+
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    // The first strike lands in the same tick as the command
+    assertEquals(16.0, backend.getEntityHealth("zombie"), 0.01);
+
+    backend.advanceTicks(9);
+    assertEquals(16.0, backend.getEntityHealth("zombie"), 0.01);
+    backend.advanceTicks(1);
+    assertEquals(12.0, backend.getEntityHealth("zombie"), 0.01);
+    backend.advanceTicks(10);
+    assertEquals(8.0, backend.getEntityHealth("zombie"), 0.01);
+  }
+
+  @Test
+  @DisplayName("A full cooldown passes by stepping 1200 ticks")
+  void testCooldownLifecycle() {
+    Player caster = castReady();
+    AbilityManager abilities = backend.getPlugin().getAbilityManager();
+    long start = System.nanoTime();
+
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    assertTrue(abilities.isOnCooldown(caster));
+
+    backend.advanceTicks(1199);
+    assertTrue(abilities.isOnCooldown(caster), "one tick of cooldown should be left");
+    backend.advanceTicks(1);
+    assertFalse(abilities.isOnCooldown(caster));
+
+    // The next cast is accepted again
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    assertTrue(abilities.isOnCooldown(caster));
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 10);
+  }
+
+  @Test
+  @DisplayName("Waits step ticks instead of sleeping")
+  void testAwaitStepsTicks() throws InterruptedException {
+    castReady();
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    long tick = backend.getCurrentTick();
+
+    assertTrue(backend.awaitEntityHealthBelow("zombie", 10.0, Duration.ofSeconds(5)));
+    assertEquals(tick + 20, backend.getCurrentTick());
+  }
+
+  @Test
+  @DisplayName("Story wait steps step ticks and move the cooldown clock")
+  void testWaitStepsTicks() throws InterruptedException {
+    long tick = backend.getCurrentTick();
+    long millis = backend.getPlugin().getAbilityManager().currentTimeMillis();
+
+    backend.waitFor(Duration.ofMillis(2990));
+
+    assertEquals(tick + 60, backend.getCurrentTick());
+    assertEquals(millis + 3000, backend.getPlugin().getAbilityManager().currentTimeMillis());
+  }
+
+  @Test
+  @DisplayName("Stories step ticks with advance_ticks")
+  void testStory() throws Exception {
+    // The runner initializes and cleans up its own backend
+    backend.cleanup();
+    Map<String, Object> story = Map.of(
+      "name", "Cooldown lifecycle",
+      "setup", List.of(
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(3, 64, 0)),
+        Map.of("type", "server_action", "server_action", "spawn_player",
+          "name", "caster", "location", List.of(0, 64, 0))
+      ),
+      "steps", List.of(
+        Map.of("type", "action", "action", "player_equip_item",
+          "subject", "caster", "item", "dragon_egg", "slot", "offhand"),
+        Map.of("type", "action", "action", "player_move",
+          "subject", "caster", "destination_type", "entity", "destination", "zombie"),
+        Map.of("type", "action", "action", "player_execute_command",
+          "subject", "caster", "command", "ability", "arguments", List.of("1")),
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", 8.0, "timeout", 2),
+        Map.of("type", "server_action", "server_action", "set_entity_health",
+          "subject", "zombie", "health", 20.0),
+        Map.of("type", "server_action", "server_action", "advance_ticks", "ticks", 1200),
+        Map.of("type", "action", "action", "player_execute_command",
+          "subject", "caster", "command", "ability", "arguments", List.of("1")),
+        Map.of("type", "assertion", "assertion", "entity_health_equals",
+          "subject", "zombie", "expected_health", 16.0)
+      )
+    );
+
+    PilafStoryResult result = new PilafParallelStoryRunner(1, TickSteppingMockBukkitBackend::new)
+      .run(List.of(new PilafParallelStoryRunner.Story("cooldown", story))).get(0);
+
+    assertTrue(result.isPassed(), result.toString());
+  }
+
+  @Test
+  @DisplayName("Performance assertions read the plugin's metrics")
+  void testPerformanceStory() throws Exception {
+    backend.cleanup();
+    Map<String, Object> story = Map.of(
+      "name", "Strike budget",
+      "setup", List.of(
+        Map.of("type", "server_action", "server_action", "spawn_entity",
+          "name", "zombie", "entity_type", "ZOMBIE", "location", List.of(3, 64, 0)),
+        Map.of("type", "server_action", "server_action", "spawn_player",
+          "name", "caster", "location", List.of(0, 64, 0))
+      ),
+      "steps", List.of(
+        Map.of("type", "action", "action", "player_equip_item",
+          "subject", "caster", "item", "dragon_egg", "slot", "offhand"),
+        Map.of("type", "action", "action", "player_move",
+          "subject", "caster", "destination_type", "entity", "destination", "zombie"),
+        Map.of("type", "action", "action", "player_execute_command",
+          "subject", "caster", "command", "ability", "arguments", List.of("1")),
+        Map.of("type", "server_action", "server_action", "advance_ticks", "ticks", 60),
+        Map.of("type", "assertion", "assertion", "max_plugin_tick_ms", "max", 50),
+        // Three strikes of 73 packets each (bolt, 70 particle batches, 2 sounds) for the one player
+        Map.of("type", "assertion", "assertion", "max_packets_per_cast", "max", 250),
+        Map.of("type", "assertion", "assertion", "max_entities_scanned", "max", 64),
+        Map.of("type", "assertion", "assertion", "max_cast_latency_ticks", "max", 1)
+      )
+    );
+
+    PilafStoryResult result = new PilafParallelStoryRunner(1, TickSteppingMockBukkitBackend::new)
+      .run(List.of(new PilafParallelStoryRunner.Story("budget", story))).get(0);
+
+    assertTrue(result.isPassed(), result.toString());
+    assertEquals(0, result.getStepsSkipped());
+  }
+
+  @Test
+  @DisplayName("Effect packets are counted once for each player in range")
+  void testPacketsPerRecipient() {
+    castReady();
+    backend.addPlayer("nearby", List.of(0.0, 64.0, 5.0));
+    backend.addPlayer("distant", List.of(500.0, 64.0, 0.0));
+    backend.markPerformance();
+
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    long twoInRange = backend.readPerformance().effectPackets();
+    backend.movePlayer("nearby", "location", "500 64 5");
+    backend.advanceTicks(10);
+    long oneInRange = backend.readPerformance().effectPackets() - twoInRange;
+
+    assertTrue(oneInRange > 0);
+    assertEquals(2 * oneInRange, twoInRange);
+  }
+
+  @Test
+  @DisplayName("Packets per cast report the worst cast, not the average")
+  void testWorstCastPackets() {
+    castReady();
+    backend.addPlayer("bystander", List.of(0.0, 64.0, 5.0));
+    backend.spawnEntity("distant_zombie", "ZOMBIE", List.of(3.0, 64.0, 200.0), null);
+    backend.addPlayer("distant", List.of(0.0, 64.0, 200.0));
+    backend.equipItem("distant", "dragon_egg", "offhand");
+    backend.movePlayer("distant", "entity", "distant_zombie");
+    backend.markPerformance();
+
+    // The first cast reaches two players, the second only its caster
+    backend.executePlayerCommand("caster", "ability", List.of("1"));
+    backend.executePlayerCommand("distant", "ability", List.of("1"));
+    backend.advanceTicks(30);
+
+    PilafPerformance performance = backend.readPerformance();
+    assertEquals(2, performance.tracedCasts());
+    assertEquals(2 * performance.effectPackets(), 3 * performance.maxPacketsPerCast());
+    assertEquals(performance.maxPacketsPerCast(),
+      performance.value(PilafPerformance.Limit.MAX_PACKETS_PER_CAST), 0.0);
+  }
+
+  @Test
+  @DisplayName("Cast latency includes the ticks a queued cast waited")
+  void testQueuedCastLatency() {
+    // One caster more than a region admits at once, so the last waits for the first to finish
+    for (int i = 0; i < 5; i++) {
+      backend.spawnEntity("zombie" + i, "ZOMBIE", List.of(3.0, 64.0, i * 20.0), null);
+      backend.addPlayer("caster" + i, List.of(0.0, 64.0, i * 20.0));
+      backend.equipItem("caster" + i, "dragon_egg", "offhand");
+      backend.movePlayer("caster" + i, "entity", "zombie" + i);
+    }
+    backend.markPerformance();
+
+    for (int i = 0; i < 5; i++) {
+      backend.executePlayerCommand("caster" + i, "ability", List.of("1"));
+    }
+    backend.advanceTicks(60);
+
+    PilafPerformance performance = backend.readPerformance();
+    assertEquals(5, performance.tracedCasts());
+    // Admitted when the first cast's third strike lands, 20 ticks after activation
+    assertEquals(20, performance.maxCastLatencyTicks());
+  }
+
+  @Test
+  @DisplayName("A limit with nothing to measure fails")
+  void testPerformanceWithoutCasts() {
+    backend.markPerformance();
+    backend.advanceTicks(5);
+
+    PilafPerformance performance = backend.readPerformance();
+
+    assertEquals(5, performance.ticks());
+    assertTrue(performance.measured(PilafPerformance.Limit.MAX_PLUGIN_TICK_MS));
+    assertFalse(performance.measured(PilafPerformance.Limit.MAX_PACKETS_PER_CAST));
+    assertFalse(performance.measured(PilafPerformance.Limit.MAX_CAST_LATENCY_TICKS));
+  }
+}
@@ -0,0 +1,67 @@
+package com.dragonegg.lightning.ability;
+
+import com.dragonegg.lightning.config.AbilityProfile;
+import com.dragonegg.lightning.config.PluginConfig;
+import com.dragonegg.lightning.config.WorldProfiles;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the per-world profile index cache.
+ */
+class WorldProfileCacheTest {
+
+  private static WorldProfiles profiles(double arenaRange) {
+    YamlConfiguration yaml = new YamlConfiguration();
+    yaml.set("lightning.worlds.pvp_arena.max-range", arenaRange);
+    return PluginConfig.fromConfig(yaml, new ArrayList<>()).profiles();
+  }
+
+  @Test
+  @DisplayName("Worlds resolve to their profile once and are then found by UID")
+  void testResolvesOncePerWorld() {
+    WorldProfileCache cache = new WorldProfileCache();
+    WorldProfiles profiles = profiles(30.0);
+    UUID arena = UUID.randomUUID();
+    UUID world = UUID.randomUUID();
+
+    assertSame(profiles.forWorld("pvp_arena"), cache.get(profiles, arena, "pvp_arena"));
+    assertSame(profiles.defaultProfile(), cache.get(profiles, world, "world"));
+    // The name is not consulted again for a world already seen
+    assertSame(profiles.forWorld("pvp_arena"), cache.get(profiles, arena, "renamed"));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  @DisplayName("New profiles after a reload replace the cached indexes")
+  void testReloadClearsCache() {
+    WorldProfileCache cache = new WorldProfileCache();
+    UUID arena = UUID.randomUUID();
+    cache.get(profiles(30.0), arena, "pvp_arena");
+
+    WorldProfiles reloaded = profiles(12.0);
+    AbilityProfile profile = cache.get(reloaded, arena, "pvp_arena");
+
+    assertEquals(12.0, profile.maxRange());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  @DisplayName("The cache starts over instead of growing past its cap")
+  void testBounded() {
+    WorldProfileCache cache = new WorldProfileCache();
+    WorldProfiles profiles = profiles(30.0);
+
+    for (int i = 0; i < WorldProfileCache.MAX_WORLDS + 1; i++) {
+      assertSame(profiles.defaultProfile(), cache.get(profiles, UUID.randomUUID(), "world" + i));
+    }
+
+    assertEquals(1, cache.size());
+  }
+}